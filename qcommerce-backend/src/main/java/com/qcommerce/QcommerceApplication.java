@@ -2,11 +2,15 @@ package com.qcommerce; // Updated package
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the QCommerce service.
  */
 @SpringBootApplication // Scans com.qcommerce and its subpackages by default
+@EnableAsync // Background work such as warming the registered identity filter
+@EnableScheduling // Periodic housekeeping, e.g. sweeping expired token revocations
 public class QcommerceApplication { // Renamed class
 
     public static void main(String[] args) {
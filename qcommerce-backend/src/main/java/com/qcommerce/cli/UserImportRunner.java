@@ -0,0 +1,70 @@
+package com.qcommerce.cli;
+
+import com.qcommerce.service.UserImportService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Command-line entry point for {@link UserImportService}. Only active when a file is given, and run by an
+ * operator on the server, so the import is not reachable over HTTP (a random port keeps it off the live one):
+ * <pre>
+ * java -jar qcommerce-backend-exec.jar --server.port=0 --user-import.file=users.ndjson
+ * </pre>
+ * The JVM exits when the import is done: status 0 if every row was imported, 2 if some rows were rejected
+ * (see the error file), 1 if the import could not run.
+ */
+@Component
+@ConditionalOnProperty(name = "user-import.file")
+@Profile("!in-memory")
+public class UserImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportRunner.class);
+
+    private final UserImportService userImportService;
+    private final ConfigurableApplicationContext context;
+    private final Path file;
+    private final Path errorFile;
+    private final boolean exitWhenDone;
+
+    public UserImportRunner(UserImportService userImportService,
+                            ConfigurableApplicationContext context,
+                            @Value("${user-import.file}") String file,
+                            @Value("${user-import.error-file:}") String errorFile,
+                            @Value("${user-import.exit-when-done:true}") boolean exitWhenDone) {
+        this.userImportService = userImportService;
+        this.context = context;
+        this.file = Path.of(file);
+        this.errorFile = errorFile.isBlank() ? Path.of(file + ".errors.ndjson") : Path.of(errorFile);
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode;
+        try {
+            UserImportService.ImportReport report = userImportService.importUsers(file, errorFile);
+            exitCode = report.failed() == 0 ? 0 : 2;
+            if (report.failed() > 0) {
+                logger.warn("{} rows were rejected; see {}", report.failed(), errorFile);
+            }
+        } catch (Exception ex) {
+            logger.error("User import from {} failed.", file, ex);
+            exitCode = 1;
+        }
+        if (exitWhenDone) {
+            int status = exitCode;
+            System.exit(SpringApplication.exit(context, () -> status));
+        }
+    }
+}
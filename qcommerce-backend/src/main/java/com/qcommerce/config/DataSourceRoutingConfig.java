@@ -0,0 +1,79 @@
+package com.qcommerce.config;
+
+import com.qcommerce.service.ReadYourWrites;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the read replicas and everything else to the primary.
+ * <p>
+ * The application {@link DataSource} is a {@link LazyConnectionDataSourceProxy}: it only fetches a physical
+ * connection at the first statement, by which time the transaction manager has flagged the connection read-only
+ * for {@code @Transactional(readOnly = true)}, and read-only connections come from {@link ReplicaRoutingDataSource}.
+ * Replacing the {@code DataSource} makes Spring Boot's own pool back off, so the primary pool is built here from
+ * the usual {@code spring.datasource.*} properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource-routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                                      DataSourceProperties primaryProperties,
+                                                      DataSourceRoutingProperties routing,
+                                                      ReadYourWrites readYourWrites,
+                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < routing.replicas().size(); i++) {
+            DataSourceRoutingProperties.Replica replica = routing.replicas().get(i);
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(replica.url());
+            config.setUsername(replica.username() != null ? replica.username() : primaryProperties.determineUsername());
+            config.setPassword(replica.password() != null ? replica.password() : primaryProperties.determinePassword());
+            config.setMaximumPoolSize(replica.maximumPoolSize());
+            config.setConnectionTimeout(routing.connectionTimeoutMs());
+            config.setReadOnly(true);
+            // Start even if the replica is down; the health check keeps it out of rotation until it answers
+            config.setInitializationFailTimeout(-1);
+            // Not beans, so Spring Boot does not instrument them; same hikaricp.* meters, tagged by pool name
+            meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWrites::isPinnedToPrimary,
+                routing.healthCheckIntervalMs());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
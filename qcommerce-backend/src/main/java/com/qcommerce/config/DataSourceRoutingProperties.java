@@ -0,0 +1,28 @@
+package com.qcommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Read replicas used by {@link DataSourceRoutingConfig}. The primary stays {@code spring.datasource}.
+ *
+ * @param healthCheckIntervalMs How often each replica pool is validated.
+ * @param connectionTimeoutMs   How long a replica pool may block for a connection before the read falls back.
+ */
+@ConfigurationProperties("datasource-routing")
+public record DataSourceRoutingProperties(@DefaultValue("5000") long healthCheckIntervalMs,
+                                          @DefaultValue("1000") long connectionTimeoutMs,
+                                          @DefaultValue List<Replica> replicas) {
+
+    /**
+     * @param username Defaults to the primary's.
+     * @param password Defaults to the primary's.
+     */
+    public record Replica(String url,
+                          String username,
+                          String password,
+                          @DefaultValue("10") int maximumPoolSize) {
+    }
+}
@@ -0,0 +1,312 @@
+package com.qcommerce.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.qcommerce.generated.model.Address;
+import com.qcommerce.generated.model.AuthResponse;
+import com.qcommerce.generated.model.Error;
+import com.qcommerce.generated.model.Role;
+import com.qcommerce.generated.model.TokenPair;
+import com.qcommerce.generated.model.User;
+
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written Jackson serializers for the generated response models: {@link AuthResponse} with its {@link User},
+ * {@link Role}s and {@link Address}es, {@link TokenPair} and {@link Error}.
+ * <p>
+ * Jackson's bean serializer calls every getter reflectively, checks inclusion per property and resolves a serializer
+ * for the content of each {@link JsonNullable} through the reference-type machinery of the {@code JsonNullableModule}.
+ * These write the fields directly, with pre-encoded names, and unwrap {@code JsonNullable} in place, producing the
+ * same bytes:
+ * <ul>
+ *   <li>properties in declaration order, plain {@code null}s written as {@code null},</li>
+ *   <li>an undefined {@code JsonNullable} left out, a present {@code null} written as {@code null}.</li>
+ * </ul>
+ * A serializer only replaces Jackson's when the bean serializer Jackson built for the type has exactly the expected
+ * properties in that order and the mapper writes every value ({@code Include.ALWAYS}). If the OpenAPI spec gains a
+ * field, or someone sets {@code spring.jackson.default-property-inclusion}, the type quietly goes back to the generic
+ * path, with a warning, instead of producing different JSON.
+ */
+final class GeneratedModelSerializers {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneratedModelSerializers.class);
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString PHONE = new SerializedString("phone");
+    private static final SerializedString ACCESS_TOKEN = new SerializedString("accessToken");
+    private static final SerializedString REFRESH_TOKEN = new SerializedString("refreshToken");
+
+    private static final List<ModelSerializer<?>> SERIALIZERS = List.of(
+            new AuthResponseSerializer(),
+            new UserSerializer(),
+            new RoleSerializer(),
+            new AddressSerializer(),
+            new TokenPairSerializer(),
+            new ErrorSerializer());
+
+    private GeneratedModelSerializers() {
+    }
+
+    static SimpleModule module() {
+        SimpleModule module = new SimpleModule("GeneratedModelSerializers");
+        module.setSerializerModifier(new Modifier());
+        return module;
+    }
+
+    /**
+     * Swaps in the specialized serializer once Jackson has built and vetted its own for the same type.
+     */
+    private static final class Modifier extends BeanSerializerModifier {
+
+        @Override
+        public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                  JsonSerializer<?> serializer) {
+            Class<?> type = beanDesc.getBeanClass();
+            ModelSerializer<?> specialized = null;
+            for (ModelSerializer<?> candidate : SERIALIZERS) {
+                if (candidate.handledType() == type) {
+                    specialized = candidate;
+                }
+            }
+            if (specialized == null || !(serializer instanceof BeanSerializerBase bean)) {
+                return serializer;
+            }
+            JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(type).getValueInclusion();
+            if (inclusion != JsonInclude.Include.ALWAYS && inclusion != JsonInclude.Include.USE_DEFAULTS) {
+                logger.warn("Not specializing JSON for {}: property inclusion is {}.", type.getSimpleName(), inclusion);
+                return serializer;
+            }
+            List<String> properties = new ArrayList<>();
+            bean.properties().forEachRemaining(property -> properties.add(property.getName()));
+            if (!properties.equals(specialized.propertyNames)) {
+                logger.warn("Not specializing JSON for {}: expected properties {} but the model has {}.",
+                        type.getSimpleName(), specialized.propertyNames, properties);
+                return serializer;
+            }
+            return specialized;
+        }
+    }
+
+    private abstract static class ModelSerializer<T> extends StdSerializer<T> {
+
+        final List<String> propertyNames;
+
+        ModelSerializer(Class<T> type, SerializedString... properties) {
+            super(type);
+            this.propertyNames = Arrays.stream(properties).map(SerializedString::getValue).toList();
+        }
+
+        @Override
+        public final void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            writeFields(value, gen, provider);
+            gen.writeEndObject();
+        }
+
+        abstract void writeFields(T value, JsonGenerator gen, SerializerProvider provider) throws IOException;
+    }
+
+    private static final class AuthResponseSerializer extends ModelSerializer<AuthResponse> {
+
+        private static final SerializedString USER = new SerializedString("user");
+
+        AuthResponseSerializer() {
+            super(AuthResponse.class, ACCESS_TOKEN, REFRESH_TOKEN, USER);
+        }
+
+        @Override
+        void writeFields(AuthResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeString(gen, ACCESS_TOKEN, value.getAccessToken());
+            writeNullableString(gen, REFRESH_TOKEN, value.getRefreshToken());
+            gen.writeFieldName(USER);
+            writeValue(gen, provider, value.getUser(), User.class);
+        }
+    }
+
+    private static final class UserSerializer extends ModelSerializer<User> {
+
+        private static final SerializedString LOCALE = new SerializedString("locale");
+        private static final SerializedString IS_ACTIVE = new SerializedString("isActive");
+        private static final SerializedString ADDRESSES = new SerializedString("addresses");
+        private static final SerializedString ROLES = new SerializedString("roles");
+
+        UserSerializer() {
+            super(User.class, ID, EMAIL, PHONE, LOCALE, IS_ACTIVE, ADDRESSES, ROLES);
+        }
+
+        @Override
+        void writeFields(User value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeLong(gen, ID, value.getId());
+            writeString(gen, EMAIL, value.getEmail());
+            writeNullableString(gen, PHONE, value.getPhone());
+            writeNullableString(gen, LOCALE, value.getLocale());
+            gen.writeFieldName(IS_ACTIVE);
+            if (value.getIsActive() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeBoolean(value.getIsActive());
+            }
+            writeNullableList(gen, provider, ADDRESSES, value.getAddresses(), Address.class);
+            writeNullableList(gen, provider, ROLES, value.getRoles(), Role.class);
+        }
+    }
+
+    private static final class RoleSerializer extends ModelSerializer<Role> {
+
+        private static final SerializedString NAME = new SerializedString("name");
+
+        RoleSerializer() {
+            super(Role.class, ID, NAME);
+        }
+
+        @Override
+        void writeFields(Role value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeLong(gen, ID, value.getId());
+            writeString(gen, NAME, value.getName());
+        }
+    }
+
+    private static final class AddressSerializer extends ModelSerializer<Address> {
+
+        private static final SerializedString TYPE = new SerializedString("type");
+        private static final SerializedString LINE1 = new SerializedString("line1");
+        private static final SerializedString LINE2 = new SerializedString("line2");
+        private static final SerializedString CITY = new SerializedString("city");
+        private static final SerializedString STATE = new SerializedString("state");
+        private static final SerializedString COUNTRY = new SerializedString("country");
+        private static final SerializedString ZIP = new SerializedString("zip");
+
+        AddressSerializer() {
+            super(Address.class, ID, TYPE, LINE1, LINE2, CITY, STATE, COUNTRY, ZIP, PHONE);
+        }
+
+        @Override
+        void writeFields(Address value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeLong(gen, ID, value.getId());
+            writeString(gen, TYPE, value.getType());
+            writeString(gen, LINE1, value.getLine1());
+            writeNullableString(gen, LINE2, value.getLine2());
+            writeString(gen, CITY, value.getCity());
+            writeString(gen, STATE, value.getState());
+            writeString(gen, COUNTRY, value.getCountry());
+            writeString(gen, ZIP, value.getZip());
+            writeNullableString(gen, PHONE, value.getPhone());
+        }
+    }
+
+    private static final class TokenPairSerializer extends ModelSerializer<TokenPair> {
+
+        TokenPairSerializer() {
+            super(TokenPair.class, ACCESS_TOKEN, REFRESH_TOKEN);
+        }
+
+        @Override
+        void writeFields(TokenPair value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeString(gen, ACCESS_TOKEN, value.getAccessToken());
+            writeString(gen, REFRESH_TOKEN, value.getRefreshToken());
+        }
+    }
+
+    private static final class ErrorSerializer extends ModelSerializer<Error> {
+
+        private static final SerializedString MESSAGE = new SerializedString("message");
+        private static final SerializedString CODE = new SerializedString("code");
+        private static final SerializedString DETAILS = new SerializedString("details");
+
+        ErrorSerializer() {
+            super(Error.class, MESSAGE, CODE, DETAILS);
+        }
+
+        @Override
+        void writeFields(Error value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeString(gen, MESSAGE, value.getMessage());
+            writeNullableString(gen, CODE, value.getCode());
+            JsonNullable<Map<String, Object>> details = value.getDetails();
+            if (details == null || details.isPresent()) {
+                gen.writeFieldName(DETAILS);
+                // Free-form, so the generic map serializer handles it
+                writeValue(gen, provider, details != null ? details.get() : null, Map.class);
+            }
+        }
+    }
+
+    private static void writeString(JsonGenerator gen, SerializedString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeString(value); // writes null for null
+    }
+
+    private static void writeLong(JsonGenerator gen, SerializedString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.longValue());
+        }
+    }
+
+    // Undefined is left out; present null, and a null reference to the wrapper itself, are written as null
+    private static void writeNullableString(JsonGenerator gen, SerializedString name, JsonNullable<String> value)
+            throws IOException {
+        if (value == null) {
+            gen.writeFieldName(name);
+            gen.writeNull();
+        } else if (value.isPresent()) {
+            gen.writeFieldName(name);
+            gen.writeString(value.get());
+        }
+    }
+
+    private static <T> void writeNullableList(JsonGenerator gen, SerializerProvider provider, SerializedString name,
+                                              JsonNullable<List<T>> value, Class<T> elementType) throws IOException {
+        if (value != null && !value.isPresent()) {
+            return;
+        }
+        gen.writeFieldName(name);
+        List<T> list = value != null ? value.get() : null;
+        if (list == null) {
+            gen.writeNull();
+            return;
+        }
+        // Looked up once per list; the provider may have kept Jackson's own serializer for the element type
+        JsonSerializer<Object> serializer = provider.findValueSerializer(elementType);
+        gen.writeStartArray(list, list.size());
+        for (T element : list) {
+            if (element == null) {
+                gen.writeNull();
+            } else {
+                serializer.serialize(element, gen, provider);
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeValue(JsonGenerator gen, SerializerProvider provider, Object value, Class<?> type)
+            throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (value.getClass() == type) {
+            provider.findValueSerializer(type).serialize(value, gen, provider);
+        } else {
+            provider.defaultSerializeValue(value, gen);
+        }
+    }
+}
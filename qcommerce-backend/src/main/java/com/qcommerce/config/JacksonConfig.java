@@ -1,6 +1,8 @@
 package com.qcommerce.config;
 
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -23,4 +25,16 @@ public class JacksonConfig {
     public JsonNullableModule jsonNullableModule() {
         return new JsonNullableModule();
     }
+
+    /**
+     * Hand-written serializers for the hot response models, byte-for-byte what the generic path writes.
+     * See {@link GeneratedModelSerializers}.
+     *
+     * @return The module, picked up by Spring Boot like the one above.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "json.specialized-serializers.enabled", havingValue = "true", matchIfMissing = true)
+    public SimpleModule generatedModelSerializers() {
+        return GeneratedModelSerializers.module();
+    }
 }
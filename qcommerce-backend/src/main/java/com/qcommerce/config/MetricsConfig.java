@@ -0,0 +1,92 @@
+package com.qcommerce.config;
+
+import com.qcommerce.security.AuthThrottle;
+import com.qcommerce.security.InMemoryTokenRevocationStore;
+import com.qcommerce.security.PasswordHashingExecutor;
+import com.qcommerce.security.VerifiedTokenCache;
+import com.qcommerce.service.AddressListCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the counters our components already keep (as {@code LongAdder}s, read on scrape) as Micrometer
+ * meters, so the hot paths pay nothing extra for being observable.
+ * <p>
+ * Timers on the request path (auth phases, JWT mint/verify, {@code http.server.requests}, Hikari's
+ * {@code hikaricp.connections.acquire}) are recorded where they happen; everything is scraped from
+ * {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(PasswordHashingExecutor executor) {
+        return registry -> {
+            Gauge.builder("password.hashing.queued", executor, PasswordHashingExecutor::queueDepth)
+                    .description("Hashes waiting for a hashing thread")
+                    .register(registry);
+            Gauge.builder("password.hashing.active", executor, PasswordHashingExecutor::activeCount)
+                    .description("Hashes running right now")
+                    .register(registry);
+            FunctionTimer.builder("password.hashing.wait", executor,
+                            PasswordHashingExecutor::completedCount, PasswordHashingExecutor::totalWaitNanos,
+                            TimeUnit.NANOSECONDS)
+                    .description("Time hashes spent queued before a thread picked them up")
+                    .register(registry);
+            FunctionTimer.builder("password.hashing.duration", executor,
+                            PasswordHashingExecutor::completedCount, PasswordHashingExecutor::totalHashNanos,
+                            TimeUnit.NANOSECONDS)
+                    .description("Time spent hashing on the hashing threads")
+                    .register(registry);
+            FunctionCounter.builder("password.hashing.rejected", executor, PasswordHashingExecutor::rejectedCount)
+                    .description("Hashes refused because the queue was full (503)")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder tokenMetrics(VerifiedTokenCache verifiedTokenCache, InMemoryTokenRevocationStore revocationStore) {
+        return registry -> {
+            FunctionCounter.builder("jwt.verified.cache.requests", verifiedTokenCache, VerifiedTokenCache::hitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("jwt.verified.cache.requests", verifiedTokenCache, VerifiedTokenCache::missCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("jwt.verified.cache.size", verifiedTokenCache, VerifiedTokenCache::size)
+                    .register(registry);
+            Gauge.builder("jwt.revoked.tokens", revocationStore, InMemoryTokenRevocationStore::size)
+                    .description("Revoked tokens not yet expired")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder authThrottleMetrics(AuthThrottle authThrottle) {
+        return registry -> {
+            FunctionCounter.builder("auth.throttle.rejections", authThrottle, AuthThrottle::rejectedByClientIpCount)
+                    .description("Auth requests answered 429")
+                    .tag("limit", "client_ip")
+                    .register(registry);
+            FunctionCounter.builder("auth.throttle.rejections", authThrottle, AuthThrottle::rejectedByEmailCount)
+                    .description("Auth requests answered 429")
+                    .tag("limit", "email")
+                    .register(registry);
+            Gauge.builder("auth.throttle.tracked.keys", authThrottle, AuthThrottle::trackedKeys)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder addressCacheMetrics(AddressListCache addressListCache) {
+        return registry -> Gauge.builder("addresses.cache.size", addressListCache, AddressListCache::size)
+                .register(registry);
+    }
+}
@@ -0,0 +1,173 @@
+package com.qcommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Hands out read-only connections: round-robin over the replica pools that passed their last health check,
+ * falling back to the primary when none is available or the caller is pinned to the primary (read-your-writes).
+ * <p>
+ * Used as the read-only target of a {@code LazyConnectionDataSourceProxy}, so it only sees transactions marked
+ * {@code readOnly}. A replica that cannot be connected to is taken out of rotation right away; the periodic health
+ * check puts it back once it validates again. A replica whose pool is merely exhausted (Hikari's acquisition timeout)
+ * is skipped for that read but stays in rotation.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final BooleanSupplier pinnedToPrimary;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * @param replicas        Replica pools by name; closed with this data source.
+     * @param pinnedToPrimary Whether the current thread must read from the primary.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    BooleanSupplier pinnedToPrimary, long healthCheckIntervalMs) {
+        this.primary = primary;
+        this.pinnedToPrimary = pinnedToPrimary;
+        List<Replica> pools = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> pools.add(new Replica(name, dataSource)));
+        this.replicas = List.copyOf(pools);
+
+        // Check once up front so an unreachable replica never receives traffic
+        checkHealth();
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckIntervalMs, healthCheckIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!replicas.isEmpty() && !pinnedToPrimary.getAsBoolean()) {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException ex) {
+                    if (isConnectionFailure(ex)) {
+                        markDown(replica, ex.getMessage());
+                    } else {
+                        logger.debug("Read replica {} skipped: {}", replica.name, ex.getMessage());
+                    }
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Explicit credentials are meant for the primary; the replica pools only know their own.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * @return The names of the replicas currently in rotation.
+     */
+    public List<String> healthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).map(replica -> replica.name).toList();
+    }
+
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    markUp(replica);
+                } else {
+                    markDown(replica, "connection validation failed");
+                }
+            } catch (SQLException ex) {
+                if (isConnectionFailure(ex)) {
+                    markDown(replica, ex.getMessage());
+                }
+            } catch (RuntimeException ex) {
+                markDown(replica, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Whether {@code ex}, or a cause of it, says the database could not be reached (SQLSTATE class 08).
+     * Hikari's pool-acquisition timeout is a {@code SQLTransientConnectionException} that only carries such a
+     * cause when the pool failed to open connections; a timeout on a busy but reachable pool carries none.
+     */
+    static boolean isConnectionFailure(SQLException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void markUp(Replica replica) {
+        if (!replica.healthy) {
+            replica.healthy = true;
+            logger.info("Read replica {} is in rotation.", replica.name);
+        }
+    }
+
+    private static void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("Read replica {} taken out of rotation: {}", replica.name, reason);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        // Starts out of rotation; the first health check decides
+        volatile boolean healthy;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
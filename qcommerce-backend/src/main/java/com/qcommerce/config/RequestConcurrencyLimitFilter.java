@@ -0,0 +1,104 @@
+package com.qcommerce.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qcommerce.generated.model.Error;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the requests being handled at once when Tomcat runs every request on its own virtual thread.
+ * <p>
+ * With platform threads the 200-thread Tomcat pool is the cap. Virtual threads remove it, so a burst would
+ * otherwise pile up thousands of requests inside Hikari's connection queue, each holding its memory and timing out
+ * only after {@code connectionTimeout}. Here requests wait at most {@code admissionTimeoutMs} for a permit and are
+ * then shed with 503 + Retry-After, the same answer the password-hashing pool gives when it is full.
+ */
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestConcurrencyLimitFilter.class);
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long admissionTimeoutMs;
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public RequestConcurrencyLimitFilter(int maxConcurrent, long admissionTimeoutMs, long retryAfterSeconds,
+                                         ObjectMapper objectMapper) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.admissionTimeoutMs = admissionTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Health checks and scrapes must get through precisely when the service is saturated
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.increment();
+            logger.debug("Shed {} {}: {} requests already in flight", request.getMethod(), request.getRequestURI(),
+                    maxConcurrent);
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    // Same body shape as GlobalExceptionHandler gives a ServiceOverloadedException; this runs before Spring MVC
+    private void reject(HttpServletResponse response) throws IOException {
+        Error error = new Error();
+        error.setMessage("Server busy. Please retry shortly.");
+        error.setCode(JsonNullable.of("SERVICE_OVERLOADED"));
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -1,13 +1,26 @@
 package com.qcommerce.config; 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qcommerce.security.AuthThrottle;
+import com.qcommerce.security.AuthThrottlingFilter;
+import com.qcommerce.security.CalibratedPasswordEncoder;
+import com.qcommerce.security.IdempotencyKeyFilter;
+import com.qcommerce.security.IdempotencyStore;
+import com.qcommerce.security.JwtAuthenticationFilter;
+import com.qcommerce.security.TokenRevocationStore;
+import com.qcommerce.security.VerifiedTokenCache;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
  * Security configuration for the application.
@@ -16,9 +29,50 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final AuthThrottle authThrottle;
+    private final ObjectMapper objectMapper;
+    private final int maxAuthBodyBytes;
+    private final IdempotencyStore idempotencyStore;
+    private final boolean idempotencyEnabled;
+    private final int maxIdempotentBodyBytes;
+    private final long idempotencyWaitTimeoutMs;
+    private final long idempotencyRegisterTtlMs;
+    private final int managementPort;
+
+    public SecurityConfig(VerifiedTokenCache verifiedTokenCache,
+                          TokenRevocationStore tokenRevocationStore,
+                          AuthThrottle authThrottle,
+                          ObjectMapper objectMapper,
+                          @Value("${auth-throttling.max-body-bytes:16384}") int maxAuthBodyBytes,
+                          IdempotencyStore idempotencyStore,
+                          @Value("${idempotency.enabled:true}") boolean idempotencyEnabled,
+                          @Value("${idempotency.max-body-bytes:16384}") int maxIdempotentBodyBytes,
+                          @Value("${idempotency.wait-timeout-ms:5000}") long idempotencyWaitTimeoutMs,
+                          @Value("${idempotency.register-ttl-ms:300000}") long idempotencyRegisterTtlMs,
+                          @Value("${management.server.port:-1}") int managementPort) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.authThrottle = authThrottle;
+        this.objectMapper = objectMapper;
+        this.maxAuthBodyBytes = maxAuthBodyBytes;
+        this.idempotencyStore = idempotencyStore;
+        this.idempotencyEnabled = idempotencyEnabled;
+        this.maxIdempotentBodyBytes = maxIdempotentBodyBytes;
+        this.idempotencyWaitTimeoutMs = idempotencyWaitTimeoutMs;
+        this.idempotencyRegisterTtlMs = idempotencyRegisterTtlMs;
+        this.managementPort = managementPort;
+    }
+
+    /**
+     * BCrypt with its cost calibrated against the per-hash latency budget on this node.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password-hashing.budget-ms:50}") long hashBudgetMillis,
+                                           @Value("${password-hashing.min-strength:10}") int minStrength,
+                                           @Value("${password-hashing.max-strength:16}") int maxStrength) {
+        return new CalibratedPasswordEncoder(hashBudgetMillis, minStrength, maxStrength);
     }
 
     @Bean
@@ -26,20 +80,40 @@ public class SecurityConfig {
         http
             .csrf(csrf -> csrf.disable()) // Disable CSRF, configure properly for production
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // Missing or invalid bearer tokens answer 401, as documented in qcommerce.yaml
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+            // Not a bean on purpose: Spring Boot would otherwise also register it as a servlet filter
+            .addFilterBefore(new JwtAuthenticationFilter(verifiedTokenCache, tokenRevocationStore), UsernamePasswordAuthenticationFilter.class)
+            // Throttles login/registration first, so a credential-stuffing burst costs no DB or BCrypt work
+            .addFilterBefore(new AuthThrottlingFilter(authThrottle, objectMapper, maxAuthBodyBytes), JwtAuthenticationFilter.class)
             .authorizeHttpRequests(authorize -> authorize
                 // Permit access to Swagger UI and API docs
                 .requestMatchers(
                         "/swagger-ui.html",
                         "/swagger-ui/**",
                         "/v3/api-docs/**", 
+                        "/v3/api-docs.yaml",
                         "/swagger-resources/**",
                         "/webjars/**"
                 ).permitAll()
+                // Health probes are anonymous; the Prometheus scrape only on the internal management listener
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers(request -> request.getLocalPort() == managementPort
+                        && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+                .requestMatchers("/actuator/**").denyAll()
+                // Public signing keys for services verifying our tokens locally (only served in RS256 mode)
+                .requestMatchers("/.well-known/jwks.json").permitAll()
                 // Permit access to authentication endpoints
-                .requestMatchers("/auth/register", "/auth/login").permitAll() // Added /auth/login
+                .requestMatchers("/auth/register", "/auth/login", "/auth/refresh").permitAll()
                 // All other requests require authentication (example)
                 .anyRequest().authenticated() 
             );
+        if (idempotencyEnabled) {
+            // After authentication, so address writes can be scoped to the user; retries are still throttled
+            http.addFilterAfter(new IdempotencyKeyFilter(idempotencyStore, objectMapper, maxIdempotentBodyBytes,
+                    idempotencyWaitTimeoutMs, idempotencyRegisterTtlMs), JwtAuthenticationFilter.class);
+        }
         return http.build();
     }
 }
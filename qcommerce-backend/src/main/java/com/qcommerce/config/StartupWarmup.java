@@ -0,0 +1,138 @@
+package com.qcommerce.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qcommerce.generated.model.Address;
+import com.qcommerce.generated.model.AuthResponse;
+import com.qcommerce.generated.model.Error;
+import com.qcommerce.generated.model.LoginRequest;
+import com.qcommerce.generated.model.Role;
+import com.qcommerce.generated.model.TokenPair;
+import com.qcommerce.generated.model.User;
+import com.qcommerce.generated.model.UserRegistration;
+import com.qcommerce.repository.UserStore;
+import com.qcommerce.security.JwtTokenProvider;
+import com.qcommerce.security.PasswordHashingExecutor;
+import com.qcommerce.security.TokenSubject;
+
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the login path's CPU-bound pieces in a loop before the instance reports ready, so the first real logins
+ * after a scale-out hit JIT-compiled code instead of the interpreter: JWT minting and verification
+ * ({@link JwtTokenProvider}), BCrypt (through {@link PasswordHashingExecutor}, which also starts its threads) and
+ * Jackson (de)serialization of the generated API models. Beforehand, the login lookup query and bean validation
+ * run once, since their first use (Hibernate query compilation, validator bootstrap) costs more than any JIT effect.
+ * <p>
+ * Application runners finish before {@code ApplicationReadyEvent}, which is when the readiness probe
+ * ({@code /actuator/health/readiness}) turns {@code UP}. The loop stops at {@code startup-warmup.iterations} or
+ * {@code startup-warmup.max-duration-ms}, whichever comes first. Tokens minted here are counted in the
+ * {@code jwt.mint}/{@code jwt.verify} and {@code password.hashing.*} meters like any others.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "startup-warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final String WARMUP_EMAIL = "warmup@qcommerce.invalid";
+    private static final String WARMUP_PASSWORD = "Warm-up-0nly!";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final UserStore userStore;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int iterations;
+    private final int passwordHashes;
+    private final long maxDurationMs;
+
+    public StartupWarmup(JwtTokenProvider jwtTokenProvider,
+                         PasswordHashingExecutor passwordHashingExecutor,
+                         UserStore userStore,
+                         Validator validator,
+                         ObjectMapper objectMapper,
+                         @Value("${startup-warmup.iterations:10000}") int iterations,
+                         @Value("${startup-warmup.password-hashes:3}") int passwordHashes,
+                         @Value("${startup-warmup.max-duration-ms:5000}") long maxDurationMs) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.userStore = userStore;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.iterations = iterations;
+        this.passwordHashes = passwordHashes;
+        this.maxDurationMs = maxDurationMs;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + maxDurationMs * 1_000_000;
+        try {
+            // Nobody has this address (.invalid is reserved), so this only prepares the query and opens connections
+            userStore.findLoginViewByEmail(WARMUP_EMAIL);
+            validator.validate(new LoginRequest().email(WARMUP_EMAIL).password(WARMUP_PASSWORD));
+
+            // A handful of hashes is enough, each one runs the BCrypt key schedule 2^cost times
+            String hash = passwordHashingExecutor.encode(WARMUP_PASSWORD);
+            for (int i = 0; i < passwordHashes && System.nanoTime() < deadline; i++) {
+                passwordHashingExecutor.matches(WARMUP_PASSWORD, hash);
+            }
+
+            TokenSubject subject = new TokenSubject(0L, WARMUP_EMAIL, List.of("ROLE_USER"));
+            String sessionId = UUID.randomUUID().toString();
+            int done = 0;
+            while (done < iterations && System.nanoTime() < deadline) {
+                String accessToken = jwtTokenProvider.generateAccessToken(subject, sessionId);
+                String refreshToken = jwtTokenProvider.generateRefreshToken(subject, sessionId, UUID.randomUUID().toString());
+                jwtTokenProvider.parseAccessToken(accessToken);
+                jwtTokenProvider.parseRefreshToken(refreshToken);
+                roundTripModels(accessToken, refreshToken);
+                done++;
+            }
+            logger.info("Startup warm-up ran {} token/serialization rounds and {} password hashes in {} ms.",
+                    done, passwordHashes + 1, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException | IOException ex) {
+            // Only latency is at stake; never keep an instance from starting over this
+            logger.warn("Startup warm-up stopped early: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Writes what the auth and address endpoints return and reads what they accept.
+     */
+    private void roundTripModels(String accessToken, String refreshToken) throws IOException {
+        Address address = new Address().id(1L).type("SHIPPING").line1("1 Main St").city("Springfield")
+                .state("IL").country("US").zip("62701").line2("Apt 2");
+        User user = new User().id(1L).email(WARMUP_EMAIL).isActive(true)
+                .phone("+14155552671").locale("en-US")
+                .roles(List.of(new Role().id(1L).name("ROLE_USER")))
+                .addresses(List.of(address));
+        AuthResponse authResponse = new AuthResponse().accessToken(accessToken)
+                .refreshToken(refreshToken).user(user);
+        Error error = new Error().message("Invalid email or password.").code("UNAUTHORIZED");
+
+        objectMapper.readValue(objectMapper.writeValueAsBytes(authResponse), AuthResponse.class);
+        objectMapper.writeValueAsBytes(new TokenPair().accessToken(accessToken).refreshToken(refreshToken));
+        objectMapper.writeValueAsBytes(List.of(address, address));
+        objectMapper.writeValueAsBytes(error);
+        objectMapper.readValue("{\"email\":\"" + WARMUP_EMAIL + "\",\"password\":\"" + WARMUP_PASSWORD + "\"}",
+                LoginRequest.class);
+        objectMapper.readValue("{\"email\":\"" + WARMUP_EMAIL + "\",\"password\":\"" + WARMUP_PASSWORD
+                + "\",\"phone\":\"+14155552671\",\"locale\":\"en-US\"}", UserRegistration.class);
+    }
+}
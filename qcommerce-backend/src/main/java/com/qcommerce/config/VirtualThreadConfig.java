@@ -0,0 +1,86 @@
+package com.qcommerce.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Virtual-thread mode, switched on with {@code spring.threads.virtual.enabled=true}. Spring Boot then runs each
+ * Tomcat request, each {@code @Async} task and each scheduled task on a virtual thread; this adds what it leaves out:
+ * <ul>
+ *     <li>a cap on concurrent requests derived from the JDBC pool size ({@link RequestConcurrencyLimitFilter}),
+ *     standing in for the Tomcat thread pool that used to bound them;</li>
+ *     <li>reporting of carrier-thread pinning on our code paths ({@link VirtualThreadPinningMonitor}).</li>
+ * </ul>
+ * {@code @Async} work is bounded separately by {@code spring.task.execution.simple.concurrency-limit}.
+ * <p>
+ * Per-thread caches do not survive this mode: a virtual thread serves one request, so a {@link ThreadLocal} cache is
+ * rebuilt on every request. Reusable helpers on hot paths (JWT signing buffers, token digests) are therefore kept in
+ * a shared {@link com.qcommerce.util.ObjectPool} instead.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public RequestConcurrencyLimitFilter requestConcurrencyLimitFilter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int jdbcPoolSize,
+            @Value("${virtual-threads.requests-per-connection:4}") int requestsPerConnection,
+            @Value("${virtual-threads.admission-timeout-ms:1000}") long admissionTimeoutMs,
+            @Value("${password-hashing.retry-after-seconds:1}") long retryAfterSeconds,
+            ObjectMapper objectMapper) {
+        // Requests hold a connection for only part of their time (JWT checks, hashing, serialization), hence > 1
+        int maxConcurrent = jdbcPoolSize * requestsPerConnection;
+        logger.info("Virtual threads enabled; admitting at most {} concurrent requests ({} JDBC connections x {}).",
+                maxConcurrent, jdbcPoolSize, requestsPerConnection);
+        return new RequestConcurrencyLimitFilter(maxConcurrent, admissionTimeoutMs, retryAfterSeconds, objectMapper);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestConcurrencyLimitFilter> requestConcurrencyLimitRegistration(
+            RequestConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<RequestConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        // After the http.server.requests observation filter, so shed requests are still counted; before security
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder requestConcurrencyMetrics(RequestConcurrencyLimitFilter filter) {
+        return registry -> {
+            Gauge.builder("http.server.requests.in.flight", filter, RequestConcurrencyLimitFilter::inFlight)
+                    .description("Requests holding an admission permit")
+                    .register(registry);
+            Gauge.builder("http.server.requests.max.concurrent", filter, RequestConcurrencyLimitFilter::maxConcurrent)
+                    .register(registry);
+            FunctionCounter.builder("http.server.requests.shed", filter, RequestConcurrencyLimitFilter::rejectedCount)
+                    .description("Requests answered 503 because no admission permit freed up in time")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${virtual-threads.pinning.threshold-ms:20}") long thresholdMs) {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(thresholdMs));
+        monitor.start();
+        return monitor;
+    }
+}
@@ -0,0 +1,99 @@
+package com.qcommerce.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stayed pinned to their carrier thread, i.e. blocked inside a {@code synchronized}
+ * block or a native frame, which takes the carrier away from every other virtual thread for that long.
+ * <p>
+ * Listens to the JDK's own {@code jdk.VirtualThreadPinned} JFR event in-process, so there is no recording file and
+ * nothing to turn on at JVM startup; only pins longer than the threshold are emitted at all. Each pin is timed as
+ * {@code virtual.threads.pinned}, tagged with the first of our frames on the stack (or {@code other} when the pin
+ * happens wholly inside a library), and the first pin from each location is logged with its stack.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String OUR_PACKAGE = "com.qcommerce.";
+    private static final int LOGGED_FRAMES = 20;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> reportedLocations = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Watching for virtual threads pinned longer than {} ms.", threshold.toMillis());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = frames(event);
+        String location = location(frames);
+        Timer.builder("virtual.threads.pinned")
+                .description("Virtual threads pinned to their carrier longer than the reporting threshold")
+                .tag("location", location)
+                .register(meterRegistry)
+                .record(event.getDuration());
+        if (reportedLocations.add(location)) {
+            logger.warn("Virtual thread pinned for {} ms at {}:\n\t{}", event.getDuration().toMillis(), location,
+                    frames.stream().limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::describe)
+                            .collect(Collectors.joining("\n\t")));
+        } else {
+            logger.debug("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), location);
+        }
+    }
+
+    private static List<RecordedFrame> frames(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        return stackTrace != null ? stackTrace.getFrames() : List.of();
+    }
+
+    /**
+     * The innermost frame of ours, as {@code SimpleClassName.method}, which keeps the tag's values bounded by our
+     * own code base.
+     */
+    static String location(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(OUR_PACKAGE)) {
+                return type.substring(type.lastIndexOf('.') + 1) + "." + frame.getMethod().getName();
+            }
+        }
+        return "other";
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
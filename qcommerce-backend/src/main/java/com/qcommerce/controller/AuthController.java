@@ -6,6 +6,8 @@ import com.qcommerce.generated.model.AuthResponse;
 import com.qcommerce.generated.model.UserRegistration;
 import com.qcommerce.generated.model.LoginRequest; 
 import com.qcommerce.generated.model.LogoutUser200Response; // Import the generated response type for logout
+import com.qcommerce.generated.model.RefreshTokenRequest;
+import com.qcommerce.generated.model.TokenPair;
 
 // Import custom service
 import com.qcommerce.service.AuthService;
@@ -57,6 +59,18 @@ public class AuthController implements AuthApi {
         return ResponseEntity.ok(authResponse); 
     }
 
+    /**
+     * Handles POST requests to /auth/refresh for exchanging a refresh token for a new token pair.
+     * This method overrides the one from the generated AuthApi interface.
+     *
+     * @param refreshTokenRequest The refresh token to redeem (generated model).
+     * @return ResponseEntity containing the new TokenPair (200 OK).
+     */
+    @Override
+    public ResponseEntity<TokenPair> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return ResponseEntity.ok(authService.refreshToken(refreshTokenRequest));
+    }
+
     /**
      * Handles POST requests to /auth/logout for logging out the current user.
      * This method overrides the one from the generated AuthApi interface.
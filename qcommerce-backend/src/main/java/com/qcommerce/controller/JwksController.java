@@ -0,0 +1,49 @@
+package com.qcommerce.controller;
+
+import com.qcommerce.security.JwtKeyRing;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the public keys of the {@link JwtKeyRing} as a JWK Set (RFC 7517), so other services verify our
+ * tokens locally: fetch the set, pick the key by the token's {@code kid}, check the RS256 signature and the
+ * {@code iss}/{@code exp} claims. Only exists when tokens are signed with RS256; a shared HS256 secret has
+ * nothing to publish.
+ * <p>
+ * The set can be cached publicly for {@code jwt.signing.jwks-max-age-seconds}, which the key ring keeps below the
+ * rotation interval, and revalidated with its ETag for a 304.
+ */
+@RestController
+@ConditionalOnProperty(name = "jwt.signing.algorithm", havingValue = "RS256")
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    public JwksController(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, List<Map<String, String>>>> jwks(WebRequest request) {
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(keyRing.jwksMaxAgeSeconds())).cachePublic();
+        String etag = keyRing.jwksEtag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .body(Map.of("keys", keyRing.jwks()));
+    }
+}
@@ -0,0 +1,146 @@
+package com.qcommerce.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Serves the OpenAPI document rendered at build time from {@code api/qcommerce.yaml}, the authoritative contract,
+ * on springdoc's paths, so springdoc can be switched off ({@code springdoc.api-docs.enabled: false}) and no longer
+ * scans the controllers at startup. Exists exactly when springdoc's api-docs are off; Swagger UI goes with them.
+ * <p>
+ * The build also writes gzip copies, which are sent as they are to clients accepting gzip (a q-value of 0 refuses it).
+ * Responses carry an ETag per representation, derived from the document, and can be cached for
+ * {@code api-docs.max-age-seconds}.
+ */
+@RestController
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "false")
+public class PrerenderedApiDocsController {
+
+    private static final MediaType OPENAPI_YAML = MediaType.parseMediaType("application/vnd.oai.openapi");
+
+    /**
+     * One document in both encodings, with the ETag of each.
+     */
+    private record Document(MediaType contentType, byte[] identity, String identityEtag, byte[] gzip, String gzipEtag) {
+
+        static Document load(String path, MediaType contentType) {
+            byte[] identity = read(path);
+            String hash = sha256(identity);
+            return new Document(contentType, identity, "\"" + hash + "\"", read(path + ".gz"), "\"" + hash + "-gzip\"");
+        }
+    }
+
+    private final Document json;
+    private final Document yaml;
+    private final CacheControl cacheControl;
+
+    public PrerenderedApiDocsController(@Value("${api-docs.max-age-seconds:3600}") long maxAgeSeconds) {
+        this.json = Document.load("api/qcommerce.json", MediaType.APPLICATION_JSON);
+        this.yaml = Document.load("api/qcommerce.yaml", OPENAPI_YAML);
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    @GetMapping("/v3/api-docs")
+    public ResponseEntity<byte[]> apiDocs(WebRequest request) {
+        return serve(json, request);
+    }
+
+    @GetMapping("/v3/api-docs.yaml")
+    public ResponseEntity<byte[]> apiDocsYaml(WebRequest request) {
+        return serve(yaml, request);
+    }
+
+    private ResponseEntity<byte[]> serve(Document document, WebRequest request) {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? document.gzipEtag() : document.identityEtag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(document.contentType())
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(document.gzip());
+        }
+        return response.body(document.identity());
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header admits gzip: named with a non-zero q-value, or covered by a
+     * non-zero {@code *} when not named. A malformed q-value counts as a refusal.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                return qValue(parts) > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = qValue(parts) > 0;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static byte[] read(String path) {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Pre-rendered API docs " + path + " not found; they are written by the build", e);
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available on this JVM", e);
+        }
+    }
+}
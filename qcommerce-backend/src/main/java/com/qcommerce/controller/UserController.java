@@ -0,0 +1,110 @@
+package com.qcommerce.controller;
+
+// Import generated API and Models
+import com.qcommerce.generated.api.UsersApi;
+import com.qcommerce.generated.model.Address;
+import com.qcommerce.generated.model.AddressInput;
+
+import com.qcommerce.security.AuthenticatedUser;
+import com.qcommerce.service.AddressListCache;
+import com.qcommerce.service.AddressService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST Controller for the authenticated user's profile (address book).
+ * Implements the API contract defined by the generated UsersApi interface.
+ */
+@RestController
+public class UserController implements UsersApi {
+
+    private final AddressService addressService;
+    // Request-scoped proxy; the generated interface leaves no room for an If-None-Match parameter
+    private final HttpServletRequest request;
+
+    public UserController(AddressService addressService, HttpServletRequest request) {
+        this.addressService = addressService;
+        this.request = request;
+    }
+
+    /**
+     * Handles GET requests to /users/me/addresses.
+     * Sends a strong ETag; a matching If-None-Match is answered with 304 and no body.
+     * Clients are asked to revalidate every time, which is cheap thanks to the cached ETag.
+     */
+    @Override
+    public ResponseEntity<List<Address>> listMyAddresses() {
+        AddressListCache.Entry addresses = addressService.listAddresses(currentUserId());
+        HttpStatus status = matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), addresses.etag())
+                ? HttpStatus.NOT_MODIFIED : HttpStatus.OK;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .eTag(addresses.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate());
+        return status == HttpStatus.NOT_MODIFIED ? response.build() : response.body(addresses.addresses());
+    }
+
+    @Override
+    public ResponseEntity<Address> addMyAddress(@Valid @RequestBody AddressInput addressInput) {
+        return new ResponseEntity<>(addressService.addAddress(currentUserId(), addressInput), HttpStatus.CREATED);
+    }
+
+    @Override
+    public ResponseEntity<Address> getMyAddressById(@PathVariable("addressId") Long addressId) {
+        return ResponseEntity.ok(addressService.getAddress(currentUserId(), addressId));
+    }
+
+    @Override
+    public ResponseEntity<Address> updateMyAddress(@PathVariable("addressId") Long addressId,
+                                                   @Valid @RequestBody AddressInput addressInput) {
+        return ResponseEntity.ok(addressService.updateAddress(currentUserId(), addressId, addressInput));
+    }
+
+    @Override
+    public ResponseEntity<Void> deleteMyAddress(@PathVariable("addressId") Long addressId) {
+        addressService.deleteAddress(currentUserId(), addressId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.userId();
+        }
+        throw new AuthenticationCredentialsNotFoundException("No authenticated user.");
+    }
+
+    /**
+     * If-None-Match uses the weak comparison (RFC 9110, 13.1.2): a W/ prefix on the client's tag is ignored.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.qcommerce.exception;
+
+/**
+ * Custom exception for a requested resource that does not exist (or is not visible to the caller).
+ */
+public class ResourceNotFoundException extends RuntimeException {
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.qcommerce.exception;
+
+/**
+ * Custom exception for requests shed because a bounded resource (e.g. the password-hashing pool) is saturated.
+ * Mapped to 503 Service Unavailable with a Retry-After header.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -5,17 +5,28 @@ import com.qcommerce.generated.model.Error;
 
 // Import custom exceptions from the package structure
 import com.qcommerce.exception.InvalidInputException;
+import com.qcommerce.exception.ResourceNotFoundException;
+import com.qcommerce.exception.ServiceOverloadedException;
 import com.qcommerce.exception.UserAlreadyExistsException;
+import com.qcommerce.generated.model.LoginRequest;
+import com.qcommerce.generated.model.UserRegistration;
+import com.qcommerce.model.AuthAuditEvent;
+import com.qcommerce.service.AuthAuditLog;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
 import org.openapitools.jackson.nullable.JsonNullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -29,6 +40,41 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final MeterRegistry meterRegistry;
+    private final AuthAuditLog authAuditLog;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry, AuthAuditLog authAuditLog) {
+        this.meterRegistry = meterRegistry;
+        this.authAuditLog = authAuditLog;
+    }
+
+    /**
+     * Counts the outcome as {@code api.errors{code, status}}. Codes are the fixed set used below, so the
+     * number of series stays small.
+     */
+    private <T> ResponseEntity<T> counted(ResponseEntity<T> response, String code) {
+        HttpStatusCode status = response.getStatusCode();
+        meterRegistry.counter("api.errors", "code", code, "status", Integer.toString(status.value())).increment();
+        return response;
+    }
+
+    /**
+     * Registrations and logins refused before {@code AuthService} could decide on them (it records its own
+     * outcomes) still belong in the audit trail.
+     */
+    private void auditRejectedAuthRequest(WebRequest request, String outcome, String email) {
+        if (!(request instanceof ServletWebRequest servletRequest)) {
+            return;
+        }
+        HttpServletRequest httpRequest = servletRequest.getRequest();
+        String path = httpRequest.getRequestURI().substring(httpRequest.getContextPath().length());
+        if ("/auth/register".equals(path)) {
+            authAuditLog.record(AuthAuditEvent.Action.REGISTER, outcome, null, email);
+        } else if ("/auth/login".equals(path)) {
+            authAuditLog.record(AuthAuditEvent.Action.LOGIN, outcome, null, email);
+        }
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Error> handleValidationExceptions(
             MethodArgumentNotValidException ex, WebRequest request) {
@@ -47,7 +93,11 @@ public class GlobalExceptionHandler {
         errorModel.setCode(JsonNullable.of("INVALID_INPUT"));
 
         logger.warn("Validation error: {} - Path: {}", errorMessage, request.getDescription(false), ex);
-        return new ResponseEntity<>(errorModel, HttpStatus.BAD_REQUEST);
+        Object target = ex.getBindingResult().getTarget();
+        String email = target instanceof UserRegistration registration ? registration.getEmail()
+                : target instanceof LoginRequest login ? login.getEmail() : null;
+        auditRejectedAuthRequest(request, "invalid_input", email);
+        return counted(new ResponseEntity<>(errorModel, HttpStatus.BAD_REQUEST), "INVALID_INPUT");
     }
 
     @ExceptionHandler(UserAlreadyExistsException.class)
@@ -58,7 +108,7 @@ public class GlobalExceptionHandler {
         errorModel.setCode(JsonNullable.of("USER_ALREADY_EXISTS")); 
 
         logger.warn("User already exists: {} - Path: {}", ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorModel, HttpStatus.BAD_REQUEST);
+        return counted(new ResponseEntity<>(errorModel, HttpStatus.BAD_REQUEST), "USER_ALREADY_EXISTS");
     }
     
     @ExceptionHandler(InvalidInputException.class)
@@ -81,7 +131,32 @@ public class GlobalExceptionHandler {
         //    }
         // }
         logger.warn("Invalid input data: {} - Details: {} - Path: {}", ex.getMessage(), ex.getDetails(), request.getDescription(false));
-        return new ResponseEntity<>(errorModel, HttpStatus.BAD_REQUEST);
+        return counted(new ResponseEntity<>(errorModel, HttpStatus.BAD_REQUEST), "INVALID_INPUT_DATA");
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Error> handleResourceNotFoundException(
+            ResourceNotFoundException ex, WebRequest request) {
+        Error errorModel = new Error();
+        errorModel.setMessage(ex.getMessage());
+        errorModel.setCode(JsonNullable.of("NOT_FOUND"));
+
+        logger.warn("Resource not found: {} - Path: {}", ex.getMessage(), request.getDescription(false));
+        return counted(new ResponseEntity<>(errorModel, HttpStatus.NOT_FOUND), "NOT_FOUND");
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Error> handleServiceOverloadedException(
+            ServiceOverloadedException ex, WebRequest request) {
+        Error errorModel = new Error();
+        errorModel.setMessage(ex.getMessage());
+        errorModel.setCode(JsonNullable.of("SERVICE_OVERLOADED"));
+
+        logger.warn("Request shed under load: {} - Path: {}", ex.getMessage(), request.getDescription(false));
+        auditRejectedAuthRequest(request, "overloaded", null);
+        return counted(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(errorModel), "SERVICE_OVERLOADED");
     }
 
     @ExceptionHandler(ResponseStatusException.class)
@@ -91,7 +166,8 @@ public class GlobalExceptionHandler {
         errorModel.setCode(JsonNullable.of(ex.getStatusCode().toString()));
 
         logger.warn("ResponseStatusException: {} - Path: {}", ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorModel, ex.getStatusCode());
+        // The code is the status text here ("401 UNAUTHORIZED"), so still one series per status
+        return counted(new ResponseEntity<>(errorModel, ex.getStatusCode()), "RESPONSE_STATUS");
     }
 
     @ExceptionHandler(Exception.class)
@@ -103,6 +179,6 @@ public class GlobalExceptionHandler {
         errorModel.setMessage("An internal server error occurred. Please try again later.");
         errorModel.setCode(JsonNullable.of("INTERNAL_SERVER_ERROR"));
 
-        return new ResponseEntity<>(errorModel, HttpStatus.INTERNAL_SERVER_ERROR);
+        return counted(new ResponseEntity<>(errorModel, HttpStatus.INTERNAL_SERVER_ERROR), "INTERNAL_SERVER_ERROR");
     }
 }
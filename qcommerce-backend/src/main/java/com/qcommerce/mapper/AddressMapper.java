@@ -0,0 +1,38 @@
+package com.qcommerce.mapper;
+
+import com.qcommerce.generated.model.Address;
+import com.qcommerce.generated.model.AddressInput;
+import com.qcommerce.model.AddressEntity;
+
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.openapitools.jackson.nullable.JsonNullable;
+
+import java.util.List;
+
+/**
+ * Maps addresses between the entity and the generated API models.
+ */
+@Mapper(config = MappingConfig.class)
+public interface AddressMapper {
+
+    @BeanMapping(ignoreUnmappedSourceProperties = {"userId"})
+    Address toAddress(AddressEntity addressEntity);
+
+    List<Address> toAddresses(List<AddressEntity> addressEntities);
+
+    // PUT replaces the address as a whole: fields left out of the input are cleared
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "userId", ignore = true)
+    void updateEntity(AddressInput addressInput, @MappingTarget AddressEntity addressEntity);
+
+    default JsonNullable<String> wrap(String value) {
+        return value == null ? JsonNullable.undefined() : JsonNullable.of(value);
+    }
+
+    default String unwrap(JsonNullable<String> value) {
+        return value != null && value.isPresent() ? value.get() : null;
+    }
+}
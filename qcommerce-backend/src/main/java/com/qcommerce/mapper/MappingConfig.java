@@ -0,0 +1,18 @@
+package com.qcommerce.mapper;
+
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.MapperConfig;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Settings shared by every mapper.
+ * Unmapped properties are compile errors in both directions: a field added to the OpenAPI models or to an
+ * entity breaks the build until it is mapped or explicitly ignored, so the two cannot drift apart silently.
+ */
+@MapperConfig(
+        componentModel = "spring",
+        injectionStrategy = InjectionStrategy.CONSTRUCTOR,
+        unmappedTargetPolicy = ReportingPolicy.ERROR,
+        unmappedSourcePolicy = ReportingPolicy.ERROR)
+public interface MappingConfig {
+}
@@ -0,0 +1,54 @@
+package com.qcommerce.mapper;
+
+import com.qcommerce.generated.model.Role;
+import com.qcommerce.generated.model.User;
+import com.qcommerce.model.RoleEntity;
+import com.qcommerce.model.UserEntity;
+import com.qcommerce.model.UserLoginView;
+
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.openapitools.jackson.nullable.JsonNullable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maps users and roles to the generated API models. The implementation is generated at compile time
+ * as plain field copies; optional fields are wrapped by the {@code JsonNullable} helpers below.
+ */
+@Mapper(config = MappingConfig.class)
+public interface UserMapper {
+
+    @BeanMapping(ignoreUnmappedSourceProperties = {"passwordHash"})
+    @Mapping(target = "isActive", source = "active")
+    @Mapping(target = "addresses", ignore = true) // Served by the address endpoints, not embedded in auth responses
+    User toUser(UserEntity userEntity);
+
+    @BeanMapping(ignoreUnmappedSourceProperties = {"passwordHash"})
+    @Mapping(target = "isActive", source = "active")
+    @Mapping(target = "addresses", ignore = true)
+    User toUser(UserLoginView userLoginView);
+
+    Role toRole(RoleEntity roleEntity);
+
+    Role toRole(UserLoginView.RoleSummary roleSummary);
+
+    List<Role> toRoles(Collection<RoleEntity> roleEntities);
+
+    List<Role> toRoleSummaries(List<UserLoginView.RoleSummary> roleSummaries);
+
+    // A missing value stays undefined, so the field is left out of the JSON instead of being written as null
+    default JsonNullable<String> wrap(String value) {
+        return value == null ? JsonNullable.undefined() : JsonNullable.of(value);
+    }
+
+    default JsonNullable<List<Role>> wrapRoles(Collection<RoleEntity> roleEntities) {
+        return roleEntities == null ? JsonNullable.undefined() : JsonNullable.of(toRoles(roleEntities));
+    }
+
+    default JsonNullable<List<Role>> wrapRoleSummaries(List<UserLoginView.RoleSummary> roleSummaries) {
+        return roleSummaries == null ? JsonNullable.undefined() : JsonNullable.of(toRoleSummaries(roleSummaries));
+    }
+}
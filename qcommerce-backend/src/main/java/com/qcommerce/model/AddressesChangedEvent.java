@@ -0,0 +1,7 @@
+package com.qcommerce.model;
+
+/**
+ * Published when a user's addresses are created, updated or deleted.
+ */
+public record AddressesChangedEvent(Long userId) {
+}
@@ -0,0 +1,25 @@
+package com.qcommerce.model;
+
+/**
+ * One entry of the authentication audit trail kept for fraud review (see {@code AuthAuditLog}).
+ *
+ * @param timestampMillis When it happened, epoch milliseconds.
+ * @param action          What was attempted.
+ * @param outcome         {@code success}, or why it failed, e.g. {@code invalid_credentials}.
+ * @param userId          The user, when known.
+ * @param email           The email as submitted, when known.
+ * @param clientIp        The remote address of the request, when there is one.
+ */
+public record AuthAuditEvent(long timestampMillis,
+                             Action action,
+                             String outcome,
+                             Long userId,
+                             String email,
+                             String clientIp) {
+
+    public static final String SUCCESS = "success";
+
+    public enum Action {
+        REGISTER, LOGIN, LOGOUT
+    }
+}
@@ -0,0 +1,7 @@
+package com.qcommerce.model;
+
+/**
+ * Published whenever a {@link RoleEntity} is inserted, updated or deleted.
+ */
+public record RoleChangedEvent(Long roleId) {
+}
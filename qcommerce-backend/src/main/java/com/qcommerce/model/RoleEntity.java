@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 
 @Entity
 @Table(name = "roles") // Matches your database table name
+@EntityListeners(RoleEntityListener.class) // Keeps the in-memory RoleRegistry current
 public class RoleEntity {
 
     @Id
@@ -0,0 +1,26 @@
+package com.qcommerce.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA callbacks that announce role changes so in-memory role caches can refresh.
+ * Instantiated by Hibernate through Spring's bean container, which supplies the publisher.
+ */
+public class RoleEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RoleEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(RoleEntity role) {
+        eventPublisher.publishEvent(new RoleChangedEvent(role.getId()));
+    }
+}
@@ -12,7 +12,7 @@ public class UserEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false) // Unique case-insensitively: uk_users_email_lower (see db/migration)
     private String email;
 
     @Column(nullable = true, unique = true, name = "phone") // Added unique = true to match DB constraint uk_users_phone
@@ -27,7 +27,8 @@ public class UserEntity {
     @Column(nullable = true)
     private String locale;
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    // No cascade: roles are reference data, and the instances assigned here come detached from RoleRegistry
+    @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
         name = "user_roles", 
         joinColumns = @JoinColumn(name = "user_id"),
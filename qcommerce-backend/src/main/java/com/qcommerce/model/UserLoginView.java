@@ -0,0 +1,40 @@
+package com.qcommerce.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only, flat view of a user with exactly the columns login and token minting need.
+ * Loaded with one SQL statement (see {@code UserRepositoryCustom#findLoginViewByEmail}); never managed by JPA.
+ */
+public record UserLoginView(Long id,
+                            String email,
+                            String passwordHash,
+                            boolean active,
+                            String phone,
+                            String locale,
+                            List<RoleSummary> roles) {
+
+    public record RoleSummary(Long id, String name) {
+    }
+
+    /**
+     * Builds the view from an entity that is already in memory, e.g. right after registration.
+     */
+    public static UserLoginView of(UserEntity userEntity) {
+        List<RoleSummary> roles = new ArrayList<>(userEntity.getRoles().size());
+        for (RoleEntity role : userEntity.getRoles()) {
+            roles.add(new RoleSummary(role.getId(), role.getName()));
+        }
+        return new UserLoginView(userEntity.getId(), userEntity.getEmail(), userEntity.getPasswordHash(),
+                userEntity.isActive(), userEntity.getPhone(), userEntity.getLocale(), List.copyOf(roles));
+    }
+
+    public List<String> roleNames() {
+        List<String> names = new ArrayList<>(roles.size());
+        for (RoleSummary role : roles) {
+            names.add(role.name());
+        }
+        return names;
+    }
+}
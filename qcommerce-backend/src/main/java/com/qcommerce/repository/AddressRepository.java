@@ -0,0 +1,39 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.AddressEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AddressRepository extends JpaRepository<AddressEntity, Long>, AddressStore {
+
+    @Override
+    List<AddressEntity> findByUserIdOrderByIdAsc(Long userId);
+
+    // Scoped by owner, so one user can never read or change another user's address
+    @Override
+    Optional<AddressEntity> findByIdAndUserId(Long id, Long userId);
+
+    @Override
+    default AddressEntity insert(AddressEntity address) {
+        return save(address);
+    }
+
+    // The address is still managed when it comes from findByIdAndUserId in the same transaction, which makes this
+    // a no-op merge; dirty checking writes the changes on commit
+    @Override
+    default AddressEntity update(AddressEntity address) {
+        return save(address);
+    }
+
+    // A single DELETE statement instead of the load-then-remove of a derived delete query
+    @Override
+    @Modifying
+    @Query("delete from AddressEntity a where a.id = :id and a.userId = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+}
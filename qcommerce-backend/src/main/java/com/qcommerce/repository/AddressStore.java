@@ -0,0 +1,32 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.AddressEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The address-book operations of {@code AddressService}: {@link AddressRepository} in PostgreSQL, or
+ * {@link InMemoryStorage} with the {@code in-memory} profile. Every lookup is scoped by owner.
+ */
+public interface AddressStore {
+
+    List<AddressEntity> findByUserIdOrderByIdAsc(Long userId);
+
+    Optional<AddressEntity> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Stores a new address and assigns its id.
+     */
+    AddressEntity insert(AddressEntity address);
+
+    /**
+     * Stores the changes made to an address loaded from this store; like an UPDATE, a no-op if it was deleted since.
+     */
+    AddressEntity update(AddressEntity address);
+
+    /**
+     * @return The number of addresses deleted, 0 if the user has no address with that id.
+     */
+    int deleteByIdAndUserId(Long id, Long userId);
+}
@@ -0,0 +1,287 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.AddressEntity;
+import com.qcommerce.model.RoleEntity;
+import com.qcommerce.model.UserEntity;
+import com.qcommerce.model.UserLoginView;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Users, addresses and roles kept in the heap, for load tests without PostgreSQL. Active with the {@code in-memory}
+ * profile, which also switches off the datasource, JPA and Flyway.
+ * <p>
+ * Users are indexed by id, by lowercased email and by phone in concurrent maps. An insert claims its email, then its
+ * phone, with {@code putIfAbsent}, so of two concurrent registrations with the same email exactly one wins; the loser
+ * gets the same {@link DataIntegrityViolationException} (and message format) as a unique index violation in
+ * PostgreSQL. Each user's addresses are an immutable list, replaced as a whole under the map's per-key lock.
+ * Everything handed in or out is a copy, so callers cannot change stored state by mutating an entity.
+ * <p>
+ * With {@code storage.in-memory.snapshot-file} set, the data is restored from that file at startup and written back
+ * at shutdown (and on {@code storage.in-memory.snapshot-cron}), see {@link InMemoryStorageSnapshot}. A snapshot
+ * taken while writes continue is fuzzy: every record is consistent, but writes made during the snapshot may or may
+ * not be in it.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryStorage implements UserStore, AddressStore, RoleStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryStorage.class);
+
+    // Same ids and names as the roles seeded by db/migration/V1
+    private static final List<RoleEntity> ROLES = List.of(new RoleEntity(1L, "ROLE_USER"), new RoleEntity(2L, "ROLE_ADMIN"));
+
+    private final Map<Long, UserLoginView> usersById = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIdsByEmail = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIdsByPhone = new ConcurrentHashMap<>();
+    // Sorted by id; ids are taken inside compute(), under the user's lock, so appending keeps the order
+    private final Map<Long, List<AddressEntity>> addressesByUserId = new ConcurrentHashMap<>();
+    private final AtomicLong userIds = new AtomicLong();
+    private final AtomicLong addressIds = new AtomicLong();
+
+    private final Path snapshotFile;
+
+    public InMemoryStorage(@Value("${storage.in-memory.snapshot-file:}") String snapshotFile) {
+        this.snapshotFile = snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+    }
+
+    @Override
+    public Optional<UserLoginView> findLoginViewByEmail(String email) {
+        Long id = userIdsByEmail.get(emailKey(email));
+        return id != null ? Optional.ofNullable(usersById.get(id)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<UserLoginView> findLoginViewById(Long id) {
+        return Optional.ofNullable(usersById.get(id));
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return userIdsByEmail.containsKey(emailKey(email));
+    }
+
+    @Override
+    public boolean existsByPhone(String phone) {
+        return userIdsByPhone.containsKey(phone);
+    }
+
+    @Override
+    public UserEntity insert(UserEntity user) {
+        Long id = userIds.incrementAndGet();
+        String emailKey = emailKey(user.getEmail());
+        if (userIdsByEmail.putIfAbsent(emailKey, id) != null) {
+            throw duplicate("email", user.getEmail());
+        }
+        if (user.getPhone() != null && userIdsByPhone.putIfAbsent(user.getPhone(), id) != null) {
+            userIdsByEmail.remove(emailKey, id);
+            throw duplicate("phone", user.getPhone());
+        }
+        user.setId(id);
+        usersById.put(id, UserLoginView.of(user));
+        return user;
+    }
+
+    @Override
+    public int updatePasswordHash(Long id, String passwordHash) {
+        UserLoginView updated = usersById.computeIfPresent(id, (key, user) -> new UserLoginView(user.id(), user.email(),
+                passwordHash, user.active(), user.phone(), user.locale(), user.roles()));
+        return updated != null ? 1 : 0;
+    }
+
+    @Override
+    public void forEachEmailAndPhone(BiConsumer<String, String> action) {
+        for (UserLoginView user : usersById.values()) {
+            action.accept(user.email(), user.phone());
+        }
+    }
+
+    @Override
+    public List<AddressEntity> findByUserIdOrderByIdAsc(Long userId) {
+        List<AddressEntity> addresses = addressesByUserId.getOrDefault(userId, List.of());
+        List<AddressEntity> copies = new ArrayList<>(addresses.size());
+        for (AddressEntity address : addresses) {
+            copies.add(copy(address));
+        }
+        return copies;
+    }
+
+    @Override
+    public Optional<AddressEntity> findByIdAndUserId(Long id, Long userId) {
+        for (AddressEntity address : addressesByUserId.getOrDefault(userId, List.of())) {
+            if (address.getId().equals(id)) {
+                return Optional.of(copy(address));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public AddressEntity insert(AddressEntity address) {
+        AddressEntity stored = copy(address);
+        addressesByUserId.compute(address.getUserId(), (userId, addresses) -> {
+            stored.setId(addressIds.incrementAndGet());
+            List<AddressEntity> updated = new ArrayList<>(addresses != null ? addresses.size() + 1 : 1);
+            if (addresses != null) {
+                updated.addAll(addresses);
+            }
+            updated.add(stored);
+            return List.copyOf(updated);
+        });
+        address.setId(stored.getId());
+        return address;
+    }
+
+    @Override
+    public AddressEntity update(AddressEntity address) {
+        AddressEntity stored = copy(address);
+        addressesByUserId.computeIfPresent(address.getUserId(), (userId, addresses) -> {
+            List<AddressEntity> updated = new ArrayList<>(addresses);
+            updated.replaceAll(existing -> existing.getId().equals(stored.getId()) ? stored : existing);
+            return List.copyOf(updated);
+        });
+        return address;
+    }
+
+    @Override
+    public int deleteByIdAndUserId(Long id, Long userId) {
+        int[] deleted = new int[1];
+        addressesByUserId.computeIfPresent(userId, (key, addresses) -> {
+            List<AddressEntity> updated = new ArrayList<>(addresses);
+            if (updated.removeIf(existing -> existing.getId().equals(id))) {
+                deleted[0] = 1;
+            }
+            return updated.isEmpty() ? null : List.copyOf(updated);
+        });
+        return deleted[0];
+    }
+
+    @Override
+    public List<RoleEntity> loadRoles() {
+        List<RoleEntity> roles = new ArrayList<>(ROLES.size());
+        for (RoleEntity role : ROLES) {
+            roles.add(new RoleEntity(role.getId(), role.getName()));
+        }
+        return roles;
+    }
+
+    @PostConstruct
+    void restore() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        long start = System.nanoTime();
+        InMemoryStorageSnapshot.Contents contents;
+        try {
+            contents = InMemoryStorageSnapshot.read(snapshotFile);
+        } catch (IOException e) {
+            // Starting empty would overwrite the snapshot at shutdown, so refuse to start instead
+            throw new UncheckedIOException("Could not restore in-memory storage from " + snapshotFile, e);
+        }
+        long lastUserId = contents.lastUserId();
+        for (UserLoginView user : contents.users()) {
+            usersById.put(user.id(), user);
+            userIdsByEmail.put(emailKey(user.email()), user.id());
+            if (user.phone() != null) {
+                userIdsByPhone.put(user.phone(), user.id());
+            }
+            lastUserId = Math.max(lastUserId, user.id());
+        }
+        long lastAddressId = contents.lastAddressId();
+        Map<Long, List<AddressEntity>> byUser = new HashMap<>();
+        for (AddressEntity address : contents.addresses()) {
+            byUser.computeIfAbsent(address.getUserId(), userId -> new ArrayList<>()).add(address);
+            lastAddressId = Math.max(lastAddressId, address.getId());
+        }
+        byUser.forEach((userId, addresses) -> {
+            addresses.sort(Comparator.comparing(AddressEntity::getId));
+            addressesByUserId.put(userId, List.copyOf(addresses));
+        });
+        userIds.set(lastUserId);
+        addressIds.set(lastAddressId);
+        logger.info("Restored {} users and {} addresses from {} in {} ms.", contents.users().size(),
+                contents.addresses().size(), snapshotFile, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(cron = "${storage.in-memory.snapshot-cron:-}")
+    public void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not snapshot in-memory storage to {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void snapshotOnShutdown() throws IOException {
+        snapshot();
+    }
+
+    /**
+     * Writes every user and address to {@code storage.in-memory.snapshot-file}, replacing the previous snapshot
+     * atomically. Does nothing if no file is configured.
+     */
+    public synchronized void snapshot() throws IOException {
+        if (snapshotFile == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Read before the maps, so the restored counters are never behind an id in the snapshot
+        long lastUserId = userIds.get();
+        long lastAddressId = addressIds.get();
+        List<AddressEntity> addresses = new ArrayList<>();
+        addressesByUserId.values().forEach(addresses::addAll);
+        List<UserLoginView> users = List.copyOf(usersById.values());
+        InMemoryStorageSnapshot.write(snapshotFile,
+                new InMemoryStorageSnapshot.Contents(lastUserId, lastAddressId, users, addresses));
+        logger.info("Wrote {} users and {} addresses to {} in {} ms.", users.size(), addresses.size(), snapshotFile,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    // Worded like PostgreSQL's unique violation detail, which AuthService reads the duplicate field from
+    private static DataIntegrityViolationException duplicate(String field, String value) {
+        return new DataIntegrityViolationException("Key (" + field + ")=(" + value + ") already exists.");
+    }
+
+    private static AddressEntity copy(AddressEntity address) {
+        AddressEntity copy = new AddressEntity();
+        copy.setId(address.getId());
+        copy.setUserId(address.getUserId());
+        copy.setType(address.getType());
+        copy.setLine1(address.getLine1());
+        copy.setLine2(address.getLine2());
+        copy.setCity(address.getCity());
+        copy.setState(address.getState());
+        copy.setCountry(address.getCountry());
+        copy.setZip(address.getZip());
+        copy.setPhone(address.getPhone());
+        return copy;
+    }
+}
@@ -0,0 +1,246 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.AddressEntity;
+import com.qcommerce.model.UserLoginView;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The snapshot file of {@link InMemoryStorage}, written and read through memory-mapped regions of
+ * {@value #REGION_BYTES} bytes, so a snapshot of millions of users costs neither a stream per record nor a heap
+ * buffer the size of the file.
+ * <p>
+ * Layout: a header (magic, version, last user id, last address id), then one record per user ({@code 'U'}) and per
+ * address ({@code 'A'}), then an end marker ({@code 'E'}); a file without the end marker is rejected as truncated.
+ * Strings are a length in bytes ({@code -1} for null) followed by UTF-8. The file is written next to the target and
+ * moved over it, so a crash mid-write leaves the previous snapshot intact.
+ */
+final class InMemoryStorageSnapshot {
+
+    private static final int MAGIC = 0x51534E50; // "QSNP"
+    private static final int VERSION = 1;
+    private static final long REGION_BYTES = 64L * 1024 * 1024;
+
+    private static final byte USER = 'U';
+    private static final byte ADDRESS = 'A';
+    private static final byte END = 'E';
+
+    record Contents(long lastUserId, long lastAddressId, List<UserLoginView> users, List<AddressEntity> addresses) {
+    }
+
+    private InMemoryStorageSnapshot() {
+    }
+
+    static void write(Path file, Contents contents) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putLong(contents.lastUserId());
+            writer.putLong(contents.lastAddressId());
+            for (UserLoginView user : contents.users()) {
+                writer.putByte(USER);
+                writer.putLong(user.id());
+                writer.putString(user.email());
+                writer.putString(user.phone());
+                writer.putString(user.passwordHash());
+                writer.putByte((byte) (user.active() ? 1 : 0));
+                writer.putString(user.locale());
+                writer.putInt(user.roles().size());
+                for (UserLoginView.RoleSummary role : user.roles()) {
+                    writer.putLong(role.id());
+                    writer.putString(role.name());
+                }
+            }
+            for (AddressEntity address : contents.addresses()) {
+                writer.putByte(ADDRESS);
+                writer.putLong(address.getId());
+                writer.putLong(address.getUserId());
+                writer.putString(address.getType());
+                writer.putString(address.getLine1());
+                writer.putString(address.getLine2());
+                writer.putString(address.getCity());
+                writer.putString(address.getState());
+                writer.putString(address.getCountry());
+                writer.putString(address.getZip());
+                writer.putString(address.getPhone());
+            }
+            writer.putByte(END);
+            writer.finish();
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static Contents read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel);
+            if (reader.getInt() != MAGIC) {
+                throw new IOException(file + " is not an in-memory storage snapshot");
+            }
+            int version = reader.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            long lastUserId = reader.getLong();
+            long lastAddressId = reader.getLong();
+            List<UserLoginView> users = new ArrayList<>();
+            List<AddressEntity> addresses = new ArrayList<>();
+            for (byte type = reader.getByte(); type != END; type = reader.getByte()) {
+                if (type == USER) {
+                    users.add(readUser(reader));
+                } else if (type == ADDRESS) {
+                    addresses.add(readAddress(reader));
+                } else {
+                    throw new IOException("Corrupt snapshot " + file + ": unknown record type " + type);
+                }
+            }
+            return new Contents(lastUserId, lastAddressId, users, addresses);
+        }
+    }
+
+    private static UserLoginView readUser(Reader reader) throws IOException {
+        long id = reader.getLong();
+        String email = reader.getString();
+        String phone = reader.getString();
+        String passwordHash = reader.getString();
+        boolean active = reader.getByte() != 0;
+        String locale = reader.getString();
+        int roleCount = reader.getInt();
+        List<UserLoginView.RoleSummary> roles = new ArrayList<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(new UserLoginView.RoleSummary(reader.getLong(), reader.getString()));
+        }
+        return new UserLoginView(id, email, passwordHash, active, phone, locale, List.copyOf(roles));
+    }
+
+    private static AddressEntity readAddress(Reader reader) throws IOException {
+        AddressEntity address = new AddressEntity();
+        address.setId(reader.getLong());
+        address.setUserId(reader.getLong());
+        address.setType(reader.getString());
+        address.setLine1(reader.getString());
+        address.setLine2(reader.getString());
+        address.setCity(reader.getString());
+        address.setState(reader.getString());
+        address.setCountry(reader.getString());
+        address.setZip(reader.getString());
+        address.setPhone(reader.getString());
+        return address;
+    }
+
+    /**
+     * Appends to the file through one mapped region at a time, mapping the next one when a value does not fit.
+     */
+    private static final class Writer {
+
+        private final FileChannel channel;
+        private MappedByteBuffer region;
+        private long regionStart;
+
+        Writer(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.region = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_BYTES);
+        }
+
+        void putByte(byte value) throws IOException {
+            ensure(Byte.BYTES).put(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES).putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES).putLong(value);
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length).put(bytes);
+        }
+
+        /**
+         * Flushes the mapped pages and cuts the file down to what was written; mapping grew it region by region.
+         */
+        void finish() throws IOException {
+            long size = regionStart + region.position();
+            region.force();
+            channel.truncate(size);
+            channel.force(true);
+        }
+
+        private MappedByteBuffer ensure(int bytes) throws IOException {
+            if (region.remaining() < bytes) {
+                region.force();
+                regionStart += region.position();
+                region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(REGION_BYTES, bytes));
+            }
+            return region;
+        }
+    }
+
+    private static final class Reader {
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer region;
+        private long regionStart;
+
+        Reader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.region = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(REGION_BYTES, size));
+        }
+
+        byte getByte() throws IOException {
+            return ensure(Byte.BYTES).get();
+        }
+
+        int getInt() throws IOException {
+            return ensure(Integer.BYTES).getInt();
+        }
+
+        long getLong() throws IOException {
+            return ensure(Long.BYTES).getLong();
+        }
+
+        String getString() throws IOException {
+            int length = getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            ensure(length).get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private MappedByteBuffer ensure(int bytes) throws IOException {
+            if (region.remaining() < bytes) {
+                regionStart += region.position();
+                long available = size - regionStart;
+                if (available < bytes) {
+                    throw new EOFException("Truncated snapshot: needed " + bytes + " bytes at offset " + regionStart);
+                }
+                region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(Math.max(REGION_BYTES, bytes), available));
+            }
+            return region;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.RoleEntity;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Loads the roles table for {@code RoleRegistry}.
+ * <p>
+ * Goes through the {@link EntityManager} rather than {@link RoleRepository}, whose {@code findByName} is served
+ * from that very registry.
+ */
+@Repository
+@Profile("!in-memory")
+public class JpaRoleStore implements RoleStore {
+
+    private final EntityManager entityManager;
+
+    public JpaRoleStore(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RoleEntity> loadRoles() {
+        List<RoleEntity> roles = entityManager
+                .createQuery("select r from RoleEntity r", RoleEntity.class)
+                .getResultList();
+        roles.forEach(entityManager::detach);
+        return roles;
+    }
+}
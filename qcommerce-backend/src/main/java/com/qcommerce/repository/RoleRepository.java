@@ -3,10 +3,9 @@ package com.qcommerce.repository;
 import com.qcommerce.model.RoleEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
 
 @Repository
-public interface RoleRepository extends JpaRepository<RoleEntity, Long> { // Changed ID type to Long
-    Optional<RoleEntity> findByName(String name);
+public interface RoleRepository extends JpaRepository<RoleEntity, Long>, RoleRepositoryCustom { // Changed ID type to Long
+    // findByName(String) is inherited from RoleRepositoryCustom and answered by the in-memory RoleRegistry
     // You can add other custom query methods here if needed
 }
\ No newline at end of file
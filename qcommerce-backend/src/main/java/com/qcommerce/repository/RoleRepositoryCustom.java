@@ -0,0 +1,11 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.RoleEntity;
+import java.util.Optional;
+
+/**
+ * Role lookups served from the in-memory {@code RoleRegistry} instead of the database.
+ */
+public interface RoleRepositoryCustom {
+    Optional<RoleEntity> findByName(String name);
+}
@@ -0,0 +1,22 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.RoleEntity;
+import com.qcommerce.service.RoleRegistry;
+import java.util.Optional;
+
+/**
+ * Spring Data fragment backing {@link RoleRepositoryCustom}.
+ */
+public class RoleRepositoryCustomImpl implements RoleRepositoryCustom {
+
+    private final RoleRegistry roleRegistry;
+
+    public RoleRepositoryCustomImpl(RoleRegistry roleRegistry) {
+        this.roleRegistry = roleRegistry;
+    }
+
+    @Override
+    public Optional<RoleEntity> findByName(String name) {
+        return roleRegistry.findByName(name);
+    }
+}
@@ -0,0 +1,17 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.RoleEntity;
+
+import java.util.List;
+
+/**
+ * Where {@code RoleRegistry} loads its snapshot of the roles from: {@link JpaRoleStore} in PostgreSQL, or
+ * {@link InMemoryStorage} with the {@code in-memory} profile.
+ */
+public interface RoleStore {
+
+    /**
+     * @return Every role, detached: callers share them between threads.
+     */
+    List<RoleEntity> loadRoles();
+}
@@ -2,11 +2,57 @@ package com.qcommerce.repository;
 
 import com.qcommerce.model.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.QueryHint;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, Long> {
-    Optional<UserEntity> findByEmail(String email);
+public interface UserRepository extends JpaRepository<UserEntity, Long>, UserRepositoryCustom, UserStore {
+    // Emails compare case-insensitively, written as lower() so the uk_users_email_lower index applies
+
+    // Loads a managed entity with its roles; login uses the lighter findLoginViewByEmail instead
+    @Query("select u from UserEntity u where lower(u.email) = lower(:email)")
+    Optional<UserEntity> findByEmail(@Param("email") String email);
+
+    @Override
+    @Query("select count(u) > 0 from UserEntity u where lower(u.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
+
+    @Override
+    boolean existsByPhone(String phone);
+
+    // saveAndFlush, so a taken email or phone fails here rather than at commit
+    @Override
+    default UserEntity insert(UserEntity user) {
+        return saveAndFlush(user);
+    }
+
+    // Scalar rows streamed in chunks; nothing is attached to the persistence context
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.email, u.phone from UserEntity u")
+    Stream<Object[]> streamEmailsAndPhones();
+
+    // The stream needs its connection for as long as it is read; read-only, so a replica can serve it
+    @Override
+    @Transactional(readOnly = true)
+    default void forEachEmailAndPhone(BiConsumer<String, String> action) {
+        try (Stream<Object[]> rows = streamEmailsAndPhones()) {
+            rows.forEach(row -> action.accept((String) row[0], (String) row[1]));
+        }
+    }
+
+    // Login runs no transaction of its own, so the rehash after it gets a short read-write one here
+    @Override
+    @Modifying
+    @Transactional
+    @Query("update UserEntity u set u.passwordHash = :passwordHash where u.id = :id")
+    int updatePasswordHash(@Param("id") Long id, @Param("passwordHash") String passwordHash);
     // You can add other custom query methods here if needed
 }
\ No newline at end of file
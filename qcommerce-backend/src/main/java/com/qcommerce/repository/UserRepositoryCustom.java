@@ -0,0 +1,20 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.UserLoginView;
+import java.util.Optional;
+
+/**
+ * User reads that bypass the persistence context.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Loads the login projection of a user, role names included, in a single statement.
+     */
+    Optional<UserLoginView> findLoginViewByEmail(String email);
+
+    /**
+     * Same projection, by primary key.
+     */
+    Optional<UserLoginView> findLoginViewById(Long id);
+}
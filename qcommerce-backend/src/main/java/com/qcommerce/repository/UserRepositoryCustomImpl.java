@@ -0,0 +1,77 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.UserLoginView;
+import com.qcommerce.model.UserLoginView.RoleSummary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Spring Data fragment backing {@link UserRepositoryCustom} with plain JDBC, so the rows are mapped straight
+ * into records: no entity instantiation, no snapshot for dirty checking, no second query for the roles.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    // Role ids and names are aggregated in the same order so they can be zipped back together
+    private static final String LOGIN_VIEW_SELECT = """
+            select u.id, u.email, u.password_hash, u.is_active, u.phone, u.locale,
+                   array_agg(r.id order by r.id) filter (where r.id is not null) as role_ids,
+                   array_agg(r.name order by r.id) filter (where r.id is not null) as role_names
+            from users u
+            left join user_roles ur on ur.user_id = u.id
+            left join roles r on r.id = ur.role_id
+            """;
+    private static final String LOGIN_VIEW_BY_EMAIL_SQL = LOGIN_VIEW_SELECT + "where lower(u.email) = lower(?) group by u.id";
+    private static final String LOGIN_VIEW_BY_ID_SQL = LOGIN_VIEW_SELECT + "where u.id = ? group by u.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Read-only so that, with read replicas configured, the lookup is served by a replica
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserLoginView> findLoginViewByEmail(String email) {
+        List<UserLoginView> rows = jdbcTemplate.query(LOGIN_VIEW_BY_EMAIL_SQL, UserRepositoryCustomImpl::mapLoginView, email);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserLoginView> findLoginViewById(Long id) {
+        List<UserLoginView> rows = jdbcTemplate.query(LOGIN_VIEW_BY_ID_SQL, UserRepositoryCustomImpl::mapLoginView, id);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    private static UserLoginView mapLoginView(ResultSet rs, int rowNum) throws SQLException {
+        return new UserLoginView(
+                rs.getLong("id"),
+                rs.getString("email"),
+                rs.getString("password_hash"),
+                rs.getBoolean("is_active"),
+                rs.getString("phone"),
+                rs.getString("locale"),
+                mapRoles(rs.getArray("role_ids"), rs.getArray("role_names")));
+    }
+
+    private static List<RoleSummary> mapRoles(Array idArray, Array nameArray) throws SQLException {
+        if (idArray == null || nameArray == null) {
+            return List.of();
+        }
+        Object[] ids = (Object[]) idArray.getArray();
+        Object[] names = (Object[]) nameArray.getArray();
+        List<RoleSummary> roles = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            roles.add(new RoleSummary(((Number) ids[i]).longValue(), (String) names[i]));
+        }
+        return List.copyOf(roles);
+    }
+}
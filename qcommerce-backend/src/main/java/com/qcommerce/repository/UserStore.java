@@ -0,0 +1,47 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.UserEntity;
+import com.qcommerce.model.UserLoginView;
+
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * The user operations registration, login and the registered-identity filter need, independent of where users are
+ * kept: {@link UserRepository} in PostgreSQL, or {@link InMemoryStorage} with the {@code in-memory} profile.
+ * Emails compare case-insensitively; an email or phone already taken fails the insert with a
+ * {@link org.springframework.dao.DataIntegrityViolationException}.
+ */
+public interface UserStore {
+
+    /**
+     * Loads the login projection of a user, role names included.
+     */
+    Optional<UserLoginView> findLoginViewByEmail(String email);
+
+    /**
+     * Loads the login projection of a user by id, e.g. to re-check status and roles on a token refresh.
+     */
+    Optional<UserLoginView> findLoginViewById(Long id);
+
+    boolean existsByEmail(String email);
+
+    boolean existsByPhone(String phone);
+
+    /**
+     * Stores a new user and assigns its id.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if the email or phone is taken.
+     */
+    UserEntity insert(UserEntity user);
+
+    /**
+     * @return The number of users updated, 0 if the id is unknown.
+     */
+    int updatePasswordHash(Long id, String passwordHash);
+
+    /**
+     * Hands every user's email and phone (which may be null) to {@code action}, without loading whole users.
+     */
+    void forEachEmailAndPhone(BiConsumer<String, String> action);
+}
@@ -0,0 +1,101 @@
+package com.qcommerce.security;
+
+import com.qcommerce.util.RateLimiter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket limits for the unauthenticated auth endpoints, applied by {@link AuthThrottlingFilter}
+ * before any database lookup or password hash.
+ * <p>
+ * Two independent limits apply: per client IP, which bounds what a single source can make us hash, and per
+ * normalized email, which bounds guessing against one account from many sources. Buckets live in
+ * {@link RateLimiter}s and idle ones are swept periodically, so memory stays bounded however many distinct
+ * keys an attacker sends; while a limiter is full, new keys are refused rather than resetting tracked ones.
+ */
+@Component
+public class AuthThrottle {
+
+    public enum Limit { CLIENT_IP, EMAIL }
+
+    /**
+     * @param retryAfterSeconds When the same request would be admitted, rounded up.
+     */
+    public record Rejection(Limit limit, long retryAfterSeconds) {
+    }
+
+    private final boolean enabled;
+    private final RateLimiter perClientIp;
+    private final RateLimiter perEmail;
+
+    private final LongAdder rejectedByClientIp = new LongAdder();
+    private final LongAdder rejectedByEmail = new LongAdder();
+
+    public AuthThrottle(@Value("${auth-throttling.enabled:true}") boolean enabled,
+                        @Value("${auth-throttling.per-ip.burst:30}") int ipBurst,
+                        @Value("${auth-throttling.per-ip.per-minute:30}") int ipPerMinute,
+                        @Value("${auth-throttling.per-email.burst:5}") int emailBurst,
+                        @Value("${auth-throttling.per-email.per-minute:5}") int emailPerMinute,
+                        @Value("${auth-throttling.max-keys:200000}") int maxKeys) {
+        this.enabled = enabled;
+        this.perClientIp = new RateLimiter(ipBurst, ipPerMinute, maxKeys);
+        this.perEmail = new RateLimiter(emailBurst, emailPerMinute, maxKeys);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return {@code null} if the client may go on, otherwise why not.
+     */
+    public Rejection checkClient(String clientIp) {
+        long waitNanos = perClientIp.tryAcquire(clientIp);
+        if (waitNanos > 0) {
+            rejectedByClientIp.increment();
+            return new Rejection(Limit.CLIENT_IP, toRetryAfterSeconds(waitNanos));
+        }
+        return null;
+    }
+
+    /**
+     * @param normalizedEmail Trimmed and lower-cased, as stored.
+     * @return {@code null} if the request may go on, otherwise why not.
+     */
+    public Rejection checkEmail(String normalizedEmail) {
+        long waitNanos = perEmail.tryAcquire(normalizedEmail);
+        if (waitNanos > 0) {
+            rejectedByEmail.increment();
+            return new Rejection(Limit.EMAIL, toRetryAfterSeconds(waitNanos));
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${auth-throttling.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        perClientIp.evictIdle();
+        perEmail.evictIdle();
+    }
+
+    public long rejectedByClientIpCount() {
+        return rejectedByClientIp.sum();
+    }
+
+    public long rejectedByEmailCount() {
+        return rejectedByEmail.sum();
+    }
+
+    /** Buckets currently tracked, IP and email together. */
+    public int trackedKeys() {
+        return perClientIp.size() + perEmail.size();
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,122 @@
+package com.qcommerce.security;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qcommerce.generated.model.Error;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Applies {@link AuthThrottle} to {@code POST /auth/login} and {@code POST /auth/register}.
+ * The client IP is checked first, then the email taken from the JSON body (which is buffered and replayed to the
+ * controller). Rejected requests get 429 with {@code Retry-After} and never reach the database or BCrypt.
+ * <p>
+ * The client IP is {@link HttpServletRequest#getRemoteAddr()}; behind a proxy set
+ * {@code server.forward-headers-strategy} so it is the real client rather than the proxy.
+ */
+public class AuthThrottlingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthThrottlingFilter.class);
+
+    private static final Set<String> THROTTLED_PATHS = Set.of("/auth/login", "/auth/register");
+
+    private final AuthThrottle authThrottle;
+    private final ObjectMapper objectMapper;
+    private final int maxBodyBytes;
+
+    public AuthThrottlingFilter(AuthThrottle authThrottle, ObjectMapper objectMapper, int maxBodyBytes) {
+        this.authThrottle = authThrottle;
+        this.objectMapper = objectMapper;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !authThrottle.isEnabled()
+                || !"POST".equals(request.getMethod())
+                || !THROTTLED_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AuthThrottle.Rejection rejection = authThrottle.checkClient(request.getRemoteAddr());
+        if (rejection != null) {
+            reject(request, response, rejection);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large.", "PAYLOAD_TOO_LARGE");
+            return;
+        }
+        String email = extractEmail(body);
+        if (email != null) {
+            rejection = authThrottle.checkEmail(email);
+            if (rejection != null) {
+                reject(request, response, rejection);
+                return;
+            }
+        }
+        filterChain.doFilter(new BufferedBodyRequest(request, body), response);
+    }
+
+    /**
+     * The top-level {@code email} string of a JSON object, normalized; {@code null} if there is none or the
+     * body is not JSON (the controller then answers 400 as usual).
+     */
+    private String extractEmail(byte[] body) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("email".equals(field) && value == JsonToken.VALUE_STRING) {
+                    String email = parser.getText().trim();
+                    return email.isEmpty() ? null : email.toLowerCase(Locale.ROOT);
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException ex) {
+            logger.debug("Could not read email from auth request body: {}", ex.getMessage());
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, AuthThrottle.Rejection rejection)
+            throws IOException {
+        logger.debug("Throttled {} by {} limit; retry after {}s", request.getRequestURI(), rejection.limit(),
+                rejection.retryAfterSeconds());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(rejection.retryAfterSeconds()));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS, "Too many attempts. Please retry later.", "TOO_MANY_REQUESTS");
+    }
+
+    // Same body shape as GlobalExceptionHandler, which never sees these requests
+    private void writeError(HttpServletResponse response, HttpStatus status, String message, String code)
+            throws IOException {
+        Error error = new Error();
+        error.setMessage(message);
+        error.setCode(JsonNullable.of(code));
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.qcommerce.security;
+
+import java.security.Principal;
+
+/**
+ * Principal placed in the security context by {@link JwtAuthenticationFilter}.
+ * Carries the identifiers from the token so controllers never need to reload the user.
+ */
+public record AuthenticatedUser(Long userId, String email) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,102 @@
+package com.qcommerce.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Password encoder whose BCrypt cost is picked at startup to fit a per-hash latency budget on the current hardware.
+ * <p>
+ * New hashes are written as {@code {bcrypt}$2a$NN$...}. Hashes without an algorithm prefix (written before this
+ * encoder existed) are still verified as BCrypt. {@link #upgradeEncoding(String)} reports any stored hash that
+ * uses another algorithm or a lower cost, so callers can rehash it after a successful login. Higher costs are left
+ * alone: every node calibrates its own strength, and nodes on different hardware would otherwise keep rehashing
+ * the same user back and forth, with a write on every login.
+ */
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalibratedPasswordEncoder.class);
+
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final String BCRYPT_PREFIX = "{" + BCRYPT_ID + "}";
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+    private static final int CALIBRATION_SAMPLES = 3;
+
+    private final int strength;
+    private final DelegatingPasswordEncoder delegate;
+
+    public CalibratedPasswordEncoder(long hashBudgetMillis, int minStrength, int maxStrength) {
+        this(calibrate(hashBudgetMillis, minStrength, maxStrength));
+    }
+
+    public CalibratedPasswordEncoder(int strength) {
+        this.strength = strength;
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        this.delegate = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(
+                BCRYPT_ID, bcrypt,
+                "pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()));
+        // Hashes stored before algorithm prefixes were introduced are plain BCrypt
+        this.delegate.setDefaultPasswordEncoderForMatches(bcrypt);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith(BCRYPT_PREFIX)) {
+            return true;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword.substring(BCRYPT_PREFIX.length()));
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Picks the highest BCrypt cost whose hash time fits the budget, never going below {@code minStrength}.
+     * Each extra cost step doubles the work, so one measurement at the minimum is enough to extrapolate.
+     */
+    static int calibrate(long hashBudgetMillis, int minStrength, int maxStrength) {
+        // Let the JIT compile the BCrypt core before timing it
+        BCryptPasswordEncoder warmup = new BCryptPasswordEncoder(4);
+        for (int i = 0; i < 20; i++) {
+            warmup.encode("calibration-warmup");
+        }
+
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration-probe");
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        long budgetNanos = hashBudgetMillis * 1_000_000L;
+        int strength = minStrength;
+        long estimatedNanos = bestNanos;
+        while (strength < maxStrength && estimatedNanos * 2 <= budgetNanos) {
+            strength++;
+            estimatedNanos *= 2;
+        }
+        logger.info("Calibrated BCrypt strength {} (~{} ms per hash, budget {} ms, cost {} took {} ms).",
+                strength, estimatedNanos / 1_000_000, hashBudgetMillis, minStrength, bestNanos / 1_000_000);
+        return strength;
+    }
+}
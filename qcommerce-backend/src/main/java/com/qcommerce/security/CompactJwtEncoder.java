@@ -0,0 +1,379 @@
+package com.qcommerce.security;
+
+import com.qcommerce.util.ObjectPool;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HS256/RS256 JWS encoder specialised for the two claim shapes {@link JwtTokenProvider} mints.
+ * <p>
+ * Produces the same compact form as the jjwt builder (Base64URL without padding, iat/exp in seconds), so tokens
+ * are verified by the usual jjwt parser, but skips the claim map, Jackson and the intermediate strings:
+ * <ul>
+ *   <li>the header and the {@code iss} claim are encoded once ({@code {"alg":"HS256"}}, or per RS256 key with
+ *       its {@code kid}),</li>
+ *   <li>the serialized {@code roles} claim is cached per distinct role list,</li>
+ *   <li>a {@link Mac} or {@link Signature} and the byte buffers are taken from a small shared pool and reused, so
+ *       an HS256 token costs little more than its final String. RS256 is dominated by the RSA private-key operation
+ *       either way. The pool, rather than a thread-local, keeps this true on virtual threads, which each serve a
+ *       single request.</li>
+ * </ul>
+ */
+final class CompactJwtEncoder {
+
+    // Base64URL of {"alg":"HS256"}, exactly what jjwt writes for an HS256 key without extra header fields
+    private static final byte[] ENCODED_HEADER = "eyJhbGciOiJIUzI1NiJ9.".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] BASE64_URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int HMAC_SIGNATURE_LENGTH = 32;
+
+    // Room for an RSA-4096 signature
+    private static final int MAX_SIGNATURE_LENGTH = 512;
+
+    // Role sets are few (users share a handful of combinations); beyond this the fragment is built per token
+    private static final int MAX_CACHED_ROLE_SETS = 256;
+
+    // Exactly one of these is set
+    private final SecretKey hmacKey;
+    private final JwtKeyRing keyRing;
+
+    private final byte[] issuerFragment;
+    private final Map<List<String>, byte[]> roleFragments = new ConcurrentHashMap<>();
+    private final ObjectPool<Buffers> buffers;
+
+    /**
+     * HS256 with a shared secret.
+     */
+    CompactJwtEncoder(SecretKey key, String issuer) {
+        this(key, null, issuer);
+    }
+
+    /**
+     * RS256 with the key ring's current key, looked up per token so rotation takes effect immediately.
+     */
+    CompactJwtEncoder(JwtKeyRing keyRing, String issuer) {
+        this(null, keyRing, issuer);
+    }
+
+    private CompactJwtEncoder(SecretKey hmacKey, JwtKeyRing keyRing, String issuer) {
+        this.hmacKey = hmacKey;
+        this.keyRing = keyRing;
+        JsonBuffer fragment = new JsonBuffer(64);
+        fragment.writeRaw(",\"iss\":");
+        fragment.writeString(issuer);
+        this.issuerFragment = fragment.toByteArray();
+        this.buffers = ObjectPool.perCore(() -> new Buffers(hmacKey != null ? newMac(hmacKey) : null));
+    }
+
+    String accessToken(TokenSubject subject, String sessionId, String jti, long issuedAtSeconds, long expiresAtSeconds) {
+        Buffers b = buffers.acquire();
+        String token = accessToken(b, subject, sessionId, jti, issuedAtSeconds, expiresAtSeconds);
+        buffers.release(b); // not after a failure, which may leave the Mac or Signature mid-operation
+        return token;
+    }
+
+    String refreshToken(TokenSubject subject, String familyId, String jti, long issuedAtSeconds, long expiresAtSeconds) {
+        Buffers b = buffers.acquire();
+        String token = refreshToken(b, subject, familyId, jti, issuedAtSeconds, expiresAtSeconds);
+        buffers.release(b);
+        return token;
+    }
+
+    private String accessToken(Buffers b, TokenSubject subject, String sessionId, String jti, long issuedAtSeconds,
+                               long expiresAtSeconds) {
+        JsonBuffer json = b.json;
+        json.reset();
+        json.writeRaw("{\"token_type\":\"access\",\"userId\":");
+        json.writeNumber(subject.userId());
+        json.writeRaw(",\"email\":");
+        json.writeString(subject.email());
+        json.writeRaw(",");
+        json.writeBytes(roleFragment(subject.roles() != null ? subject.roles() : List.of()));
+        if (sessionId != null) {
+            json.writeRaw(",\"sid\":");
+            json.writeString(sessionId);
+        }
+        writeRegisteredClaims(json, jti, subject.email(), issuedAtSeconds, expiresAtSeconds);
+        return sign(b);
+    }
+
+    private String refreshToken(Buffers b, TokenSubject subject, String familyId, String jti, long issuedAtSeconds,
+                                long expiresAtSeconds) {
+        JsonBuffer json = b.json;
+        json.reset();
+        json.writeRaw("{\"token_type\":\"refresh\",\"userId\":");
+        json.writeNumber(subject.userId());
+        json.writeRaw(",\"fam\":");
+        json.writeString(familyId);
+        writeRegisteredClaims(json, jti, subject.email(), issuedAtSeconds, expiresAtSeconds);
+        return sign(b);
+    }
+
+    private void writeRegisteredClaims(JsonBuffer json, String jti, String subject, long issuedAtSeconds, long expiresAtSeconds) {
+        json.writeRaw(",\"jti\":");
+        json.writeString(jti);
+        json.writeRaw(",\"sub\":");
+        json.writeString(subject);
+        json.writeBytes(issuerFragment);
+        json.writeRaw(",\"iat\":");
+        json.writeNumber(issuedAtSeconds);
+        json.writeRaw(",\"exp\":");
+        json.writeNumber(expiresAtSeconds);
+        json.writeRaw("}");
+    }
+
+    private byte[] roleFragment(List<String> roles) {
+        byte[] fragment = roleFragments.get(roles);
+        if (fragment == null) {
+            JsonBuffer json = new JsonBuffer(64);
+            json.writeRaw("\"roles\":[");
+            for (int i = 0; i < roles.size(); i++) {
+                if (i > 0) {
+                    json.writeRaw(",");
+                }
+                json.writeString(roles.get(i));
+            }
+            json.writeRaw("]");
+            fragment = json.toByteArray();
+            if (roleFragments.size() < MAX_CACHED_ROLE_SETS) {
+                roleFragments.putIfAbsent(List.copyOf(roles), fragment);
+            }
+        }
+        return fragment;
+    }
+
+    /**
+     * Writes header.payload.signature into the output buffer and returns it as the token.
+     */
+    private String sign(Buffers b) {
+        JwtSigningKey rsaKey = keyRing != null ? keyRing.signingKey() : null;
+        byte[] header = rsaKey != null ? rsaKey.encodedHeader() : ENCODED_HEADER;
+        JsonBuffer json = b.json;
+        int signingInputLength = header.length + base64Length(json.length);
+        byte[] out = b.ensureOutput(signingInputLength + 1 + base64Length(MAX_SIGNATURE_LENGTH));
+        System.arraycopy(header, 0, out, 0, header.length);
+        int pos = encodeBase64Url(json.bytes, json.length, out, header.length);
+
+        int signatureLength;
+        try {
+            if (rsaKey != null) {
+                Signature signature = b.signatureFor(rsaKey);
+                signature.update(out, 0, pos);
+                signatureLength = signature.sign(b.signature, 0, MAX_SIGNATURE_LENGTH);
+            } else {
+                Mac mac = b.mac;
+                mac.update(out, 0, pos);
+                mac.doFinal(b.signature, 0);
+                signatureLength = HMAC_SIGNATURE_LENGTH;
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign token", e);
+        }
+        out[pos++] = '.';
+        pos = encodeBase64Url(b.signature, signatureLength, out, pos);
+        return new String(out, 0, pos, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int base64Length(int length) {
+        return (length / 3) * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+    }
+
+    // Unpadded Base64URL, as required by RFC 7515
+    private static int encodeBase64Url(byte[] src, int length, byte[] dst, int pos) {
+        int i = 0;
+        for (int end = length - length % 3; i < end; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[pos++] = BASE64_URL[bits >>> 18];
+            dst[pos++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            dst[pos++] = BASE64_URL[(bits >>> 6) & 0x3F];
+            dst[pos++] = BASE64_URL[bits & 0x3F];
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xFF) << 16;
+            dst[pos++] = BASE64_URL[bits >>> 18];
+            dst[pos++] = BASE64_URL[(bits >>> 12) & 0x3F];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+            dst[pos++] = BASE64_URL[bits >>> 18];
+            dst[pos++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            dst[pos++] = BASE64_URL[(bits >>> 6) & 0x3F];
+        }
+        return pos;
+    }
+
+    private static Mac newMac(SecretKey key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available on this JVM", e);
+        }
+    }
+
+    private static final class Buffers {
+        final Mac mac;
+        final JsonBuffer json = new JsonBuffer(512);
+        final byte[] signature = new byte[MAX_SIGNATURE_LENGTH];
+        byte[] output = new byte[1024];
+
+        // RS256: re-initialised only when the ring has rotated to another key
+        Signature rsa;
+        JwtSigningKey rsaKey;
+
+        Buffers(Mac mac) {
+            this.mac = mac;
+        }
+
+        Signature signatureFor(JwtSigningKey key) throws GeneralSecurityException {
+            if (rsa == null) {
+                rsa = Signature.getInstance("SHA256withRSA");
+            }
+            if (rsaKey != key) {
+                rsa.initSign(key.privateKey());
+                rsaKey = key;
+            }
+            return rsa;
+        }
+
+        byte[] ensureOutput(int capacity) {
+            if (output.length < capacity) {
+                output = new byte[Math.max(capacity, output.length * 2)];
+            }
+            return output;
+        }
+    }
+
+    /**
+     * Growable UTF-8 buffer with just enough JSON writing for our claims.
+     */
+    private static final class JsonBuffer {
+        byte[] bytes;
+        int length;
+
+        JsonBuffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        // Only for ASCII literals defined in this class
+        void writeRaw(String ascii) {
+            ensure(ascii.length());
+            for (int i = 0; i < ascii.length(); i++) {
+                bytes[length++] = (byte) ascii.charAt(i);
+            }
+        }
+
+        void writeBytes(byte[] src) {
+            ensure(src.length);
+            System.arraycopy(src, 0, bytes, length, src.length);
+            length += src.length;
+        }
+
+        void writeNumber(Long value) {
+            if (value == null) {
+                writeRaw("null");
+            } else {
+                writeNumber(value.longValue());
+            }
+        }
+
+        void writeNumber(long value) {
+            if (value == Long.MIN_VALUE) {
+                writeRaw(Long.toString(value));
+                return;
+            }
+            ensure(20);
+            if (value < 0) {
+                bytes[length++] = '-';
+                value = -value;
+            }
+            int start = length;
+            do {
+                bytes[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            // Digits were written least significant first
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte tmp = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = tmp;
+            }
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeRaw("null");
+                return;
+            }
+            // Worst case: every char escaped as \\uXXXX
+            ensure(value.length() * 6 + 2);
+            bytes[length++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    bytes[length++] = '\\';
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    bytes[length++] = '\\';
+                    bytes[length++] = 'u';
+                    bytes[length++] = '0';
+                    bytes[length++] = '0';
+                    bytes[length++] = HEX[c >> 4];
+                    bytes[length++] = HEX[c & 0xF];
+                } else if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Lone surrogate: escape it rather than emit invalid UTF-8
+                    bytes[length++] = '\\';
+                    bytes[length++] = 'u';
+                    bytes[length++] = HEX[c >> 12];
+                    bytes[length++] = HEX[(c >> 8) & 0xF];
+                    bytes[length++] = HEX[(c >> 4) & 0xF];
+                    bytes[length++] = HEX[c & 0xF];
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            bytes[length++] = '"';
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + extra, bytes.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.qcommerce.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qcommerce.generated.model.Error;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes {@code POST /auth/register} and {@code POST /users/me/addresses} safe to retry: a request carrying an
+ * {@code Idempotency-Key} header runs at most once per key (see {@link IdempotencyStore}), and retries get the
+ * original status and body back, marked with {@code Idempotent-Replayed: true}, without reaching the database or
+ * BCrypt. A retry sent while the original is still running waits for it, for up to
+ * {@code idempotency.wait-timeout-ms}, then gets 409 and should retry later.
+ * <p>
+ * Keys are scoped to the endpoint and, for address writes, to the authenticated user; registration keys are scoped
+ * to the email being registered, so unrelated clients that happen to pick the same key never meet. A key is bound to
+ * the SHA-256 of the request body it was first used with; reusing it with a different body answers 422. For
+ * registration that also means a replay, which carries tokens, is only ever returned to a client that sent the same
+ * password.
+ * <p>
+ * A replayed registration hands out the original refresh token. A client that already rotated it and then replays
+ * the registration would present a used token on its next refresh, which revokes the whole family (see
+ * {@link RefreshTokenStore}). Retries happen within seconds of the original, so registration responses are only
+ * kept for {@code idempotency.register-ttl-ms}, much shorter than other responses.
+ * Runs after {@link JwtAuthenticationFilter}; anonymous address writes pass through to be refused with 401.
+ */
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final String REGISTER_PATH = "/auth/register";
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of(REGISTER_PATH, "/users/me/addresses");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final int maxBodyBytes;
+    private final long waitTimeoutMs;
+    private final long registerTtlMs;
+
+    public IdempotencyKeyFilter(IdempotencyStore idempotencyStore, ObjectMapper objectMapper, int maxBodyBytes,
+                                long waitTimeoutMs, long registerTtlMs) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.maxBodyBytes = maxBodyBytes;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.registerTtlMs = registerTtlMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(IDEMPOTENCY_KEY) == null
+                || !"POST".equals(request.getMethod())
+                || !IDEMPOTENT_PATHS.contains(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH
+                    + " characters.", "INVALID_IDEMPOTENCY_KEY");
+            return;
+        }
+        String path = path(request);
+        boolean register = REGISTER_PATH.equals(path);
+        String scope = null;
+        if (!register) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            scope = user.userId().toString();
+        }
+
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large.", "PAYLOAD_TOO_LARGE");
+            return;
+        }
+        if (register) {
+            scope = registeredEmail(body);
+        }
+        String storeKey = path + '|' + scope + '|' + key;
+        String fingerprint = sha256(body);
+
+        while (true) {
+            IdempotencyStore.Claim claim = idempotencyStore.claim(storeKey, fingerprint);
+            if (!claim.entry().matches(fingerprint)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for a different request.", "IDEMPOTENCY_KEY_REUSED");
+                return;
+            }
+            if (claim.owner()) {
+                execute(new BufferedBodyRequest(request, body), response, filterChain, storeKey, claim.entry(),
+                        register ? registerTtlMs : -1);
+                return;
+            }
+            IdempotencyStore.StoredResponse stored;
+            try {
+                stored = claim.entry().await(waitTimeoutMs);
+            } catch (TimeoutException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress.",
+                        "IDEMPOTENCY_KEY_IN_PROGRESS");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for the original request", e);
+            }
+            if (stored != null) {
+                replay(stored, response);
+                return;
+            }
+            // The original's response was not kept, so the key is free: claim it again and run
+        }
+    }
+
+    /**
+     * @param ttlMillis How long to keep the response, or -1 for {@code idempotency.ttl-ms}.
+     */
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String storeKey, IdempotencyStore.Entry entry, long ttlMillis)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper capturing = new ContentCachingResponseWrapper(response);
+        IdempotencyStore.StoredResponse stored = null;
+        try {
+            filterChain.doFilter(request, capturing);
+            int status = capturing.getStatus();
+            // Server errors and load shedding are worth a real retry; everything else is the answer for good
+            if (status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                stored = new IdempotencyStore.StoredResponse(status, capturing.getContentType(),
+                        capturing.getHeader(HttpHeaders.LOCATION), capturing.getContentAsByteArray());
+            }
+        } finally {
+            if (ttlMillis < 0 || stored == null) {
+                idempotencyStore.complete(storeKey, entry, stored);
+            } else {
+                idempotencyStore.complete(storeKey, entry, stored, ttlMillis);
+            }
+        }
+        capturing.copyBodyToResponse();
+    }
+
+    private static void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response)
+            throws IOException {
+        logger.debug("Replaying the stored {} response for a repeated Idempotency-Key.", stored.status());
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        response.setHeader(REPLAYED, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    // Same body shape as GlobalExceptionHandler, which never sees these requests
+    private void writeError(HttpServletResponse response, HttpStatus status, String message, String code)
+            throws IOException {
+        Error error = new Error();
+        error.setMessage(message);
+        error.setCode(JsonNullable.of(code));
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    /**
+     * The lower-cased email of a registration body, or "-" when there is none; an invalid body is refused by the
+     * controller anyway.
+     */
+    private String registeredEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).path("email");
+            return email.isTextual() ? email.asText().toLowerCase() : "-";
+        } catch (IOException e) {
+            return "-";
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available on this JVM", e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.qcommerce.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bounded in-memory store of the responses to requests sent with an {@code Idempotency-Key}, for
+ * {@link IdempotencyKeyFilter}.
+ * <p>
+ * The first request with a key claims it and runs; requests with the same key arriving meanwhile wait on its
+ * {@link Entry} instead of running again, and once it completed they, and later retries, get its response replayed.
+ * Completed entries live for {@code idempotency.ttl-ms}; an entry whose response was not kept (a server error, say)
+ * is removed at once, so the next retry runs for real. Every entry remembers a fingerprint of the request it was
+ * claimed with, so a key reused for a different request is detected rather than answered with the wrong response.
+ * Like the refresh-token store, this is per instance: retries routed to another instance run again.
+ */
+@Component
+public class IdempotencyStore {
+
+    /**
+     * A response as it was sent, to be replayed byte for byte.
+     */
+    public record StoredResponse(int status, String contentType, String location, byte[] body) {
+    }
+
+    public static final class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        // In-flight entries never expire; set when the response is stored
+        private volatile long expiresAtNanos = Long.MAX_VALUE;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public boolean matches(String fingerprint) {
+            return this.fingerprint.equals(fingerprint);
+        }
+
+        /**
+         * Waits for the request that claimed the key to complete.
+         *
+         * @return Its response, or {@code null} if it was not kept and the key is free again.
+         * @throws TimeoutException if it is still running after {@code timeoutMillis}.
+         */
+        public StoredResponse await(long timeoutMillis) throws InterruptedException, TimeoutException {
+            try {
+                return response.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause()); // never completed exceptionally
+            }
+        }
+
+        private boolean isExpired(long now) {
+            return response.isDone() && now - expiresAtNanos > 0;
+        }
+    }
+
+    /**
+     * @param entry The entry for the key.
+     * @param owner Whether the caller claimed the key, and must now run the request and {@link #complete} it.
+     */
+    public record Claim(Entry entry, boolean owner) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyStore(@Value("${idempotency.max-entries:100000}") int maxEntries,
+                            @Value("${idempotency.ttl-ms:86400000}") long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, 1024));
+    }
+
+    /**
+     * Claims {@code key} for a request with the given fingerprint, or returns the entry of whoever has it.
+     */
+    public Claim claim(String key, String fingerprint) {
+        while (true) {
+            Entry claimed = new Entry(fingerprint);
+            Entry existing = entries.putIfAbsent(key, claimed);
+            if (existing == null) {
+                if (entries.size() > maxEntries) {
+                    evict();
+                }
+                return new Claim(claimed, true);
+            }
+            if (!existing.isExpired(System.nanoTime())) {
+                return new Claim(existing, false);
+            }
+            entries.remove(key, existing);
+        }
+    }
+
+    /**
+     * Finishes a claim: keeps {@code response} for replays, or with {@code null} frees the key again. Requests
+     * waiting on the entry are released either way.
+     */
+    public void complete(String key, Entry entry, StoredResponse response) {
+        finish(key, entry, response, ttlNanos);
+    }
+
+    /**
+     * Same, keeping the response for {@code ttlMillis} instead of {@code idempotency.ttl-ms}.
+     */
+    public void complete(String key, Entry entry, StoredResponse response, long ttlMillis) {
+        finish(key, entry, response, TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+    }
+
+    private void finish(String key, Entry entry, StoredResponse response, long ttlNanos) {
+        if (response == null) {
+            entries.remove(key, entry);
+        } else {
+            entry.expiresAtNanos = System.nanoTime() + ttlNanos;
+        }
+        entry.response.complete(response);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Expired entries go first; if the store is still full an arbitrary tenth of the completed ones is dropped.
+     * In-flight entries are never dropped, since requests may be waiting on them.
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        int excess = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<Entry> it = entries.values().iterator();
+        while (excess > 0 && it.hasNext()) {
+            if (it.next().response.isDone()) {
+                it.remove();
+                excess--;
+            }
+        }
+    }
+}
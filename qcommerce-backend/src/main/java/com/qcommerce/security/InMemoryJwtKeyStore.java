@@ -0,0 +1,37 @@
+package com.qcommerce.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * {@link JwtKeyStore} in the heap, for the single-instance {@code in-memory} profile (and tests and benchmarks).
+ * Keys die with the process, so a restart invalidates every token signed before it.
+ */
+@Component
+@Profile("in-memory")
+@ConditionalOnProperty(name = "jwt.signing.algorithm", havingValue = "RS256")
+public class InMemoryJwtKeyStore implements JwtKeyStore {
+
+    private final Map<String, StoredJwtKey> keys = new HashMap<>();
+
+    @Override
+    public synchronized List<StoredJwtKey> load() {
+        return List.copyOf(keys.values());
+    }
+
+    @Override
+    public synchronized List<StoredJwtKey> update(Function<List<StoredJwtKey>, Changes> planner) {
+        Changes changes = planner.apply(List.copyOf(keys.values()));
+        changes.removedKids().forEach(keys::remove);
+        for (StoredJwtKey key : changes.added()) {
+            keys.put(key.kid(), key);
+        }
+        return List.copyOf(keys.values());
+    }
+}
@@ -0,0 +1,187 @@
+package com.qcommerce.security;
+
+import com.qcommerce.exception.ServiceOverloadedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-process {@link RefreshTokenStore}. Rotation is a single {@code compute} on the family entry,
+ * so two concurrent refreshes with the same token cannot both succeed.
+ * <p>
+ * Memory is bounded twice: a user keeps at most {@code jwt.refresh-token.max-families-per-user} families (a new
+ * login drops their oldest), and once {@code jwt.refresh-token.max-families} are live, new families are refused
+ * with 503 rather than evicting other users' sessions. Families are also indexed by expiry, so sweeping only
+ * touches the expired ones.
+ */
+@Component
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryRefreshTokenStore.class);
+
+    private static final long RETRY_AFTER_SECONDS = 60;
+
+    private final int maxFamiliesPerUser;
+    private final int maxFamilies;
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+    // Creation order per user; only ever touched inside compute on the user's entry
+    private final Map<Long, LinkedHashSet<String>> familiesByUser = new ConcurrentHashMap<>();
+    private final NavigableSet<Expiry> expiries = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Expiry::expiresAtMillis).thenComparing(Expiry::familyId));
+
+    public InMemoryRefreshTokenStore(@Value("${jwt.refresh-token.max-families-per-user:10}") int maxFamiliesPerUser,
+                                     @Value("${jwt.refresh-token.max-families:500000}") int maxFamilies) {
+        if (maxFamiliesPerUser < 1 || maxFamilies < 1) {
+            throw new IllegalArgumentException("jwt.refresh-token.max-families-per-user and max-families must be > 0");
+        }
+        this.maxFamiliesPerUser = maxFamiliesPerUser;
+        this.maxFamilies = maxFamilies;
+    }
+
+    /**
+     * @throws ServiceOverloadedException if {@code jwt.refresh-token.max-families} families are live even after
+     *                                    dropping the expired ones.
+     */
+    @Override
+    public void createFamily(String familyId, TokenSubject subject, String jtiHash, long expiresAtMillis) {
+        if (families.size() >= maxFamilies) {
+            sweepExpired();
+            if (families.size() >= maxFamilies) {
+                throw new ServiceOverloadedException("Too many active sessions, please try again later.",
+                        RETRY_AFTER_SECONDS);
+            }
+        }
+        families.put(familyId, new Family(subject, jtiHash, expiresAtMillis));
+        expiries.add(new Expiry(expiresAtMillis, familyId));
+        List<String> evicted = new ArrayList<>();
+        familiesByUser.compute(subject.userId(), (id, ids) -> {
+            LinkedHashSet<String> userFamilies = ids != null ? ids : new LinkedHashSet<>();
+            userFamilies.add(familyId);
+            Iterator<String> oldest = userFamilies.iterator();
+            while (userFamilies.size() > maxFamiliesPerUser) {
+                evicted.add(oldest.next());
+                oldest.remove();
+            }
+            return userFamilies;
+        });
+        evicted.forEach(this::removeFamily);
+    }
+
+    @Override
+    public Rotation rotate(String familyId, String presentedJtiHash, String nextJtiHash, long nextExpiresAtMillis) {
+        long now = System.currentTimeMillis();
+        Family[] dropped = new Family[1];
+        boolean[] reused = new boolean[1];
+        Family rotated = families.compute(familyId, (id, current) -> {
+            if (current == null) {
+                return null;
+            }
+            if (current.expiresAtMillis() <= now) {
+                dropped[0] = current;
+                return null;
+            }
+            if (!current.jtiHash().equals(presentedJtiHash)) {
+                dropped[0] = current;
+                reused[0] = true;
+                return null;
+            }
+            expiries.remove(new Expiry(current.expiresAtMillis(), id));
+            expiries.add(new Expiry(nextExpiresAtMillis, id));
+            return new Family(current.subject(), nextJtiHash, nextExpiresAtMillis);
+        });
+        if (rotated != null) {
+            return new Rotation(Outcome.ROTATED, rotated.subject());
+        }
+        if (dropped[0] != null) {
+            forget(familyId, dropped[0]);
+        }
+        return reused[0] ? new Rotation(Outcome.REUSED, null) : new Rotation(Outcome.UNKNOWN, null);
+    }
+
+    @Override
+    public void revokeFamily(String familyId) {
+        Family removed = families.remove(familyId);
+        if (removed != null) {
+            forget(familyId, removed);
+        }
+    }
+
+    @Override
+    public void revokeAllForUser(Long userId) {
+        Set<String> userFamilies = familiesByUser.remove(userId);
+        if (userFamilies != null) {
+            userFamilies.forEach(this::removeFamily);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.sweep-interval-ms:300000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        // Ascending by expiry, so this stops at the first live family
+        for (Expiry head : expiries) {
+            if (head.expiresAtMillis() > now) {
+                break;
+            }
+            if (!expiries.remove(head)) {
+                continue;
+            }
+            Family family = families.get(head.familyId());
+            if (family != null && family.expiresAtMillis() <= now && families.remove(head.familyId(), family)) {
+                forget(head.familyId(), family);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            logger.debug("Swept {} expired refresh-token families, {} remain.", removed, families.size());
+        }
+    }
+
+    public int size() {
+        return families.size();
+    }
+
+    int userCount() {
+        return familiesByUser.size();
+    }
+
+    /**
+     * Drops a family already unlinked from its user.
+     */
+    private void removeFamily(String familyId) {
+        Family removed = families.remove(familyId);
+        if (removed != null) {
+            expiries.remove(new Expiry(removed.expiresAtMillis(), familyId));
+        }
+    }
+
+    /**
+     * Drops the index entries of a family already removed from {@link #families}.
+     */
+    private void forget(String familyId, Family removed) {
+        expiries.remove(new Expiry(removed.expiresAtMillis(), familyId));
+        familiesByUser.computeIfPresent(removed.subject().userId(), (id, ids) -> {
+            ids.remove(familyId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private record Family(TokenSubject subject, String jtiHash, long expiresAtMillis) {
+    }
+
+    private record Expiry(long expiresAtMillis, String familyId) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.qcommerce.security;
+
+import com.qcommerce.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process {@link TokenRevocationStore}.
+ * <p>
+ * A Bloom filter sits in front of the map so that the common "not revoked" answer costs a few
+ * atomic reads and takes no lock. Revocations are also queued in expiry order, so the periodic sweep
+ * only touches entries whose {@code exp} has passed instead of scanning the whole denylist.
+ * Writers (logout, sweep) synchronize with each other; readers never do.
+ */
+@Component
+public class InMemoryTokenRevocationStore implements TokenRevocationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryTokenRevocationStore.class);
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final DelayQueue<Revocation> expiryQueue = new DelayQueue<>();
+    private final long expectedEntries;
+    private final double falsePositiveProbability;
+
+    private volatile BloomFilter filter;
+    // Entries added to the current filter, including ones since swept; drives filter rebuilds.
+    private long filterInsertions;
+
+    public InMemoryTokenRevocationStore(@Value("${jwt.revocation.expected-entries:100000}") long expectedEntries,
+                                        @Value("${jwt.revocation.false-positive-probability:0.001}") double falsePositiveProbability) {
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.filter = BloomFilter.create(expectedEntries, falsePositiveProbability);
+    }
+
+    @Override
+    public synchronized void revoke(String jti, long expiresAtMillis) {
+        if (jti == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if (revoked.putIfAbsent(jti, expiresAtMillis) == null) {
+            expiryQueue.add(new Revocation(jti, expiresAtMillis));
+            filter.put(jti);
+            filterInsertions++;
+        }
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        if (!filter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Drops revocations whose tokens have expired. Once more entries have passed through the Bloom filter
+     * than it was sized for, it is rebuilt from the live entries so its false-positive rate stays low.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sweep-interval-ms:60000}")
+    public synchronized void sweepExpired() {
+        int removed = 0;
+        Revocation expired;
+        while ((expired = expiryQueue.poll()) != null) {
+            revoked.remove(expired.jti());
+            removed++;
+        }
+        if (filterInsertions > expectedEntries && revoked.size() < filterInsertions / 2) {
+            BloomFilter rebuilt = BloomFilter.create(expectedEntries, falsePositiveProbability);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+            filterInsertions = revoked.size();
+        }
+        if (removed > 0) {
+            logger.debug("Swept {} expired token revocations, {} remain.", removed, revoked.size());
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private record Revocation(String jti, long expiresAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((Revocation) other).expiresAtMillis);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.qcommerce.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * {@link JwtKeyStore} in the {@code jwt_signing_keys} table, shared by every instance on the database.
+ * <p>
+ * Private keys are sealed with AES-GCM under {@code jwt.signing.key-encryption-key} (base64, 256 bits), so a copy of
+ * the database alone cannot mint tokens; the startup fails without that key. Key generation takes a table lock that
+ * only conflicts with itself and with writes, so readers are never blocked.
+ */
+@Component
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "jwt.signing.algorithm", havingValue = "RS256")
+public class JdbcJwtKeyStore implements JwtKeyStore {
+
+    private static final String SELECT_SQL = "select kid, private_key, public_key, activates_at from jwt_signing_keys";
+    private static final String INSERT_SQL =
+            "insert into jwt_signing_keys (kid, private_key, public_key, activates_at) values (?, ?, ?, ?)";
+    private static final String DELETE_SQL = "delete from jwt_signing_keys where kid = ?";
+    private static final String LOCK_SQL = "lock table jwt_signing_keys in share row exclusive mode";
+
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SecretKey encryptionKey;
+    private final SecureRandom random = new SecureRandom();
+
+    public JdbcJwtKeyStore(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${jwt.signing.key-encryption-key:}") String encryptionKey) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.encryptionKey = encryptionKey(encryptionKey);
+    }
+
+    static SecretKey encryptionKey(String base64) {
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(base64.trim());
+        } catch (IllegalArgumentException e) {
+            key = new byte[0];
+        }
+        if (key.length != 32) {
+            throw new IllegalArgumentException("RS256 signing keys are stored in the database and need "
+                    + "jwt.signing.key-encryption-key (JWT_KEY_ENCRYPTION_KEY): 32 random bytes, base64-encoded.");
+        }
+        return new SecretKeySpec(key, "AES");
+    }
+
+    @Override
+    public List<StoredJwtKey> load() {
+        return jdbcTemplate.query(SELECT_SQL, this::mapKey);
+    }
+
+    @Override
+    public List<StoredJwtKey> update(Function<List<StoredJwtKey>, Changes> planner) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(LOCK_SQL);
+            // Read under the lock: another instance may have made the same change while this one waited
+            Changes changes = planner.apply(load());
+            for (String kid : changes.removedKids()) {
+                jdbcTemplate.update(DELETE_SQL, kid);
+            }
+            for (StoredJwtKey key : changes.added()) {
+                jdbcTemplate.update(INSERT_SQL, key.kid(),
+                        seal(key.kid(), key.keyPair().getPrivate().getEncoded()),
+                        key.keyPair().getPublic().getEncoded(),
+                        OffsetDateTime.ofInstant(key.activatesAt(), ZoneOffset.UTC));
+            }
+            return load();
+        });
+    }
+
+    private StoredJwtKey mapKey(ResultSet rs, int rowNum) throws SQLException {
+        String kid = rs.getString("kid");
+        try {
+            KeyFactory rsa = KeyFactory.getInstance("RSA");
+            KeyPair keyPair = new KeyPair(
+                    rsa.generatePublic(new X509EncodedKeySpec(rs.getBytes("public_key"))),
+                    rsa.generatePrivate(new PKCS8EncodedKeySpec(open(kid, rs.getBytes("private_key")))));
+            return new StoredJwtKey(kid, keyPair, rs.getObject("activates_at", OffsetDateTime.class).toInstant());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not read JWT signing key " + kid
+                    + "; was it stored under another jwt.signing.key-encryption-key?", e);
+        }
+    }
+
+    /**
+     * @return The IV followed by the ciphertext and tag; the {@code kid} is authenticated too, so a sealed key cannot
+     *         be moved to another row.
+     */
+    byte[] seal(String kid, byte[] privateKey) {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.US_ASCII));
+            byte[] sealed = cipher.doFinal(privateKey);
+            byte[] stored = Arrays.copyOf(iv, IV_BYTES + sealed.length);
+            System.arraycopy(sealed, 0, stored, IV_BYTES, sealed.length);
+            return stored;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM is not available on this JVM", e);
+        }
+    }
+
+    byte[] open(String kid, byte[] stored) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, stored, 0, IV_BYTES));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.US_ASCII));
+        return cipher.doFinal(stored, IV_BYTES, stored.length - IV_BYTES);
+    }
+}
@@ -0,0 +1,254 @@
+package com.qcommerce.security;
+
+import com.qcommerce.security.JwtKeyStore.Changes;
+import com.qcommerce.security.JwtKeyStore.StoredJwtKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RS256 signing keys for {@link JwtTokenProvider} when {@code jwt.signing.algorithm} is {@code RS256}. Tokens carry
+ * the {@code kid} of the key that signed them, and every key that may still have live tokens is published on
+ * {@code /.well-known/jwks.json}, so other services verify our tokens locally without the secret or a call to us.
+ * <p>
+ * The ring holds three kinds of keys:
+ * <ul>
+ *   <li>the <b>next</b> key, published but not signing yet. It is published at least
+ *       {@code jwt.signing.jwks-max-age-seconds} plus one refresh before it starts signing, so every instance and every
+ *       verifier that cached the key set already knows it when the first token signed with it arrives;</li>
+ *   <li>the <b>current</b> key, signing every new token;</li>
+ *   <li><b>retired</b> keys, no longer signing but still verifying for {@code jwt.signing.overlap-ms} after they
+ *       retired, which must cover the longest token lifetime (refresh tokens, by default).</li>
+ * </ul>
+ * Keys live in a {@link JwtKeyStore} shared by every instance, each with the moment it starts signing, so all
+ * instances sign with the same key and publish the same set, and tokens survive restarts and deploys. Each instance
+ * re-reads the store every {@code jwt.signing.refresh-interval-ms}; whichever first sees that the next key has started
+ * signing generates the one after it, {@code jwt.signing.rotation-interval-ms} later, and deletes keys whose overlap
+ * has passed.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.signing.algorithm", havingValue = "RS256")
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private static final Comparator<StoredJwtKey> BY_ACTIVATION = Comparator.comparing(StoredJwtKey::activatesAt);
+
+    private final JwtKeyStore keyStore;
+    private final int keySize;
+    private final long rotationIntervalMs;
+    private final long publishLeadMs;
+    private final long overlapMs;
+    private final long jwksMaxAgeSeconds;
+
+    // Replaced as a whole on refresh, so readers never see a half-rotated ring
+    private volatile State state;
+
+    public JwtKeyRing(JwtKeyStore keyStore,
+                      @Value("${jwt.signing.rsa-key-size:2048}") int keySize,
+                      @Value("${jwt.signing.rotation-interval-ms:86400000}") long rotationIntervalMs,
+                      @Value("${jwt.signing.refresh-interval-ms:60000}") long refreshIntervalMs,
+                      @Value("${jwt.signing.overlap-ms:${jwt.refresh-token.expiration-ms}}") long overlapMs,
+                      @Value("${jwt.signing.jwks-max-age-seconds:3600}") long jwksMaxAgeSeconds) {
+        if (keySize < 2048) {
+            throw new IllegalArgumentException("RS256 keys must be at least 2048 bits.");
+        }
+        // Otherwise an instance or a verifier could still be using a key set that predates the key now signing
+        if (jwksMaxAgeSeconds * 1000 + refreshIntervalMs > rotationIntervalMs) {
+            throw new IllegalArgumentException("jwt.signing.jwks-max-age-seconds plus jwt.signing.refresh-interval-ms "
+                    + "must not exceed the rotation interval.");
+        }
+        this.keyStore = keyStore;
+        this.keySize = keySize;
+        this.rotationIntervalMs = rotationIntervalMs;
+        this.publishLeadMs = jwksMaxAgeSeconds * 1000 + refreshIntervalMs;
+        this.overlapMs = overlapMs;
+        this.jwksMaxAgeSeconds = jwksMaxAgeSeconds;
+        refresh(Instant.now());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-interval-ms:60000}",
+            initialDelayString = "${jwt.signing.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            refresh(Instant.now());
+        } catch (RuntimeException ex) {
+            // Keeps signing and verifying with the keys it has; the next refresh tries again
+            logger.warn("Could not refresh the JWT signing keys: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Re-reads the store, first generating the next key and deleting expired ones if no other instance has yet.
+     */
+    synchronized void refresh(Instant now) {
+        List<StoredJwtKey> keys = keyStore.load();
+        if (needsUpdate(keys, now)) {
+            keys = keyStore.update(stored -> plan(stored, now));
+        }
+        State previous = state;
+        state = State.of(keys, now, overlapMs, previous);
+        if (previous == null || !previous.etag.equals(state.etag)) {
+            logger.info("JWT signing with RS256 key {}, next key {}, {} retired key(s) still verifying.",
+                    state.current.kid(), state.next != null ? state.next.kid() : "none", state.retiredCount);
+        }
+    }
+
+    /**
+     * Whether the stored keys lack a next key (none at all, or the last one has started signing) or still hold a key
+     * whose overlap has passed.
+     */
+    private boolean needsUpdate(List<StoredJwtKey> stored, Instant now) {
+        if (stored.isEmpty()) {
+            return true;
+        }
+        List<StoredJwtKey> keys = new ArrayList<>(stored);
+        keys.sort(BY_ACTIVATION);
+        return !keys.get(keys.size() - 1).activatesAt().isAfter(now)
+                || (keys.size() > 1 && overlapPassed(keys.get(1).activatesAt(), now, overlapMs));
+    }
+
+    /**
+     * Generates a current and a next key to begin with, or a new next key once the last one has started signing,
+     * and deletes keys whose overlap has passed.
+     */
+    private Changes plan(List<StoredJwtKey> stored, Instant now) {
+        List<StoredJwtKey> keys = new ArrayList<>(stored);
+        keys.sort(BY_ACTIVATION);
+        if (keys.isEmpty()) {
+            return new Changes(List.of(generateKey(now), generateKey(now.plusMillis(rotationIntervalMs))), List.of());
+        }
+        List<StoredJwtKey> added = new ArrayList<>(1);
+        Instant latest = keys.get(keys.size() - 1).activatesAt();
+        if (!latest.isAfter(now)) {
+            // After a long outage, still publish the new key for the full lead before it signs
+            Instant activatesAt = latest.plusMillis(rotationIntervalMs);
+            Instant earliest = now.plusMillis(publishLeadMs);
+            added.add(generateKey(activatesAt.isBefore(earliest) ? earliest : activatesAt));
+        }
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i + 1 < keys.size(); i++) {
+            if (overlapPassed(keys.get(i + 1).activatesAt(), now, overlapMs)) {
+                removed.add(keys.get(i).kid());
+            }
+        }
+        return new Changes(added, removed);
+    }
+
+    private static boolean overlapPassed(Instant retiredAt, Instant now, long overlapMs) {
+        return !retiredAt.plusMillis(overlapMs).isAfter(now);
+    }
+
+    /**
+     * The key new tokens are signed with.
+     */
+    JwtSigningKey signingKey() {
+        return state.current;
+    }
+
+    /**
+     * The public key for a token's {@code kid}, or {@code null} if it is unknown or its overlap has passed.
+     */
+    PublicKey verificationKey(String kid) {
+        JwtSigningKey key = kid != null ? state.byKid.get(kid) : null;
+        return key != null ? key.publicKey() : null;
+    }
+
+    /**
+     * The public JWKs of every published key: current first, then next, then retired ones newest first.
+     */
+    public List<Map<String, String>> jwks() {
+        return state.jwks;
+    }
+
+    /**
+     * A strong validator for {@link #jwks()}; it changes exactly when the published key set does.
+     */
+    public String jwksEtag() {
+        return state.etag;
+    }
+
+    public long jwksMaxAgeSeconds() {
+        return jwksMaxAgeSeconds;
+    }
+
+    private StoredJwtKey generateKey(Instant activatesAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(keySize);
+            KeyPair keyPair = generator.generateKeyPair();
+            return new StoredJwtKey(JwtSigningKey.of(keyPair).kid(), keyPair, activatesAt);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("RSA is not available on this JVM", e);
+        }
+    }
+
+    private record State(JwtSigningKey current, JwtSigningKey next, int retiredCount,
+                         Map<String, JwtSigningKey> byKid, List<Map<String, String>> jwks, String etag) {
+
+        static State of(List<StoredJwtKey> stored, Instant now, long overlapMs, State previous) {
+            List<StoredJwtKey> keys = new ArrayList<>(stored);
+            keys.sort(BY_ACTIVATION);
+            int current = 0;
+            for (int i = 1; i < keys.size(); i++) {
+                if (!keys.get(i).activatesAt().isAfter(now)) {
+                    current = i;
+                }
+            }
+            List<StoredJwtKey> published = new ArrayList<>(keys.size());
+            published.addAll(keys.subList(current, keys.size()));
+            // Newest retirement first, so the keys most likely to still be seen come early in the set
+            int retired = 0;
+            for (int i = current - 1; i >= 0; i--) {
+                if (!overlapPassed(keys.get(i + 1).activatesAt(), now, overlapMs)) {
+                    published.add(keys.get(i));
+                    retired++;
+                }
+            }
+            Map<String, JwtSigningKey> byKid = new HashMap<>();
+            List<JwtSigningKey> signingKeys = new ArrayList<>(published.size());
+            List<Map<String, String>> jwks = new ArrayList<>(published.size());
+            StringBuilder kids = new StringBuilder();
+            for (StoredJwtKey key : published) {
+                // Reused across refreshes: deriving the kid, header and JWK is not free
+                JwtSigningKey signingKey = previous != null ? previous.byKid.get(key.kid()) : null;
+                if (signingKey == null) {
+                    signingKey = JwtSigningKey.of(key.keyPair());
+                }
+                signingKeys.add(signingKey);
+                byKid.put(signingKey.kid(), signingKey);
+                jwks.add(signingKey.jwk());
+                kids.append(signingKey.kid()).append(',');
+            }
+            return new State(signingKeys.get(0), signingKeys.size() > retired + 1 ? signingKeys.get(1) : null, retired,
+                    Map.copyOf(byKid), List.copyOf(jwks), etag(kids.toString()));
+        }
+
+        private static String etag(String kids) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(kids.getBytes(StandardCharsets.US_ASCII));
+                return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available on this JVM", e);
+            }
+        }
+    }
+}
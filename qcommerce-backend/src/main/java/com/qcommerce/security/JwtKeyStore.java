@@ -0,0 +1,38 @@
+package com.qcommerce.security;
+
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Where the {@link JwtKeyRing} keeps its RS256 keys. Every instance reads the same store, so a token signed by one
+ * verifies on all of them, they all publish the same key set, and keys survive restarts and deploys.
+ */
+public interface JwtKeyStore {
+
+    /**
+     * A stored key pair and the moment it starts signing.
+     */
+    record StoredJwtKey(String kid, KeyPair keyPair, Instant activatesAt) {
+    }
+
+    /**
+     * Keys to add and {@code kid}s to delete.
+     */
+    record Changes(List<StoredJwtKey> added, List<String> removedKids) {
+    }
+
+    /**
+     * @return Every stored key, in no particular order.
+     */
+    List<StoredJwtKey> load();
+
+    /**
+     * Applies what {@code planner} decides from the stored keys, holding a lock shared by every instance so that only
+     * one of them generates each new key.
+     *
+     * @return Every stored key afterwards.
+     */
+    List<StoredJwtKey> update(Function<List<StoredJwtKey>, Changes> planner);
+}
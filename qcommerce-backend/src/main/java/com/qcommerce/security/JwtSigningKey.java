@@ -0,0 +1,60 @@
+package com.qcommerce.security;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One RS256 key pair of the {@link JwtKeyRing}, with everything derived from it computed once: its {@code kid}
+ * (the RFC 7638 JWK thumbprint, so the same key always gets the same id), the encoded JWS header tokens signed with
+ * it start with, and its public JWK as served on {@code /.well-known/jwks.json}.
+ */
+record JwtSigningKey(String kid, PrivateKey privateKey, RSAPublicKey publicKey, byte[] encodedHeader,
+                     Map<String, String> jwk) {
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    static JwtSigningKey of(KeyPair keyPair) {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        String n = BASE64_URL.encodeToString(unsigned(publicKey.getModulus()));
+        String e = BASE64_URL.encodeToString(unsigned(publicKey.getPublicExponent()));
+        // Thumbprint input: the required members only, lexicographic order, no whitespace
+        String kid = BASE64_URL.encodeToString(sha256("{\"e\":\"" + e + "\",\"kty\":\"RSA\",\"n\":\"" + n + "\"}"));
+
+        String header = "{\"alg\":\"RS256\",\"kid\":\"" + kid + "\"}";
+        byte[] encodedHeader = (BASE64_URL.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + ".")
+                .getBytes(StandardCharsets.US_ASCII);
+
+        Map<String, String> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "RSA");
+        jwk.put("use", "sig");
+        jwk.put("alg", "RS256");
+        jwk.put("kid", kid);
+        jwk.put("n", n);
+        jwk.put("e", e);
+        return new JwtSigningKey(kid, keyPair.getPrivate(), publicKey, encodedHeader, Collections.unmodifiableMap(jwk));
+    }
+
+    // JWK integers are big-endian without the sign byte BigInteger adds when the top bit is set
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return bytes.length > 1 && bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private static byte[] sha256(String input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available on this JVM", e);
+        }
+    }
+}
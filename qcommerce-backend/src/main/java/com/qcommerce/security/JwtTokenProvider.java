@@ -1,108 +1,243 @@
 package com.qcommerce.security; // Or your preferred package for security utilities
 
-import com.qcommerce.model.UserEntity;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
-import jakarta.annotation.PostConstruct;
 
 import javax.crypto.SecretKey;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
-
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mints and verifies our access and refresh tokens. Signs with HS256 and the shared {@code jwt.secret}, or, when
+ * {@code jwt.signing.algorithm} is {@code RS256}, with the current key of the {@link JwtKeyRing}, whose public
+ * keys other services can fetch from {@code /.well-known/jwks.json}.
+ */
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String jwtSecretString;
+    private static final String TOKEN_TYPE_CLAIM = "token_type";
+    private static final String ACCESS_TOKEN_TYPE = "access";
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+    private static final String SESSION_ID_CLAIM = "sid";
+    private static final String FAMILY_ID_CLAIM = "fam";
+
+    private final long accessTokenExpirationMs;
+
+    private final long refreshTokenExpirationMs;
 
-    @Value("${jwt.access-token.expiration-ms}")
-    private long accessTokenExpirationMs;
+    private final String jwtIssuer;
 
-    @Value("${jwt.refresh-token.expiration-ms}")
-    private long refreshTokenExpirationMs;
+    // Parsers are immutable and thread-safe, so one instance serves every request.
+    private final JwtParser jwtParser;
 
-    @Value("${jwt.issuer}")
-    private String jwtIssuer;
+    // Mints tokens without the jjwt builder; its output is verified by jwtParser like any other JWS.
+    private final CompactJwtEncoder jwtEncoder;
 
-    private SecretKey jwtSecretKey;
+    private final Timer accessMintTimer;
+    private final Timer refreshMintTimer;
+    private final Timer accessVerifyTimer;
+    private final Timer refreshVerifyTimer;
+
+    /**
+     * HS256 with its timers in a registry of its own, not exported anywhere; for tests and benchmarks.
+     */
+    public JwtTokenProvider(String jwtSecretString, long accessTokenExpirationMs, long refreshTokenExpirationMs,
+                            String jwtIssuer) {
+        this(hmacKey(jwtSecretString), null, accessTokenExpirationMs, refreshTokenExpirationMs, jwtIssuer,
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * RS256 with its timers in a registry of its own, not exported anywhere; for tests and benchmarks.
+     */
+    public JwtTokenProvider(JwtKeyRing keyRing, long accessTokenExpirationMs, long refreshTokenExpirationMs,
+                            String jwtIssuer) {
+        this(null, keyRing, accessTokenExpirationMs, refreshTokenExpirationMs, jwtIssuer, new SimpleMeterRegistry());
+    }
+
+    /**
+     * The key ring only exists with {@code jwt.signing.algorithm: RS256}; without it, {@code jwt.secret} is required.
+     */
+    @Autowired
+    public JwtTokenProvider(@Value("${jwt.secret:}") String jwtSecretString,
+                            @Value("${jwt.access-token.expiration-ms}") long accessTokenExpirationMs,
+                            @Value("${jwt.refresh-token.expiration-ms}") long refreshTokenExpirationMs,
+                            @Value("${jwt.issuer}") String jwtIssuer,
+                            ObjectProvider<JwtKeyRing> keyRing,
+                            MeterRegistry meterRegistry) {
+        this(keyRing.getIfAvailable() == null ? hmacKey(jwtSecretString) : null, keyRing.getIfAvailable(),
+                accessTokenExpirationMs, refreshTokenExpirationMs, jwtIssuer, meterRegistry);
+    }
 
-    @PostConstruct
-    protected void init() {
+    private JwtTokenProvider(SecretKey hmacKey, JwtKeyRing keyRing, long accessTokenExpirationMs,
+                             long refreshTokenExpirationMs, String jwtIssuer, MeterRegistry meterRegistry) {
+        this.accessTokenExpirationMs = accessTokenExpirationMs;
+        this.refreshTokenExpirationMs = refreshTokenExpirationMs;
+        this.jwtIssuer = jwtIssuer;
+        if (keyRing != null) {
+            // Only keys from the ring verify, picked by the token's kid; an HS256 token has no kid and is rejected
+            this.jwtParser = Jwts.parserBuilder()
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        @Override
+                        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                            Key key = keyRing.verificationKey(header.getKeyId());
+                            if (key == null) {
+                                throw new SignatureException("Unknown or expired signing key: " + header.getKeyId());
+                            }
+                            return key;
+                        }
+                    })
+                    .requireIssuer(jwtIssuer)
+                    .build();
+            this.jwtEncoder = new CompactJwtEncoder(keyRing, jwtIssuer);
+        } else {
+            this.jwtParser = Jwts.parserBuilder()
+                    .setSigningKey(hmacKey)
+                    .requireIssuer(jwtIssuer)
+                    .build();
+            this.jwtEncoder = new CompactJwtEncoder(hmacKey, jwtIssuer);
+        }
+        this.accessMintTimer = tokenTimer(meterRegistry, "jwt.mint", "Signing a new token", ACCESS_TOKEN_TYPE);
+        this.refreshMintTimer = tokenTimer(meterRegistry, "jwt.mint", "Signing a new token", REFRESH_TOKEN_TYPE);
+        // Verification cache hits never get here; see VerifiedTokenCache
+        this.accessVerifyTimer = tokenTimer(meterRegistry, "jwt.verify", "Verifying a presented token", ACCESS_TOKEN_TYPE);
+        this.refreshVerifyTimer = tokenTimer(meterRegistry, "jwt.verify", "Verifying a presented token", REFRESH_TOKEN_TYPE);
+    }
+
+    private static SecretKey hmacKey(String jwtSecretString) {
         // Ensure the secret key is strong enough for the chosen algorithm (HS256 requires at least 256 bits)
         // For production, use a securely generated and stored key.
         if (jwtSecretString == null || jwtSecretString.length() < 32) { // 32 bytes = 256 bits
             throw new IllegalArgumentException("JWT secret key must be at least 32 bytes long for HS256.");
         }
-        this.jwtSecretKey = Keys.hmacShaKeyFor(jwtSecretString.getBytes());
-    }
-
-    public String generateAccessToken(UserEntity userEntity) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", userEntity.getId());
-        claims.put("email", userEntity.getEmail());
-        claims.put("roles", userEntity.getRoles().stream().map(role -> role.getName()).collect(Collectors.toList()));
-        // Add any other claims you need
-
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + accessTokenExpirationMs);
-
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(userEntity.getEmail()) // or userEntity.getId().toString()
-                .setIssuer(jwtIssuer)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(jwtSecretKey, SignatureAlgorithm.HS256)
-                .compact();
-    }
-
-    public String generateRefreshToken(UserEntity userEntity) {
-        // Refresh tokens typically have fewer claims, mainly identifying the user for re-authentication.
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", userEntity.getId());
-        // You might add a unique token ID (jti) if you plan to store and manage refresh tokens (e.g., for revocation)
-
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + refreshTokenExpirationMs);
-
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(userEntity.getEmail()) // or userEntity.getId().toString()
-                .setIssuer(jwtIssuer)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(jwtSecretKey, SignatureAlgorithm.HS256)
-                .compact();
-    }
-
-    // You would also add methods here to validate tokens and get claims from tokens
-    // if this provider is also used for token validation in your security filter.
-    // For example:
-    /*
+        return Keys.hmacShaKeyFor(jwtSecretString.getBytes());
+    }
+
+    private static Timer tokenTimer(MeterRegistry meterRegistry, String name, String description, String tokenType) {
+        return Timer.builder(name).description(description).tag("type", tokenType).register(meterRegistry);
+    }
+
+    /**
+     * @param sessionId The refresh-token family the access token belongs to, used to end the session on logout.
+     */
+    public String generateAccessToken(TokenSubject subject, String sessionId) {
+        // Claims: token_type, userId, email, roles, sid, plus jti (the key used by TokenRevocationStore), sub, iss, iat, exp
+        long start = System.nanoTime();
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        String token = jwtEncoder.accessToken(subject, sessionId, newTokenId(),
+                nowSeconds, nowSeconds + accessTokenExpirationMs / 1000);
+        accessMintTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
+    /**
+     * @param familyId The refresh-token family this token continues (see {@code RefreshTokenStore}).
+     * @param jti      The token id; only its hash is stored server-side.
+     */
+    public String generateRefreshToken(TokenSubject subject, String familyId, String jti) {
+        // Refresh tokens carry fewer claims, mainly identifying the user and the family: token_type, userId, fam
+        long start = System.nanoTime();
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        String token = jwtEncoder.refreshToken(subject, familyId, jti,
+                nowSeconds, nowSeconds + refreshTokenExpirationMs / 1000);
+        refreshMintTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
+    public long getRefreshTokenExpirationMs() {
+        return refreshTokenExpirationMs;
+    }
+
+    /**
+     * Verifies the signature, issuer and expiry of an access token and extracts the claims
+     * the security filter needs to build an {@code Authentication} without a database lookup.
+     *
+     * @param token The compact JWS string taken from the Authorization header.
+     * @return The verified claims.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired.
+     */
+    public VerifiedToken parseAccessToken(String token) {
+        Claims claims = accessVerifyTimer.record(() -> getAllClaimsFromToken(token));
+        // Tokens minted before the type claim existed carry none and are access tokens
+        if (REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM))) {
+            throw new UnsupportedJwtException("A refresh token cannot be used as an access token.");
+        }
+        return new VerifiedToken(
+                claims.getId(),
+                claims.get(SESSION_ID_CLAIM, String.class),
+                claims.get("userId", Long.class),
+                claims.get("email", String.class),
+                toAuthorities(claims.get("roles", List.class)),
+                claims.getExpiration().getTime());
+    }
+
+    /**
+     * Verifies a refresh token and extracts what rotation needs.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is invalid, expired or not a refresh token.
+     */
+    public VerifiedRefreshToken parseRefreshToken(String token) {
+        Claims claims = refreshVerifyTimer.record(() -> getAllClaimsFromToken(token));
+        String familyId = claims.get(FAMILY_ID_CLAIM, String.class);
+        if (!REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM)) || familyId == null || claims.getId() == null) {
+            throw new UnsupportedJwtException("Not a refresh token.");
+        }
+        return new VerifiedRefreshToken(
+                claims.getId(),
+                familyId,
+                claims.get("userId", Long.class),
+                claims.getExpiration().getTime());
+    }
+
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(jwtSecretKey).build().parseClaimsJws(token);
+            jwtParser.parseClaimsJws(token);
             return true;
         } catch (Exception ex) {
-            // Log error (e.g., MalformedJwtException, ExpiredJwtException, UnsupportedJwtException, IllegalArgumentException)
-            System.err.println("Invalid JWT token: " + ex.getMessage());
+            // MalformedJwtException, ExpiredJwtException, UnsupportedJwtException, IllegalArgumentException, ...
+            return false;
         }
-        return false;
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(jwtSecretKey).build().parseClaimsJws(token).getBody();
-        return claims.getSubject();
+        return getAllClaimsFromToken(token).getSubject();
     }
 
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(jwtSecretKey).build().parseClaimsJws(token).getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    private static String newTokenId() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static List<GrantedAuthority> toAuthorities(List<?> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (Object role : roles) {
+            authorities.add(new SimpleGrantedAuthority(String.valueOf(role)));
+        }
+        return Collections.unmodifiableList(authorities);
     }
-    */
 }
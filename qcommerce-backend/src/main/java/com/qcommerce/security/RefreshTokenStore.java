@@ -0,0 +1,37 @@
+package com.qcommerce.security;
+
+/**
+ * Tracks refresh-token families for single-use rotation.
+ * <p>
+ * A family starts at login or registration and follows every refresh token derived from it. Only a hash of the
+ * {@code jti} of the family's newest token is kept; presenting any older token from the family means it was
+ * replayed, so the whole family is revoked.
+ */
+public interface RefreshTokenStore {
+
+    enum Outcome {
+        /** The presented token was the current one and has been replaced. */
+        ROTATED,
+        /** The presented token had already been used; the family is now revoked. */
+        REUSED,
+        /** The family does not exist, expired or was revoked. */
+        UNKNOWN
+    }
+
+    record Rotation(Outcome outcome, TokenSubject subject) {
+    }
+
+    void createFamily(String familyId, TokenSubject subject, String jtiHash, long expiresAtMillis);
+
+    /**
+     * Atomically replaces the family's current token hash if {@code presentedJtiHash} matches it.
+     */
+    Rotation rotate(String familyId, String presentedJtiHash, String nextJtiHash, long nextExpiresAtMillis);
+
+    void revokeFamily(String familyId);
+
+    /**
+     * Revokes every family of the user, e.g. after a password change or deactivation.
+     */
+    void revokeAllForUser(Long userId);
+}
@@ -0,0 +1,20 @@
+package com.qcommerce.security;
+
+/**
+ * Denylist of tokens that were revoked before their natural expiry (e.g. on logout), keyed by the {@code jti} claim.
+ * <p>
+ * Implementations only need to remember a revocation until {@code expiresAtMillis}: after that the token is
+ * rejected by its own {@code exp} claim anyway.
+ */
+public interface TokenRevocationStore {
+
+    /**
+     * Revokes the token with the given id until the given expiry instant.
+     */
+    void revoke(String jti, long expiresAtMillis);
+
+    /**
+     * Returns true if the token with the given id has been revoked. Called on every authenticated request.
+     */
+    boolean isRevoked(String jti);
+}
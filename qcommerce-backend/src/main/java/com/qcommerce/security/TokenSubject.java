@@ -0,0 +1,27 @@
+package com.qcommerce.security;
+
+import com.qcommerce.model.RoleEntity;
+import com.qcommerce.model.UserEntity;
+import com.qcommerce.model.UserLoginView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The user facts that go into an access token. Kept with each refresh-token family to identify its user; a refresh
+ * reloads the user and mints from the current facts.
+ */
+public record TokenSubject(Long userId, String email, List<String> roles) {
+
+    public static TokenSubject of(UserEntity userEntity) {
+        List<String> roles = new ArrayList<>(userEntity.getRoles().size());
+        for (RoleEntity role : userEntity.getRoles()) {
+            roles.add(role.getName());
+        }
+        return new TokenSubject(userEntity.getId(), userEntity.getEmail(), List.copyOf(roles));
+    }
+
+    public static TokenSubject of(UserLoginView userLoginView) {
+        return new TokenSubject(userLoginView.id(), userLoginView.email(), List.copyOf(userLoginView.roleNames()));
+    }
+}
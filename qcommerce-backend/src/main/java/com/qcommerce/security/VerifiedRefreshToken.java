@@ -0,0 +1,7 @@
+package com.qcommerce.security;
+
+/**
+ * The claims of a refresh token whose signature and expiry have already been checked.
+ */
+public record VerifiedRefreshToken(String jti, String familyId, Long userId, long expiresAtMillis) {
+}
@@ -0,0 +1,16 @@
+package com.qcommerce.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * The claims of an access token whose signature and expiry have already been checked.
+ * Instances are immutable so they can be shared between requests by {@link VerifiedTokenCache}.
+ */
+public record VerifiedToken(String jti, String sessionId, Long userId, String email, List<GrantedAuthority> authorities, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
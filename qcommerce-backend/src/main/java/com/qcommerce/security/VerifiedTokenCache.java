@@ -0,0 +1,130 @@
+package com.qcommerce.security;
+
+import com.qcommerce.util.ObjectPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded cache of access tokens that have already passed signature verification.
+ * <p>
+ * Clients typically replay the same access token for its whole lifetime, so verifying it once and
+ * remembering the result lets later requests skip the HMAC check and the JSON claim parse.
+ * Entries are keyed by a SHA-256 digest of the token (the raw token is never retained) and are
+ * dropped once the token's {@code exp} has passed.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    // Pooled rather than thread-local: with virtual threads each request runs on a new thread
+    private static final ObjectPool<MessageDigest> SHA_256 = ObjectPool.perCore(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available on this JVM", e);
+        }
+    });
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final int maxSize;
+    private final Map<TokenKey, VerifiedToken> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache(JwtTokenProvider jwtTokenProvider,
+                              @Value("${jwt.verified-token-cache.max-size:10000}") int maxSize) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+    }
+
+    /**
+     * Returns the verified claims for the token, verifying it only if it is not already cached.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is not cached and fails verification.
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        TokenKey key = TokenKey.of(token);
+        VerifiedToken cached = entries.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                hits.increment();
+                return cached;
+            }
+            entries.remove(key, cached);
+        }
+
+        misses.increment();
+        VerifiedToken verified = jwtTokenProvider.parseAccessToken(token);
+        if (maxSize > 0) {
+            if (entries.size() >= maxSize) {
+                evict(now);
+            }
+            entries.put(key, verified);
+        }
+        return verified;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Makes room for a new entry: expired tokens go first, and if the cache is still full an
+     * arbitrary tenth of it is dropped. A dropped token is simply verified again on its next use.
+     */
+    private void evict(long now) {
+        entries.values().removeIf(token -> token.isExpired(now));
+        int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<TokenKey> it = entries.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /** First 128 bits of the token's SHA-256 digest. */
+    private record TokenKey(long high, long low) {
+
+        static TokenKey of(String token) {
+            MessageDigest digest = SHA_256.acquire();
+            byte[] hash;
+            try {
+                hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            } finally {
+                SHA_256.release(digest);
+            }
+            return new TokenKey(readLong(hash, 0), readLong(hash, 8));
+        }
+
+        private static long readLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = (value << 8) | (bytes[i] & 0xFF);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.qcommerce.service;
+
+import com.qcommerce.generated.model.Address;
+import com.qcommerce.model.AddressesChangedEvent;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded per-user cache of address lists together with their strong ETag.
+ * <p>
+ * The ETag is a digest of the list content, so it stays valid across restarts and instances, and a repeated
+ * conditional GET is answered from one map lookup. Entries are dropped after every committed write
+ * ({@link AddressesChangedEvent}) and after a TTL, which bounds staleness when another instance did the write.
+ * <p>
+ * Writes also bump a version counter (striped by user id, so memory stays fixed). A list loaded from the database
+ * is only kept if no write happened while it was being loaded, so a slow read can never re-install stale data.
+ * <p>
+ * The cached {@link Address} instances are shared; treat them as read-only.
+ */
+@Component
+public class AddressListCache {
+
+    private static final int VERSION_STRIPES = 1024;
+
+    public record Entry(String etag, List<Address> addresses, long expiresAtNanos) {
+    }
+
+    private final int maxUsers;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public AddressListCache(@Value("${addresses.cache.max-users:10000}") int maxUsers,
+                            @Value("${addresses.cache.ttl-ms:300000}") long ttlMillis) {
+        this.maxUsers = maxUsers;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new ConcurrentHashMap<>(Math.min(maxUsers, 1024));
+    }
+
+    /**
+     * @return The cached list, or {@code null} if it is absent or expired.
+     */
+    public Entry get(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() > 0) {
+            entries.remove(userId, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Read before loading a list from the database and passed back to {@link #put}.
+     */
+    public long version(Long userId) {
+        return versions.get(stripe(userId));
+    }
+
+    /**
+     * Wraps a freshly loaded list in an entry and caches it, unless the user's addresses changed since
+     * {@code version} was read. The entry is returned either way.
+     */
+    public Entry put(Long userId, long version, List<Address> addresses) {
+        Entry entry = new Entry(etagOf(addresses), List.copyOf(addresses), System.nanoTime() + ttlNanos);
+        if (maxUsers <= 0) {
+            return entry;
+        }
+        if (entries.size() >= maxUsers) {
+            evict();
+        }
+        entries.put(userId, entry);
+        // Pairs with onAddressesChanged: bump first, remove second, so one of the two sides drops the entry
+        if (versions.get(stripe(userId)) != version) {
+            entries.remove(userId, entry);
+        }
+        return entry;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAddressesChanged(AddressesChangedEvent event) {
+        versions.incrementAndGet(stripe(event.userId()));
+        entries.remove(event.userId());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Expired entries go first; if the cache is still full an arbitrary tenth of it is dropped.
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.expiresAtNanos() > 0);
+        int excess = entries.size() - maxUsers + Math.max(1, maxUsers / 10);
+        Iterator<Long> it = entries.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId ^ (userId >>> 32)) & (VERSION_STRIPES - 1);
+    }
+
+    /**
+     * Strong ETag: the first 128 bits of a SHA-256 over every field of every address, in list order.
+     */
+    static String etagOf(List<Address> addresses) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available on this JVM", e);
+        }
+        for (Address address : addresses) {
+            update(digest, String.valueOf(address.getId()));
+            update(digest, address.getType());
+            update(digest, address.getLine1());
+            update(digest, address.getLine2().orElse(null));
+            update(digest, address.getCity());
+            update(digest, address.getState());
+            update(digest, address.getCountry());
+            update(digest, address.getZip());
+            update(digest, address.getPhone().orElse(null));
+        }
+        byte[] hash = digest.digest();
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+    }
+
+    // Length-prefixed so ("ab", "c") and ("a", "bc") digest differently; null is distinct from ""
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0xFF);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+}
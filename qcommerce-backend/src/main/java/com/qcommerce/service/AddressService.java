@@ -0,0 +1,123 @@
+package com.qcommerce.service;
+
+import com.qcommerce.exception.ResourceNotFoundException;
+import com.qcommerce.generated.model.Address;
+import com.qcommerce.generated.model.AddressInput;
+import com.qcommerce.mapper.AddressMapper;
+import com.qcommerce.model.AddressEntity;
+import com.qcommerce.model.AddressesChangedEvent;
+import com.qcommerce.repository.AddressStore;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Address book of the authenticated user. Reads go through {@link AddressListCache}; every write publishes an
+ * {@link AddressesChangedEvent}, which drops the user's cached list once the transaction commits and pins the
+ * user's next reads to the primary for the {@link ReadYourWrites} window.
+ * <p>
+ * Reads are not {@code @Transactional}: a cache hit, and with it every conditional GET answered 304, is served
+ * without a transaction or a pooled connection. Only a miss opens a read-only transaction.
+ */
+@Service
+public class AddressService {
+
+    private final AddressStore addressStore;
+    private final AddressMapper addressMapper;
+    private final AddressListCache addressListCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadYourWrites readYourWrites;
+    // Null without a database (the in-memory profile), where there is no transaction to open
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AddressService(AddressStore addressStore,
+                          AddressMapper addressMapper,
+                          AddressListCache addressListCache,
+                          ApplicationEventPublisher eventPublisher,
+                          ReadYourWrites readYourWrites,
+                          ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.addressStore = addressStore;
+        this.addressMapper = addressMapper;
+        this.addressListCache = addressListCache;
+        this.eventPublisher = eventPublisher;
+        this.readYourWrites = readYourWrites;
+        PlatformTransactionManager manager = transactionManager.getIfAvailable();
+        if (manager != null) {
+            this.readOnlyTransaction = new TransactionTemplate(manager);
+            this.readOnlyTransaction.setReadOnly(true);
+        } else {
+            this.readOnlyTransaction = null;
+        }
+    }
+
+    /**
+     * @return The user's addresses with their ETag, from the cache when possible.
+     */
+    public AddressListCache.Entry listAddresses(Long userId) {
+        AddressListCache.Entry cached = addressListCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = addressListCache.version(userId);
+        return addressListCache.put(userId, version, addressMapper.toAddresses(readOnly(() ->
+                readYourWrites.read(ReadYourWrites.addressesKey(userId), () -> addressStore.findByUserIdOrderByIdAsc(userId)))));
+    }
+
+    public Address getAddress(Long userId, Long addressId) {
+        AddressListCache.Entry cached = addressListCache.get(userId);
+        if (cached != null) {
+            for (Address address : cached.addresses()) {
+                if (address.getId().equals(addressId)) {
+                    return address;
+                }
+            }
+            throw notFound(addressId);
+        }
+        return readOnly(() -> readYourWrites.read(ReadYourWrites.addressesKey(userId),
+                        () -> addressStore.findByIdAndUserId(addressId, userId)))
+                .map(addressMapper::toAddress)
+                .orElseThrow(() -> notFound(addressId));
+    }
+
+    @Transactional
+    public Address addAddress(Long userId, AddressInput addressInput) {
+        AddressEntity addressEntity = new AddressEntity();
+        addressMapper.updateEntity(addressInput, addressEntity);
+        addressEntity.setUserId(userId);
+        AddressEntity saved = addressStore.insert(addressEntity);
+        eventPublisher.publishEvent(new AddressesChangedEvent(userId));
+        return addressMapper.toAddress(saved);
+    }
+
+    @Transactional
+    public Address updateAddress(Long userId, Long addressId, AddressInput addressInput) {
+        AddressEntity addressEntity = addressStore.findByIdAndUserId(addressId, userId)
+                .orElseThrow(() -> notFound(addressId));
+        addressMapper.updateEntity(addressInput, addressEntity);
+        AddressEntity updated = addressStore.update(addressEntity);
+        eventPublisher.publishEvent(new AddressesChangedEvent(userId));
+        return addressMapper.toAddress(updated);
+    }
+
+    @Transactional
+    public void deleteAddress(Long userId, Long addressId) {
+        if (addressStore.deleteByIdAndUserId(addressId, userId) == 0) {
+            throw notFound(addressId);
+        }
+        eventPublisher.publishEvent(new AddressesChangedEvent(userId));
+    }
+
+    private <T> T readOnly(Supplier<T> query) {
+        return readOnlyTransaction != null ? readOnlyTransaction.execute(status -> query.get()) : query.get();
+    }
+
+    private static ResourceNotFoundException notFound(Long addressId) {
+        return new ResourceNotFoundException("Address " + addressId + " not found.");
+    }
+}
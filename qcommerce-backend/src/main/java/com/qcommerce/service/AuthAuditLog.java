@@ -0,0 +1,211 @@
+package com.qcommerce.service;
+
+import com.qcommerce.model.AuthAuditEvent;
+import com.qcommerce.util.MpscRingBuffer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of registrations, logins (successful or not) and logouts, for fraud review.
+ * <p>
+ * Recording must not slow down the request: {@link #record} builds the event and offers it to a bounded lock-free
+ * ring buffer, nothing more. A single background thread drains the buffer in batches of up to
+ * {@code audit.batch-size} and appends each batch with one write to the current NDJSON segment in
+ * {@code audit.directory} (see {@link AuthAuditSegmentWriter}). When the buffer is full, {@code audit.when-full}
+ * decides:
+ * <ul>
+ *   <li>{@code DROP} (default): the event is dropped and counted in {@code audit.events{result="dropped"}}; login
+ *       latency never depends on the disk;</li>
+ *   <li>{@code BLOCK}: the request thread waits for room for up to {@code audit.block-timeout-ms}, then drops.</li>
+ * </ul>
+ * On shutdown the writer keeps draining until no {@link #record} call that saw the log running is still offering, so
+ * every event is either written or counted; the segment is closed once the writer has finished. Events recorded while
+ * the log is not running (disabled, or before start / after stop) are counted as dropped too.
+ */
+@Component
+public class AuthAuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthAuditLog.class);
+
+    public enum WhenFull {
+        DROP, BLOCK
+    }
+
+    private final boolean enabled;
+    private final MpscRingBuffer<AuthAuditEvent> buffer;
+    private final WhenFull whenFull;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final AuthAuditSegmentWriter segmentWriter;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile boolean running;
+    // record() calls between their running check and their offer; stop() waits for them to land
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private Thread writer;
+
+    public AuthAuditLog(@Value("${audit.enabled:true}") boolean enabled,
+                        @Value("${audit.buffer-capacity:65536}") int bufferCapacity,
+                        @Value("${audit.when-full:DROP}") WhenFull whenFull,
+                        @Value("${audit.block-timeout-ms:100}") long blockTimeoutMs,
+                        @Value("${audit.batch-size:1000}") int batchSize,
+                        @Value("${audit.flush-interval-ms:200}") long flushIntervalMs,
+                        @Value("${audit.directory:audit}") String directory,
+                        @Value("${audit.segment-max-bytes:67108864}") long segmentMaxBytes,
+                        @Value("${audit.fsync:false}") boolean fsync,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.buffer = new MpscRingBuffer<>(bufferCapacity);
+        this.whenFull = whenFull;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.segmentWriter = new AuthAuditSegmentWriter(Path.of(directory), segmentMaxBytes, fsync);
+        this.written = eventCounter(meterRegistry, "written");
+        this.dropped = eventCounter(meterRegistry, "dropped");
+        this.failed = eventCounter(meterRegistry, "failed");
+        Gauge.builder("audit.buffer.size", buffer, MpscRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("audit.events").description("Audit events by what became of them")
+                .tag("result", result).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Auth audit log is disabled.");
+            return;
+        }
+        running = true;
+        // A platform thread of its own: it parks between batches and must not count against any request limit
+        writer = new Thread(this::writeUntilStopped, "auth-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records an event for the current request. Costs an allocation and a compare-and-set; never touches the disk.
+     *
+     * @param outcome {@link AuthAuditEvent#SUCCESS} or a short failure reason.
+     */
+    public void record(AuthAuditEvent.Action action, String outcome, Long userId, String email) {
+        // Announced before the running check, so stop() either sees this call or this call sees the stop
+        inFlight.incrementAndGet();
+        try {
+            if (!running) {
+                dropped.increment();
+                return;
+            }
+            AuthAuditEvent event = new AuthAuditEvent(System.currentTimeMillis(), action, outcome, userId, email,
+                    clientIp());
+            if (buffer.offer(event) || (whenFull == WhenFull.BLOCK && offerBlocking(event))) {
+                return;
+            }
+            dropped.increment();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private boolean offerBlocking(AuthAuditEvent event) {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        LockSupport.unpark(writer); // the writer may be parked for a whole flush interval
+        do {
+            LockSupport.parkNanos(50_000);
+            if (buffer.offer(event)) {
+                return true;
+            }
+        } while (running && deadline - System.nanoTime() > 0);
+        return false;
+    }
+
+    private static String clientIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest().getRemoteAddr() : null;
+    }
+
+    private void writeUntilStopped() {
+        List<AuthAuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (buffer.drain(batch::add, batchSize) == 0) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            } else {
+                write(batch);
+            }
+        }
+        // Stopped: keep draining while calls that saw the log running may still offer (a BLOCK caller needs the room)
+        while (inFlight.get() > 0) {
+            if (buffer.drain(batch::add, batchSize) == 0) {
+                LockSupport.parkNanos(50_000);
+            } else {
+                write(batch);
+            }
+        }
+        // No call can offer any more, so this empties the buffer for good
+        while (buffer.drain(batch::add, batchSize) > 0) {
+            write(batch);
+        }
+    }
+
+    private void write(List<AuthAuditEvent> batch) {
+        try {
+            segmentWriter.append(batch);
+            written.increment(batch.size());
+        } catch (IOException | RuntimeException e) {
+            failed.increment(batch.size());
+            logger.error("Could not write {} auth audit events: {}", batch.size(), e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (writer.isAlive()) {
+            // Closing now would fail the batch being written; the daemon thread finishes it if the JVM lets it
+            logger.warn("Auth audit writer still busy after 10s; leaving the segment open, {} events unwritten.",
+                    buffer.size());
+            return;
+        }
+        try {
+            segmentWriter.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the auth audit segment: {}", e.getMessage());
+        }
+        logger.info("Auth audit log flushed: {} events written, {} dropped, {} failed.",
+                (long) written.count(), (long) dropped.count(), (long) failed.count());
+    }
+}
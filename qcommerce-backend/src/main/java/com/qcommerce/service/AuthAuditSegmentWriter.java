@@ -0,0 +1,117 @@
+package com.qcommerce.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.qcommerce.model.AuthAuditEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Appends audit events as NDJSON to segment files {@code auth-audit-<UTC start time>-<n>.ndjson} in one directory.
+ * A segment is created new, only ever appended to, and closed for good once it would grow past
+ * {@code segmentMaxBytes}; a batch is never split across segments. Used by the {@link AuthAuditLog} writer thread
+ * only.
+ */
+final class AuthAuditSegmentWriter implements Closeable {
+
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final boolean fsync;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ByteArrayOutputStream encoded = new ByteArrayOutputStream(64 * 1024);
+
+    private FileChannel segment;
+    private long segmentBytes;
+    private int segmentNumber;
+
+    AuthAuditSegmentWriter(Path directory, long segmentMaxBytes, boolean fsync) {
+        this.directory = directory;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Writes the batch with one write call; with {@code fsync} it is on disk when this returns.
+     */
+    void append(List<AuthAuditEvent> events) throws IOException {
+        encoded.reset();
+        try (JsonGenerator json = jsonFactory.createGenerator(encoded)) {
+            json.setRootValueSeparator(null);
+            for (AuthAuditEvent event : events) {
+                writeEvent(json, event);
+                json.writeRaw('\n');
+            }
+        }
+        if (segment == null || (segmentBytes > 0 && segmentBytes + encoded.size() > segmentMaxBytes)) {
+            roll();
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(encoded.toByteArray());
+        while (bytes.hasRemaining()) {
+            segment.write(bytes);
+        }
+        segmentBytes += encoded.size();
+        if (fsync) {
+            segment.force(false);
+        }
+    }
+
+    private static void writeEvent(JsonGenerator json, AuthAuditEvent event) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("time", Instant.ofEpochMilli(event.timestampMillis()).toString());
+        json.writeStringField("action", event.action().name());
+        json.writeStringField("outcome", event.outcome());
+        if (event.userId() != null) {
+            json.writeNumberField("userId", event.userId());
+        }
+        if (event.email() != null) {
+            json.writeStringField("email", event.email());
+        }
+        if (event.clientIp() != null) {
+            json.writeStringField("clientIp", event.clientIp());
+        }
+        json.writeEndObject();
+    }
+
+    private void roll() throws IOException {
+        close();
+        Files.createDirectories(directory);
+        String startedAt = SEGMENT_TIME.format(Instant.now());
+        while (segment == null) {
+            Path file = directory.resolve("auth-audit-" + startedAt + "-" + (++segmentNumber) + ".ndjson");
+            try {
+                segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            } catch (FileAlreadyExistsException e) {
+                // Another instance writing to the same directory started a segment in the same second
+            }
+        }
+        segmentBytes = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            try {
+                segment.force(false);
+            } finally {
+                segment.close();
+                segment = null;
+            }
+        }
+    }
+}
@@ -2,68 +2,148 @@ package com.qcommerce.service;
 
 import com.qcommerce.generated.model.AuthResponse;
 import com.qcommerce.generated.model.UserRegistration;
-import com.qcommerce.generated.model.RoleReference;
 import com.qcommerce.generated.model.LoginRequest; 
+import com.qcommerce.generated.model.RefreshTokenRequest;
+import com.qcommerce.generated.model.TokenPair;
+import com.qcommerce.mapper.UserMapper;
+import com.qcommerce.model.AuthAuditEvent;
 import com.qcommerce.model.UserEntity;
+import com.qcommerce.model.UserLoginView;
 import com.qcommerce.model.RoleEntity;
-import com.qcommerce.repository.UserRepository;
-import com.qcommerce.repository.RoleRepository;
+import com.qcommerce.repository.UserStore;
+import com.qcommerce.security.AuthenticatedUser;
 import com.qcommerce.security.JwtTokenProvider; 
+import com.qcommerce.security.PasswordHashingExecutor;
+import com.qcommerce.security.TokenRevocationStore;
+import com.qcommerce.security.TokenSubject;
+import com.qcommerce.security.VerifiedToken;
 
-import com.qcommerce.exception.InvalidInputException;
 import com.qcommerce.exception.UserAlreadyExistsException;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.exception.ConstraintViolationException;
 import org.openapitools.jackson.nullable.JsonNullable;
 import org.slf4j.Logger; // Import Logger
 import org.slf4j.LoggerFactory; // Import LoggerFactory
 import org.springframework.beans.factory.annotation.Autowired; 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException; 
 import org.springframework.http.HttpStatus; 
 
 import java.util.HashSet;
-import java.util.List; 
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class AuthService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
 
-    private final UserRepository userRepository; 
-    private final RoleRepository roleRepository; 
-    private final PasswordEncoder passwordEncoder;
+    private final UserStore userStore;
+    private final RoleRegistry roleRegistry;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     private final JwtTokenProvider jwtTokenProvider; 
+    private final TokenRevocationStore tokenRevocationStore;
+    private final RefreshTokenService refreshTokenService;
+    private final RegisteredIdentityFilter registeredIdentityFilter;
+    private final UserMapper userMapper;
+    private final ReadYourWrites readYourWrites;
+    private final AuthAuditLog authAuditLog;
+
+    // auth.phase{operation, phase}: where registration and login time goes
+    private final Timer registerLookupTimer;
+    private final Timer registerHashTimer;
+    private final Timer registerInsertTimer;
+    private final Timer loginLookupTimer;
+    private final Timer loginHashTimer;
+    private final Timer tokenMintTimer;
+    private final Timer responseMappingTimer;
+    private final Counter loginSuccess;
+    private final Counter loginInvalidCredentials;
+    private final Counter loginInactive;
+    private final Counter logouts;
 
     @Autowired
-    public AuthService(UserRepository userRepository, 
-                       RoleRepository roleRepository, 
-                       PasswordEncoder passwordEncoder,
-                       JwtTokenProvider jwtTokenProvider) { 
-        this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
-        this.passwordEncoder = passwordEncoder;
+    public AuthService(UserStore userStore,
+                       RoleRegistry roleRegistry,
+                       PasswordHashingExecutor passwordHashingExecutor,
+                       JwtTokenProvider jwtTokenProvider,
+                       TokenRevocationStore tokenRevocationStore,
+                       RefreshTokenService refreshTokenService,
+                       RegisteredIdentityFilter registeredIdentityFilter,
+                       UserMapper userMapper,
+                       ReadYourWrites readYourWrites,
+                       AuthAuditLog authAuditLog,
+                       MeterRegistry meterRegistry) { 
+        this.userStore = userStore;
+        this.roleRegistry = roleRegistry;
+        this.passwordHashingExecutor = passwordHashingExecutor;
         this.jwtTokenProvider = jwtTokenProvider; 
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.refreshTokenService = refreshTokenService;
+        this.registeredIdentityFilter = registeredIdentityFilter;
+        this.userMapper = userMapper;
+        this.readYourWrites = readYourWrites;
+        this.authAuditLog = authAuditLog;
+        this.registerLookupTimer = phaseTimer(meterRegistry, "register", "db_lookup");
+        this.registerHashTimer = phaseTimer(meterRegistry, "register", "password_hash");
+        this.registerInsertTimer = phaseTimer(meterRegistry, "register", "db_insert");
+        this.loginLookupTimer = phaseTimer(meterRegistry, "login", "db_lookup");
+        this.loginHashTimer = phaseTimer(meterRegistry, "login", "password_hash");
+        // Shared by login and registration, which both end in createAuthResponse
+        this.tokenMintTimer = phaseTimer(meterRegistry, "issue_tokens", "token_mint");
+        this.responseMappingTimer = phaseTimer(meterRegistry, "issue_tokens", "response_mapping");
+        this.loginSuccess = loginCounter(meterRegistry, "success");
+        this.loginInvalidCredentials = loginCounter(meterRegistry, "invalid_credentials");
+        this.loginInactive = loginCounter(meterRegistry, "inactive");
+        this.logouts = Counter.builder("auth.logouts").description("Sessions ended by logout").register(meterRegistry);
+    }
+
+    private static Timer phaseTimer(MeterRegistry meterRegistry, String operation, String phase) {
+        return Timer.builder("auth.phase")
+                .description("Time spent in each phase of registration and login")
+                .tag("operation", operation)
+                .tag("phase", phase)
+                .register(meterRegistry);
     }
 
-    @Transactional
+    private static Counter loginCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.logins").description("Login attempts by outcome").tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a new user with a single insert. Duplicate emails and phone numbers are caught by the unique
+     * constraints; the registered-identity Bloom filter lets most duplicates be rejected before the password is hashed.
+     * <p>
+     * Not {@code @Transactional}, so no connection is held while the password waits for the hashing pool and is
+     * hashed: the existence checks and the insert ({@code saveAndFlush}) each run in a short transaction of their own.
+     */
     public AuthResponse registerUser(UserRegistration registration) {
-        if (userRepository.findByEmail(registration.getEmail().toLowerCase()).isPresent()) {
-            throw new UserAlreadyExistsException("User with email " + registration.getEmail() + " already exists.");
+        String email = registration.getEmail().toLowerCase();
+        String phone = registration.getPhone().isPresent() ? registration.getPhone().get() : null;
+        if (registeredIdentityFilter.mightBeRegistered(email, phone)) {
+            // Rare for a genuinely new user (Bloom false positive); confirms an actual duplicate cheaply
+            registerLookupTimer.record(() -> {
+                if (userStore.existsByEmail(email)) {
+                    throw registrationRejected(email, "User with email " + registration.getEmail() + " already exists.");
+                }
+                if (phone != null && userStore.existsByPhone(phone)) {
+                    throw registrationRejected(email, "User with phone " + phone + " already exists.");
+                }
+            });
         }
 
         UserEntity newUserEntity = new UserEntity();
-        newUserEntity.setEmail(registration.getEmail().toLowerCase());
-        if (registration.getPhone().isPresent()) {
-             newUserEntity.setPhone(registration.getPhone().get());
-        }
-        newUserEntity.setPasswordHash(passwordEncoder.encode(registration.getPassword()));
+        newUserEntity.setEmail(email);
+        newUserEntity.setPhone(phone);
+        newUserEntity.setPasswordHash(registerHashTimer.record(() -> passwordHashingExecutor.encode(registration.getPassword())));
         newUserEntity.setActive(true); 
 
         if (registration.getLocale().isPresent() && registration.getLocale().get() != null) {
@@ -72,55 +152,137 @@ public class AuthService {
         
         Set<RoleEntity> assignedRoles = new HashSet<>();
         if (registration.getRoles().isPresent() && registration.getRoles().get() != null && !registration.getRoles().get().isEmpty()) {
-            List<RoleReference> roleReferences = registration.getRoles().get(); 
-            for (int i = 0; i < roleReferences.size(); i++) {
-                RoleReference roleRef = roleReferences.get(i);
-                final int currentIndex = i; 
-                if (roleRef.getId() == null) {
-                    throw new InvalidInputException("Role ID cannot be null.", "roles[" + currentIndex + "].id");
-                }
-                RoleEntity role = roleRepository.findById(roleRef.getId()) 
-                    .orElseThrow(() -> new InvalidInputException("Invalid role ID: " + roleRef.getId(),
-                                                                "roles[" + currentIndex + "].id"));
-                assignedRoles.add(role);
-            }
+            assignedRoles.addAll(roleRegistry.resolve(registration.getRoles().get()));
         }
         newUserEntity.setRoles(assignedRoles);
 
-        UserEntity savedUserEntity = userRepository.save(newUserEntity);
-        return createAuthResponse(savedUserEntity); 
+        UserEntity savedUserEntity;
+        try {
+            savedUserEntity = registerInsertTimer.record(() -> userStore.insert(newUserEntity));
+        } catch (DataIntegrityViolationException ex) {
+            String duplicateField = duplicateField(ex);
+            if (duplicateField == null) {
+                throw ex;
+            }
+            String value = "phone".equals(duplicateField) ? phone : registration.getEmail();
+            throw registrationRejected(email, "User with " + duplicateField + " " + value + " already exists.");
+        }
+        registeredIdentityFilter.add(email, phone);
+        // A login right after registering must not miss the new user on a lagging replica
+        readYourWrites.recordWrite(ReadYourWrites.userKey(email));
+        AuthResponse authResponse = createAuthResponse(UserLoginView.of(savedUserEntity));
+        authAuditLog.record(AuthAuditEvent.Action.REGISTER, AuthAuditEvent.SUCCESS, savedUserEntity.getId(), email);
+        return authResponse;
+    }
+
+    private UserAlreadyExistsException registrationRejected(String email, String message) {
+        authAuditLog.record(AuthAuditEvent.Action.REGISTER, "duplicate", null, email);
+        return new UserAlreadyExistsException(message);
     }
 
-    @Transactional(readOnly = true) 
+    /**
+     * Works out which unique constraint a failed insert hit, from the constraint name or the
+     * PostgreSQL detail message ("Key (email)=(...) already exists.").
+     */
+    private static String duplicateField(DataIntegrityViolationException ex) {
+        String constraint = ex.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName() : null;
+        String message = ex.getMostSpecificCause().getMessage();
+        if (containsIgnoreCase(constraint, "phone") || containsIgnoreCase(message, "(phone)")) {
+            return "phone";
+        }
+        if (containsIgnoreCase(constraint, "email") || containsIgnoreCase(message, "(email)")
+                || containsIgnoreCase(message, "(lower(email")) {
+            return "email";
+        }
+        return null;
+    }
+
+    private static boolean containsIgnoreCase(String text, String fragment) {
+        return text != null && text.toLowerCase().contains(fragment);
+    }
+
+    /**
+     * Authenticates a user by email and password.
+     * Reads a flat projection in one statement (from a read replica when configured) and runs outside any
+     * transaction, so no connection is held while the password hash is checked.
+     */
     public AuthResponse loginUser(LoginRequest loginRequest) {
-        UserEntity userEntity = userRepository.findByEmail(loginRequest.getEmail().toLowerCase())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid email or password."));
+        String email = loginRequest.getEmail().toLowerCase();
+        Optional<UserLoginView> found = loginLookupTimer.record(
+                () -> readYourWrites.read(ReadYourWrites.userKey(email), () -> userStore.findLoginViewByEmail(email)));
+        if (found.isEmpty()) {
+            loginInvalidCredentials.increment();
+            authAuditLog.record(AuthAuditEvent.Action.LOGIN, "unknown_email", null, email);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid email or password.");
+        }
+        UserLoginView user = found.get();
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), userEntity.getPasswordHash())) {
+        if (!loginHashTimer.record(() -> passwordHashingExecutor.matches(loginRequest.getPassword(), user.passwordHash()))) {
+            loginInvalidCredentials.increment();
+            authAuditLog.record(AuthAuditEvent.Action.LOGIN, "wrong_password", user.id(), email);
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid email or password.");
         }
 
-        if (!userEntity.isActive()) {
+        if (!user.active()) {
+            loginInactive.increment();
+            authAuditLog.record(AuthAuditEvent.Action.LOGIN, "inactive", user.id(), email);
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User account is inactive.");
         }
-        return createAuthResponse(userEntity);
+        rehashIfNeeded(user.id(), loginRequest.getPassword(), user.passwordHash());
+        loginSuccess.increment();
+        AuthResponse authResponse = createAuthResponse(user);
+        authAuditLog.record(AuthAuditEvent.Action.LOGIN, AuthAuditEvent.SUCCESS, user.id(), email);
+        return authResponse;
+    }
+
+    /**
+     * Transparently moves a stored hash to the current algorithm and calibrated cost.
+     * Only possible right after a successful login, while the raw password is at hand.
+     * Failures are logged and ignored: the old hash remains valid and the next login retries.
+     */
+    private void rehashIfNeeded(Long userId, String rawPassword, String storedHash) {
+        if (!passwordHashingExecutor.upgradeEncoding(storedHash)) {
+            return;
+        }
+        try {
+            userStore.updatePasswordHash(userId, passwordHashingExecutor.encode(rawPassword));
+            logger.debug("Rehashed password of user {} with the current encoder settings.", userId);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not rehash password of user {}: {}", userId, ex.getMessage());
+        }
+    }
+
+    /**
+     * Exchanges a refresh token for a new access/refresh pair (single-use rotation).
+     * Unlike login, this needs no password hash, only a primary-key lookup to re-check status and roles.
+     */
+    public TokenPair refreshToken(RefreshTokenRequest refreshTokenRequest) {
+        return refreshTokenService.rotate(refreshTokenRequest.getRefreshToken());
     }
 
     /**
      * Handles user logout.
-     * For stateless JWTs, the primary action is for the client to discard the token.
-     * This method can be extended to add the token to a denylist if such a mechanism is implemented.
+     * The access token presented with the request is added to the revocation denylist until it expires,
+     * so it is rejected by {@code JwtAuthenticationFilter} from now on, and its refresh-token family is
+     * revoked so the session cannot be refreshed either. Clients should also discard their tokens.
      * It also clears the Spring Security context.
      */
     public void logoutUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated() && !"anonymousUser".equals(authentication.getPrincipal())) {
             logger.info("User {} logging out.", authentication.getName());
-            // If you implement a token denylist (e.g., using Redis):
-            // String token = extractTokenFromRequest(request); // You'd need HttpServletRequest here or from SecurityContext
-            // if (token != null) {
-            //     tokenDenylistService.addToDenylist(token, jwtTokenProvider.getExpirationDateFromToken(token));
-            // }
+            logouts.increment();
+            if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+                authAuditLog.record(AuthAuditEvent.Action.LOGOUT, AuthAuditEvent.SUCCESS, principal.userId(), principal.email());
+            }
+            // The bearer filter keeps the verified token as the credentials of the Authentication
+            if (authentication.getCredentials() instanceof VerifiedToken token) {
+                tokenRevocationStore.revoke(token.jti(), token.expiresAtMillis());
+                if (token.sessionId() != null) {
+                    refreshTokenService.revokeFamily(token.sessionId());
+                }
+            }
         } else {
             logger.info("Logout called by an unauthenticated or anonymous user.");
         }
@@ -128,48 +290,24 @@ public class AuthService {
     }
 
 
-    private AuthResponse createAuthResponse(UserEntity userEntity) {
-        com.qcommerce.generated.model.User responseUser = new com.qcommerce.generated.model.User();
-        responseUser.setId(userEntity.getId()); 
-        responseUser.setEmail(userEntity.getEmail());
-        if (userEntity.getPhone() != null) {
-            responseUser.setPhone(JsonNullable.of(userEntity.getPhone()));
-        }
-        if (userEntity.getLocale() != null) {
-            responseUser.setLocale(JsonNullable.of(userEntity.getLocale()));
-        }
-        
-        try {
-            responseUser.getClass().getMethod("setIsActive", Boolean.class);
-            responseUser.setIsActive(userEntity.isActive());
-        } catch (NoSuchMethodException e) {
-            System.err.println("Warning: Generated User model does not have an setIsActive(Boolean) method. " +
-                               "Ensure 'isActive' field is in your OpenAPI User schema and models are regenerated.");
-        }
-
-        if (userEntity.getRoles() != null) {
-            responseUser.setRoles(JsonNullable.of(
-                userEntity.getRoles().stream().map(roleEntity -> {
-                    com.qcommerce.generated.model.Role role = new com.qcommerce.generated.model.Role();
-                    role.setId(roleEntity.getId()); 
-                    role.setName(roleEntity.getName());
-                    return role;
-                }).collect(Collectors.toList())
-            ));
-        }
-
-        String accessToken = jwtTokenProvider.generateAccessToken(userEntity);
-        String refreshToken = jwtTokenProvider.generateRefreshToken(userEntity);
+    private AuthResponse createAuthResponse(UserLoginView user) {
+        long start = System.nanoTime();
+        TokenSubject tokenSubject = TokenSubject.of(user);
+        RefreshTokenService.IssuedRefreshToken refreshToken = refreshTokenService.startFamily(tokenSubject);
+        String accessToken = jwtTokenProvider.generateAccessToken(tokenSubject, refreshToken.familyId());
+        long minted = System.nanoTime();
+        tokenMintTimer.record(minted - start, TimeUnit.NANOSECONDS);
 
         AuthResponse authResponse = new AuthResponse();
         authResponse.setAccessToken(accessToken);
-        authResponse.setRefreshToken(JsonNullable.of(refreshToken));
-        authResponse.setUser(responseUser);
+        authResponse.setRefreshToken(JsonNullable.of(refreshToken.refreshToken()));
+        authResponse.setUser(userMapper.toUser(user));
+        responseMappingTimer.record(System.nanoTime() - minted, TimeUnit.NANOSECONDS);
 
         return authResponse;
     }
 
     public Optional<RoleEntity> findRoleById(Long id) { 
-        return roleRepository.findById(id);
+        return roleRegistry.findById(id);
     }
 }
@@ -0,0 +1,134 @@
+package com.qcommerce.service;
+
+import com.qcommerce.model.AddressesChangedEvent;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes window for read replicas.
+ * <p>
+ * After a write commits, reads of the same data (identified by a key such as {@code user:<email>}) are pinned to
+ * the primary for {@code datasource-routing.read-your-writes-ms}, long enough for the replicas to catch up. Outside
+ * that window reads go wherever the routing data source sends them. Only writes made by this instance are known,
+ * which covers the common case of a client reading right after its own request.
+ * Without replica routing ({@code datasource-routing.enabled} false) every read already goes to the primary, so no
+ * window is recorded and reads run as they are.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final long windowNanos;
+    private final int maxEntries;
+    private final Map<String, Long> recentWrites;
+
+    public ReadYourWrites(@Value("${datasource-routing.enabled:false}") boolean routingEnabled,
+                          @Value("${datasource-routing.read-your-writes-ms:5000}") long windowMillis,
+                          @Value("${datasource-routing.read-your-writes-max-entries:100000}") int maxEntries) {
+        this.windowNanos = routingEnabled ? TimeUnit.MILLISECONDS.toNanos(windowMillis) : 0;
+        this.maxEntries = maxEntries;
+        this.recentWrites = new ConcurrentHashMap<>();
+    }
+
+    public static String userKey(String email) {
+        return "user:" + email;
+    }
+
+    public static String addressesKey(Long userId) {
+        return "addresses:" + userId;
+    }
+
+    /**
+     * Opens the window for {@code key} once the current transaction commits (immediately without one).
+     */
+    public void recordWrite(String key) {
+        if (windowNanos <= 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    open(key);
+                }
+            });
+        } else {
+            open(key);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAddressesChanged(AddressesChangedEvent event) {
+        if (windowNanos > 0) {
+            open(addressesKey(event.userId()));
+        }
+    }
+
+    /**
+     * Runs {@code query}, on the primary if {@code key} was written within the window.
+     * Must wrap the first statement of the transaction, since that is when its connection is chosen.
+     */
+    public <T> T read(String key, Supplier<T> query) {
+        if (windowNanos <= 0 || !isRecent(key) || PINNED.get() != null) {
+            return query.get();
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    /**
+     * Consulted by the routing data source when it hands out a read-only connection.
+     */
+    public boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    boolean isRecent(String key) {
+        Long until = recentWrites.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until > 0) {
+            recentWrites.remove(key, until);
+            return false;
+        }
+        return true;
+    }
+
+    private void open(String key) {
+        if (recentWrites.size() >= maxEntries) {
+            evict();
+        }
+        recentWrites.put(key, System.nanoTime() + windowNanos);
+    }
+
+    /**
+     * Expired windows go first; if the map is still full an arbitrary tenth of it is dropped
+     * (those reads may then reach a replica a little early).
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        recentWrites.values().removeIf(until -> now - until > 0);
+        int excess = recentWrites.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<String> it = recentWrites.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.qcommerce.service;
+
+import com.qcommerce.generated.model.TokenPair;
+import com.qcommerce.model.UserLoginView;
+import com.qcommerce.repository.UserStore;
+import com.qcommerce.security.JwtTokenProvider;
+import com.qcommerce.security.RefreshTokenStore;
+import com.qcommerce.security.TokenSubject;
+import com.qcommerce.security.VerifiedRefreshToken;
+
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens.
+ * A refresh verifies the token signature, swaps the family's stored jti hash and mints a new pair. The user is
+ * re-read by primary key on each refresh, so the new access token carries the current roles and a deactivated
+ * user gets no more tokens; the password hasher is never involved.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final RefreshTokenStore refreshTokenStore;
+    private final UserStore userStore;
+    private final ReadYourWrites readYourWrites;
+
+    public RefreshTokenService(JwtTokenProvider jwtTokenProvider,
+                               RefreshTokenStore refreshTokenStore,
+                               UserStore userStore,
+                               ReadYourWrites readYourWrites) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.refreshTokenStore = refreshTokenStore;
+        this.userStore = userStore;
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * A newly started refresh-token family and its first token.
+     */
+    public record IssuedRefreshToken(String familyId, String refreshToken) {
+    }
+
+    /**
+     * Starts a new token family for a login or registration.
+     */
+    public IssuedRefreshToken startFamily(TokenSubject subject) {
+        String familyId = UUID.randomUUID().toString();
+        String jti = UUID.randomUUID().toString();
+        String refreshToken = jwtTokenProvider.generateRefreshToken(subject, familyId, jti);
+        refreshTokenStore.createFamily(familyId, subject, hash(jti), nextExpiry());
+        return new IssuedRefreshToken(familyId, refreshToken);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access/refresh pair, invalidating the presented token.
+     *
+     * @throws ResponseStatusException 401 if the token is invalid, expired, revoked or was already used, or if the
+     *                                 user no longer exists or was deactivated (the family is then revoked).
+     */
+    public TokenPair rotate(String refreshToken) {
+        VerifiedRefreshToken presented;
+        try {
+            presented = jwtTokenProvider.parseRefreshToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token.");
+        }
+
+        String nextJti = UUID.randomUUID().toString();
+        RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(
+                presented.familyId(), hash(presented.jti()), hash(nextJti), nextExpiry());
+
+        switch (rotation.outcome()) {
+            case ROTATED -> {
+                TokenSubject stored = rotation.subject();
+                Optional<UserLoginView> user = readYourWrites.read(ReadYourWrites.userKey(stored.email()),
+                        () -> userStore.findLoginViewById(stored.userId()));
+                if (user.isEmpty() || !user.get().active()) {
+                    refreshTokenStore.revokeFamily(presented.familyId());
+                    logger.info("Refresh refused for inactive or deleted user {}; token family {} revoked.",
+                            stored.userId(), presented.familyId());
+                    throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User account is inactive.");
+                }
+                TokenSubject subject = TokenSubject.of(user.get());
+                TokenPair tokenPair = new TokenPair();
+                tokenPair.setAccessToken(jwtTokenProvider.generateAccessToken(subject, presented.familyId()));
+                tokenPair.setRefreshToken(jwtTokenProvider.generateRefreshToken(subject, presented.familyId(), nextJti));
+                return tokenPair;
+            }
+            case REUSED -> {
+                logger.warn("Refresh token reuse detected for user {}; token family {} revoked.",
+                        presented.userId(), presented.familyId());
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token.");
+            }
+            default -> throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token.");
+        }
+    }
+
+    public void revokeFamily(String familyId) {
+        refreshTokenStore.revokeFamily(familyId);
+    }
+
+    private long nextExpiry() {
+        return System.currentTimeMillis() + jwtTokenProvider.getRefreshTokenExpirationMs();
+    }
+
+    private static String hash(String jti) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(jti.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available on this JVM", e);
+        }
+    }
+}
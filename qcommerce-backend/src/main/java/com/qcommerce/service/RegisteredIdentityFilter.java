@@ -0,0 +1,93 @@
+package com.qcommerce.service;
+
+import com.qcommerce.repository.UserStore;
+import com.qcommerce.util.BloomFilter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory Bloom filters of registered emails and phone numbers.
+ * <p>
+ * Registration asks this first: a "definitely not registered" answer lets it go straight to the insert, while a
+ * "maybe" is confirmed with an indexed existence query so duplicates are turned away before any password hashing
+ * or insert. The database unique constraints stay the source of truth; this only avoids work.
+ * The filters are warmed from the stored users in the background after startup and consulted only once warm.
+ */
+@Component
+public class RegisteredIdentityFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredIdentityFilter.class);
+
+    private final UserStore userStore;
+    private final long expectedEntries;
+    private final BloomFilter emails;
+    private final BloomFilter phones;
+    private final AtomicLong insertions = new AtomicLong();
+
+    private volatile boolean ready;
+
+    public RegisteredIdentityFilter(UserStore userStore,
+                                    @Value("${registration.identity-filter.expected-entries:1000000}") long expectedEntries,
+                                    @Value("${registration.identity-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.userStore = userStore;
+        this.expectedEntries = expectedEntries;
+        this.emails = BloomFilter.create(expectedEntries, falsePositiveProbability);
+        this.phones = BloomFilter.create(expectedEntries, falsePositiveProbability);
+    }
+
+    // On the application task executor, so it is a virtual thread in virtual-thread mode and counts against its limit
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        warmUp();
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        try {
+            userStore.forEachEmailAndPhone(this::add);
+            ready = true;
+            logger.info("Registered identity filter warmed with {} users in {} ms.",
+                    insertions.get(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            // Registration keeps working without the filter; it just relies on the constraints alone
+            logger.warn("Could not warm the registered identity filter: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns false only if neither the email nor the phone can belong to an existing user.
+     * Before the filter is warm this returns false as well, leaving duplicate detection to the unique constraints.
+     */
+    public boolean mightBeRegistered(String email, String phone) {
+        if (!ready) {
+            return false;
+        }
+        return emails.mightContain(email) || (phone != null && phones.mightContain(phone));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void add(String email, String phone) {
+        if (email != null) {
+            emails.put(email);
+        }
+        if (phone != null) {
+            phones.put(phone);
+        }
+        if (insertions.incrementAndGet() == expectedEntries) {
+            logger.warn("Registered identity filter reached its expected size of {}; its false-positive rate will grow. "
+                    + "Raise registration.identity-filter.expected-entries.", expectedEntries);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.qcommerce.service;
+
+import com.qcommerce.exception.InvalidInputException;
+import com.qcommerce.generated.model.RoleReference;
+import com.qcommerce.model.RoleChangedEvent;
+import com.qcommerce.model.RoleEntity;
+import com.qcommerce.repository.RoleStore;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable, copy-on-write view of the roles table.
+ * <p>
+ * Roles almost never change, so they are loaded once and served from memory: resolving a registration's
+ * {@code roles[]} costs map lookups instead of one {@code findById} per entry. Any change made through JPA
+ * publishes a {@link RoleChangedEvent} that swaps in a freshly loaded snapshot after commit; a periodic reload
+ * picks up changes made by other instances.
+ * <p>
+ * The returned {@link RoleEntity} instances are detached and shared between threads; treat them as read-only.
+ */
+@Component
+public class RoleRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleRegistry.class);
+
+    private final RoleStore roleStore;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    public RoleRegistry(RoleStore roleStore) {
+        this.roleStore = roleStore;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${roles.registry.refresh-interval-ms:300000}",
+               initialDelayString = "${roles.registry.refresh-interval-ms:300000}")
+    public void reload() {
+        List<RoleEntity> roles = roleStore.loadRoles();
+        Map<Long, RoleEntity> byId = new HashMap<>();
+        Map<String, RoleEntity> byName = new HashMap<>();
+        for (RoleEntity role : roles) {
+            byId.put(role.getId(), role);
+            byName.put(role.getName(), role);
+        }
+        snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(byName));
+        logger.debug("Role registry loaded {} roles.", byId.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleChanged(RoleChangedEvent event) {
+        reload();
+    }
+
+    public Optional<RoleEntity> findById(Long id) {
+        return Optional.ofNullable(snapshot.byId().get(id));
+    }
+
+    public Optional<RoleEntity> findByName(String name) {
+        return Optional.ofNullable(snapshot.byName().get(name));
+    }
+
+    public List<RoleEntity> findAll() {
+        return List.copyOf(snapshot.byId().values());
+    }
+
+    /**
+     * Validates and resolves a whole {@code roles[]} array in one pass.
+     *
+     * @throws InvalidInputException naming the first offending element, e.g. {@code roles[2].id}.
+     */
+    public Set<RoleEntity> resolve(List<RoleReference> roleReferences) {
+        Map<Long, RoleEntity> byId = snapshot.byId();
+        Set<RoleEntity> resolved = new LinkedHashSet<>();
+        for (int i = 0; i < roleReferences.size(); i++) {
+            Long roleId = roleReferences.get(i).getId();
+            if (roleId == null) {
+                throw new InvalidInputException("Role ID cannot be null.", "roles[" + i + "].id");
+            }
+            RoleEntity role = byId.get(roleId);
+            if (role == null) {
+                throw new InvalidInputException("Invalid role ID: " + roleId, "roles[" + i + "].id");
+            }
+            resolved.add(role);
+        }
+        return resolved;
+    }
+
+    private record Snapshot(Map<Long, RoleEntity> byId, Map<String, RoleEntity> byName) {
+    }
+}
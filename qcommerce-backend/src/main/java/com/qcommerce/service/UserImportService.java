@@ -0,0 +1,422 @@
+package com.qcommerce.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.qcommerce.model.RoleEntity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk import of users from NDJSON ({@code .ndjson}/{@code .jsonl}) or CSV ({@code .csv}, with a header row).
+ * <p>
+ * The file is streamed line by line and cut into batches; a bounded worker pool hashes the batch's passwords
+ * (or takes pre-hashed BCrypt values as they are) and writes it in its own transaction. Because the users table
+ * uses IDENTITY keys, which rule out Hibernate insert batching, the writes go through JDBC directly:
+ * <ol>
+ *   <li>one {@code nextval} round trip reserves the ids for the whole batch,</li>
+ *   <li>one batched {@code INSERT ... ON CONFLICT DO NOTHING} writes the users; a row that inserts nothing hit a
+ *       unique email/phone and is reported as a duplicate,</li>
+ *   <li>one batched insert writes their {@code user_roles} rows.</li>
+ * </ol>
+ * Memory stays constant: when all workers are busy and the queue is full the reading thread processes the next
+ * batch itself, which throttles reading. Rejected rows are written to an NDJSON error file with their line number.
+ */
+@Service
+@Profile("!in-memory")
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    // Stored hash formats accepted as-is: BCrypt with or without the DelegatingPasswordEncoder prefix
+    private static final Pattern SUPPORTED_HASH = Pattern.compile("^(\\{bcrypt})?\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private static final String RESERVE_IDS_SQL =
+            "select nextval(pg_get_serial_sequence('users', 'id')) from generate_series(1, ?)";
+    private static final String INSERT_USER_SQL =
+            "insert into users (id, email, phone, password_hash, is_active, locale) values (?, ?, ?, ?, ?, ?) "
+            + "on conflict do nothing";
+    private static final String INSERT_USER_ROLE_SQL =
+            "insert into user_roles (user_id, role_id) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final RoleRegistry roleRegistry;
+    private final RegisteredIdentityFilter registeredIdentityFilter;
+    private final ObjectReader recordReader;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int threads;
+
+    public UserImportService(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             PasswordEncoder passwordEncoder,
+                             RoleRegistry roleRegistry,
+                             RegisteredIdentityFilter registeredIdentityFilter,
+                             ObjectMapper objectMapper,
+                             @Value("${user-import.batch-size:1000}") int batchSize,
+                             @Value("${user-import.threads:0}") int threads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.roleRegistry = roleRegistry;
+        this.registeredIdentityFilter = registeredIdentityFilter;
+        this.objectMapper = objectMapper;
+        this.recordReader = objectMapper.readerFor(UserImportRecord.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.batchSize = Math.max(1, batchSize);
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * One user as it appears in the import file. Exactly one of {@code password} and {@code passwordHash} is expected.
+     */
+    public record UserImportRecord(String email,
+                                   String phone,
+                                   String locale,
+                                   String password,
+                                   String passwordHash,
+                                   Boolean active,
+                                   List<String> roles) {
+    }
+
+    public record ImportReport(long rowsRead, long imported, long failed, long elapsedMillis) {
+
+        public double rowsPerSecond() {
+            return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+        }
+    }
+
+    private record Row(long lineNumber, UserImportRecord record) {
+    }
+
+    // A row that passed validation, ready to be written
+    private record PreparedRow(long lineNumber, String email, String phone, String passwordHash, boolean active,
+                               String locale, List<RoleEntity> roles) {
+    }
+
+    /**
+     * Imports every user in {@code file}, writing rejected rows to {@code errorFile}.
+     */
+    public ImportReport importUsers(Path file, Path errorFile) throws IOException {
+        boolean csv = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        Counters counters = new Counters();
+        long start = System.nanoTime();
+
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2), newThreadFactory("user-import-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(newThreadFactory("user-import-progress-"));
+        progress.scheduleAtFixedRate(() -> logProgress(counters, start), 5, 5, TimeUnit.SECONDS);
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             ErrorReport errors = new ErrorReport(Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8), objectMapper)) {
+            String[] csvHeader = null;
+            List<Row> batch = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (csv && csvHeader == null) {
+                    csvHeader = CsvLine.split(line).toArray(String[]::new);
+                    continue;
+                }
+                counters.read.increment();
+                try {
+                    UserImportRecord record = csv ? CsvLine.toRecord(csvHeader, line) : recordReader.readValue(line);
+                    batch.add(new Row(lineNumber, record));
+                } catch (IOException | IllegalArgumentException ex) {
+                    counters.failed.increment();
+                    errors.write(lineNumber, null, "Unparseable row: " + ex.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    List<Row> full = batch;
+                    workers.execute(() -> processBatch(full, counters, errors));
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                List<Row> last = batch;
+                workers.execute(() -> processBatch(last, counters, errors));
+            }
+            workers.shutdown();
+            awaitQuietly(workers);
+        } finally {
+            workers.shutdownNow();
+            progress.shutdownNow();
+        }
+
+        ImportReport report = new ImportReport(counters.read.sum(), counters.imported.sum(), counters.failed.sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("User import finished: {} rows read, {} imported, {} failed in {} ms ({} rows/s).",
+                report.rowsRead(), report.imported(), report.failed(), report.elapsedMillis(),
+                String.format(Locale.ROOT, "%.0f", report.rowsPerSecond()));
+        return report;
+    }
+
+    private void processBatch(List<Row> rows, Counters counters, ErrorReport errors) {
+        List<PreparedRow> prepared = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            try {
+                prepared.add(prepare(row));
+            } catch (IllegalArgumentException ex) {
+                counters.failed.increment();
+                errors.write(row.lineNumber(), row.record().email(), ex.getMessage());
+            }
+        }
+        if (prepared.isEmpty()) {
+            return;
+        }
+        boolean[] inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> writeBatch(prepared));
+        } catch (RuntimeException ex) {
+            // The whole batch was rolled back; every row in it is reported
+            logger.warn("User import batch starting at line {} failed: {}", prepared.get(0).lineNumber(), ex.getMessage());
+            counters.failed.add(prepared.size());
+            for (PreparedRow row : prepared) {
+                errors.write(row.lineNumber(), row.email(), "Batch failed: " + ex.getMessage());
+            }
+            return;
+        }
+        // Reported only once the batch committed, so a rolled-back batch reports each row exactly once
+        int imported = 0;
+        for (int i = 0; i < prepared.size(); i++) {
+            PreparedRow row = prepared.get(i);
+            if (inserted[i]) {
+                imported++;
+                registeredIdentityFilter.add(row.email(), row.phone());
+            } else {
+                errors.write(row.lineNumber(), row.email(), "A user with this email or phone already exists.");
+            }
+        }
+        counters.imported.add(imported);
+        counters.failed.add(prepared.size() - imported);
+    }
+
+    /**
+     * Validates a row and resolves its roles and password hash (the expensive part, hence on the worker pool).
+     */
+    private PreparedRow prepare(Row row) {
+        UserImportRecord record = row.record();
+        if (record.email() == null || record.email().isBlank() || record.email().indexOf('@') < 1) {
+            throw new IllegalArgumentException("Missing or invalid email.");
+        }
+        String passwordHash;
+        if (record.passwordHash() != null && !record.passwordHash().isBlank()) {
+            if (!SUPPORTED_HASH.matcher(record.passwordHash()).matches()) {
+                throw new IllegalArgumentException("Unsupported password hash format; expected BCrypt.");
+            }
+            passwordHash = record.passwordHash();
+        } else if (record.password() != null && !record.password().isEmpty()) {
+            passwordHash = passwordEncoder.encode(record.password());
+        } else {
+            throw new IllegalArgumentException("Either password or passwordHash is required.");
+        }
+        // Keyed by id: a role listed twice would otherwise fail the whole batch on the user_roles primary key
+        Map<Long, RoleEntity> roles = new LinkedHashMap<>();
+        if (record.roles() != null) {
+            for (String roleName : record.roles()) {
+                Optional<RoleEntity> role = roleRegistry.findByName(roleName.trim());
+                RoleEntity resolved = role.orElseThrow(() -> new IllegalArgumentException("Unknown role: " + roleName));
+                roles.putIfAbsent(resolved.getId(), resolved);
+            }
+        }
+        String phone = record.phone() == null || record.phone().isBlank() ? null : record.phone().trim();
+        String locale = record.locale() == null || record.locale().isBlank() ? null : record.locale().trim();
+        return new PreparedRow(row.lineNumber(), record.email().trim().toLowerCase(Locale.ROOT), phone, passwordHash,
+                record.active() == null || record.active(), locale, List.copyOf(roles.values()));
+    }
+
+    /**
+     * @return For each row, whether its user was inserted; the others hit a unique email or phone.
+     */
+    private boolean[] writeBatch(List<PreparedRow> rows) {
+        List<Long> ids = jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, rows.size());
+
+        List<Object[]> userArgs = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            PreparedRow row = rows.get(i);
+            userArgs.add(new Object[]{ids.get(i), row.email(), row.phone(), row.passwordHash(), row.active(), row.locale()});
+        }
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_USER_SQL, userArgs);
+
+        boolean[] written = new boolean[rows.size()];
+        List<Object[]> roleArgs = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            written[i] = inserted[i] != 0;
+            if (written[i]) {
+                for (RoleEntity role : rows.get(i).roles()) {
+                    roleArgs.add(new Object[]{ids.get(i), role.getId()});
+                }
+            }
+        }
+        if (!roleArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, roleArgs);
+        }
+        return written;
+    }
+
+    private void logProgress(Counters counters, long start) {
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        long read = counters.read.sum();
+        logger.info("User import: {} rows read, {} imported, {} failed ({} rows/s).",
+                read, counters.imported.sum(), counters.failed.sum(), read * 1000 / elapsedMillis);
+    }
+
+    private static void awaitQuietly(ThreadPoolExecutor workers) {
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.debug("Waiting for user import batches to finish...");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory newThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Counters {
+        final LongAdder read = new LongAdder();
+        final LongAdder imported = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+
+    /**
+     * Thread-safe NDJSON writer for rejected rows: {@code {"line":12,"email":"...","error":"..."}}.
+     */
+    private static final class ErrorReport implements AutoCloseable {
+
+        private final BufferedWriter writer;
+        private final ObjectMapper objectMapper;
+
+        ErrorReport(BufferedWriter writer, ObjectMapper objectMapper) {
+            this.writer = writer;
+            this.objectMapper = objectMapper;
+        }
+
+        synchronized void write(long lineNumber, String email, String error) {
+            try {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("line", lineNumber);
+                entry.put("email", email);
+                entry.put("error", error);
+                writer.write(objectMapper.writeValueAsString(entry));
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     * Minimal CSV support: comma separated, double-quoted fields with "" escapes, one record per line.
+     * Roles are separated by '|' within their column.
+     */
+    static final class CsvLine {
+
+        private CsvLine() {
+        }
+
+        static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field.");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        static UserImportRecord toRecord(String[] header, String line) {
+            List<String> values = split(line);
+            if (values.size() != header.length) {
+                throw new IllegalArgumentException("Expected " + header.length + " columns but found " + values.size() + ".");
+            }
+            String email = null, phone = null, locale = null, password = null, passwordHash = null, roles = null;
+            Boolean active = null;
+            for (int i = 0; i < header.length; i++) {
+                String value = values.get(i).isEmpty() ? null : values.get(i);
+                switch (header[i].trim()) {
+                    case "email" -> email = value;
+                    case "phone" -> phone = value;
+                    case "locale" -> locale = value;
+                    case "password" -> password = value;
+                    case "passwordHash", "password_hash" -> passwordHash = value;
+                    case "active", "is_active" -> active = value == null ? null : Boolean.valueOf(value);
+                    case "roles" -> roles = value;
+                    default -> { } // Extra columns are ignored, like unknown JSON properties
+                }
+            }
+            List<String> roleNames = roles == null ? List.of() : List.of(roles.split("\\|"));
+            return new UserImportRecord(email, phone, locale, password, passwordHash, active, roleNames);
+        }
+    }
+}
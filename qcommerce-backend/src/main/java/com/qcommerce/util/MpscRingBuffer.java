@@ -0,0 +1,108 @@
+package com.qcommerce.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free ring buffer for many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number telling whose turn it is (D. Vyukov's bounded queue). A producer claims the
+ * next position with one compare-and-set on the tail, stores its element and then publishes the slot by advancing
+ * its sequence; the consumer takes elements in order once published and hands the slot back to the producers one lap
+ * later. {@link #offer(Object)} never blocks or allocates: when the buffer is full it returns {@code false} and the
+ * caller decides what to do.
+ */
+public final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only the consumer thread writes this; volatile so size() can be read from elsewhere, e.g. a gauge
+    private volatile long head;
+
+    /**
+     * @param capacity Rounded up to a power of two.
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room. Safe from any thread.
+     *
+     * @return false if the buffer is full.
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1); // publishes the element to the consumer
+                    return true;
+                }
+            } else if (lag < 0) {
+                return false; // the consumer has not freed this slot from the previous lap yet
+            }
+            // lag > 0: another producer took this position; retry with the new tail
+        }
+    }
+
+    /**
+     * Takes the oldest published element. Consumer thread only.
+     *
+     * @return null if the buffer is empty.
+     */
+    public E poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, position + mask + 1); // free for the producer one lap ahead
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Hands up to {@code limit} elements, oldest first, to {@code consumer}. Consumer thread only.
+     *
+     * @return How many elements were drained.
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        int drained = 0;
+        E element;
+        while (drained < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Claimed positions not yet consumed; approximate while producers are active.
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head, capacity()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.qcommerce.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Small bounded pool of reusable, non-thread-safe helpers (buffers, {@link java.security.MessageDigest},
+ * {@link javax.crypto.Mac}, ...), as a replacement for a {@link ThreadLocal} cache.
+ * <p>
+ * A thread-local cache only pays off when threads are long-lived and few; with virtual threads every request runs
+ * on a new thread and the cache is rebuilt on every request. Here instances are shared by all threads instead:
+ * {@link #acquire()} takes an idle one or creates a new one, {@link #release} puts it back unless the pool is full.
+ * Nothing ever blocks, and at most {@code capacity} idle instances are kept.
+ */
+public final class ObjectPool<T> {
+
+    private final BlockingQueue<T> idle;
+    private final Supplier<T> factory;
+
+    public ObjectPool(int capacity, Supplier<T> factory) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+    }
+
+    /**
+     * Sized for CPU-bound use: more instances than cores are rarely in use at the same time.
+     */
+    public static <T> ObjectPool<T> perCore(Supplier<T> factory) {
+        return new ObjectPool<>(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()), factory);
+    }
+
+    public T acquire() {
+        T instance = idle.poll();
+        return instance != null ? instance : factory.get();
+    }
+
+    /**
+     * Returns an instance taken with {@link #acquire()}; the caller must not use it afterwards.
+     */
+    public void release(T instance) {
+        idle.offer(instance);
+    }
+
+    public int idleCount() {
+        return idle.size();
+    }
+}
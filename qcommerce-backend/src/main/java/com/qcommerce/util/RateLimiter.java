@@ -0,0 +1,100 @@
+package com.qcommerce.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed, lock-free token-bucket limiter (GCRA, the "generic cell rate algorithm").
+ * <p>
+ * Each key holds a single {@link AtomicLong}: the time at which its bucket would be full again. A request is
+ * admitted when that time is at most {@code burst - 1} intervals ahead of now, and pushes it one interval further
+ * with a compare-and-set, so there is no lock and no refill timer. A bucket whose time has passed is
+ * indistinguishable from a new one, which is what makes idle keys safe to evict: {@link #evictIdle()} drops them.
+ * <p>
+ * A new key that finds {@code maxKeys} buckets tracked only probes a few of them for idle ones. If none is free it
+ * is refused, never admitted by dropping a live bucket, which would hand that key a fresh burst. Keys already
+ * tracked are unaffected, and by the time the refusal expires every bucket tracked now is idle.
+ */
+public final class RateLimiter {
+
+    private static final int EVICTION_PROBE = 16;
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxKeys;
+    private final Map<String, AtomicLong> buckets;
+
+    /**
+     * @param burst     Requests a key may make at once.
+     * @param perMinute Sustained rate at which the bucket refills.
+     * @param maxKeys   Tracked keys beyond which new ones are refused unless idle buckets can be dropped.
+     */
+    public RateLimiter(int burst, int perMinute, int maxKeys) {
+        if (burst < 1 || perMinute < 1) {
+            throw new IllegalArgumentException("burst and perMinute must be positive");
+        }
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.maxKeys = maxKeys;
+        this.buckets = new ConcurrentHashMap<>(Math.min(maxKeys, 1024));
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @return 0 if the request is admitted, otherwise how many nanoseconds until it would be.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys && !evictSomeIdle(now)) {
+                return toleranceNanos + intervalNanos;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long base = now - fullAt > 0 ? now : fullAt;
+            long wait = base - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops every bucket that has refilled completely; forgetting those changes no decision.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> now - bucket.get() >= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Drops the idle buckets among the first few tracked, leaving the full sweep to {@link #evictIdle()}.
+     *
+     * @return Whether there is room for a new key now.
+     */
+    private boolean evictSomeIdle(long now) {
+        Iterator<Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+        for (int probed = 0; probed < EVICTION_PROBE && it.hasNext(); probed++) {
+            Entry<String, AtomicLong> entry = it.next();
+            if (now - entry.getValue().get() >= 0) {
+                buckets.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        return buckets.size() < maxKeys;
+    }
+}
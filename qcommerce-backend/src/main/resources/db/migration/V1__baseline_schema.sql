@@ -0,0 +1,43 @@
+-- The schema as Hibernate's ddl-auto used to create it. Databases created that way are baselined at version 0
+-- (spring.flyway.baseline-on-migrate), run this too, and keep their tables: everything here is IF NOT EXISTS.
+
+create table if not exists roles (
+    id   bigint generated by default as identity primary key,
+    name varchar(255) not null,
+    constraint uk_roles_name unique (name)
+);
+
+create table if not exists users (
+    id            bigint generated by default as identity primary key,
+    email         varchar(255) not null,
+    phone         varchar(255),
+    password_hash varchar(255) not null,
+    is_active     boolean      not null,
+    locale        varchar(255),
+    constraint uk_users_email unique (email),
+    constraint uk_users_phone unique (phone)
+);
+
+create table if not exists user_roles (
+    user_id bigint not null references users (id),
+    role_id bigint not null references roles (id),
+    primary key (user_id, role_id)
+);
+
+-- user_id is a plain column, not a foreign key: addresses are always read per user, never joined from users
+create table if not exists addresses (
+    id      bigint generated by default as identity primary key,
+    user_id bigint       not null,
+    type    varchar(50)  not null,
+    line1   varchar(255) not null,
+    line2   varchar(255),
+    city    varchar(100) not null,
+    state   varchar(100) not null,
+    country varchar(2)   not null,
+    zip     varchar(20)  not null,
+    phone   varchar(255)
+);
+
+create index if not exists idx_addresses_user_id on addresses (user_id);
+
+insert into roles (name) values ('ROLE_USER'), ('ROLE_ADMIN') on conflict (name) do nothing;
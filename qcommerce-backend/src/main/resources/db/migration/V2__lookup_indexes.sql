@@ -0,0 +1,31 @@
+-- Indexes shaped after the queries that actually run, instead of whatever ddl-auto happened to create.
+
+-- Emails are unique and looked up case-insensitively (where lower(email) = lower(?)), so one functional unique
+-- index serves both. Fails if two existing users differ only in case; merge those first.
+create unique index if not exists uk_users_email_lower on users (lower(email));
+
+-- The plain unique constraint on email is now implied; drop it, whichever name ddl-auto gave it
+do $$
+declare
+    redundant record;
+begin
+    for redundant in
+        select c.conname
+        from pg_constraint c
+        join pg_attribute a on a.attrelid = c.conrelid and a.attnum = c.conkey[1]
+        where c.conrelid = 'users'::regclass and c.contype = 'u'
+          and cardinality(c.conkey) = 1 and a.attname = 'email'
+    loop
+        execute format('alter table users drop constraint %I', redundant.conname);
+    end loop;
+end
+$$;
+
+-- user_roles: the primary key (user_id, role_id) already serves lookups by user_id; role_id needs its own index
+-- for "who has this role" and for the foreign-key check when a role is deleted
+create index if not exists idx_user_roles_role_id on user_roles (role_id);
+
+-- Addresses are listed per user ordered by id and fetched by (id, user_id): one index covers both, so the
+-- single-column one goes
+create index if not exists idx_addresses_user_id_id on addresses (user_id, id);
+drop index if exists idx_addresses_user_id;
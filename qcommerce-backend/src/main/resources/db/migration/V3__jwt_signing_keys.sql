@@ -0,0 +1,9 @@
+-- RS256 signing keys shared by every instance (see JdbcJwtKeyStore). A key signs from activates_at until the next
+-- key's activates_at, then keeps verifying for jwt.signing.overlap-ms. Private keys are PKCS#8, sealed with AES-GCM
+-- under jwt.signing.key-encryption-key; public keys are X.509 SubjectPublicKeyInfo.
+create table if not exists jwt_signing_keys (
+    kid          varchar(64) primary key,
+    private_key  bytea       not null,
+    public_key   bytea       not null,
+    activates_at timestamptz not null
+);
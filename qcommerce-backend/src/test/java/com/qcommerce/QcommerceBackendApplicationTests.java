@@ -1,11 +1,25 @@
 package com.qcommerce;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 @SpringBootTest
 class QcommerceBackendApplicationTests {
 
+	// The default audit.directory is relative to the working directory, i.e. the module
+	@TempDir
+	static Path auditDirectory;
+
+	@DynamicPropertySource
+	static void auditDirectory(DynamicPropertyRegistry registry) {
+		registry.add("audit.directory", auditDirectory::toString);
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,101 @@
+package com.qcommerce.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.qcommerce.generated.model.Address;
+import com.qcommerce.generated.model.AuthResponse;
+import com.qcommerce.generated.model.Error;
+import com.qcommerce.generated.model.Role;
+import com.qcommerce.generated.model.TokenPair;
+import com.qcommerce.generated.model.User;
+import org.junit.jupiter.api.Test;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeneratedModelSerializersTest {
+
+	// Built like Spring Boot builds the application's mapper, with and without the specialized serializers
+	private final ObjectMapper generic = Jackson2ObjectMapperBuilder.json()
+			.modulesToInstall(new JsonNullableModule()).build();
+	private final ObjectMapper specialized = Jackson2ObjectMapperBuilder.json()
+			.modulesToInstall(new JsonNullableModule(), new JacksonConfig().generatedModelSerializers()).build();
+
+	@Test
+	void populatedModelsAreWrittenByteForByte() throws Exception {
+		User user = new User().id(42L).email("O'Brien \"Q\"\\ \u0001 Ünïcødé 😀 </script>@example.com")
+				.phone("+14155552671").locale("en-US").isActive(true)
+				.roles(List.of(new Role().id(1L).name("ROLE_USER"), new Role().id(2L).name("ROLE_ADMIN")))
+				.addresses(List.of(address(), new Address().id(2L).type("BILLING").line2("c/o \"Front desk\"")));
+		AuthResponse authResponse = new AuthResponse().accessToken("a".repeat(420)).refreshToken("r".repeat(330)).user(user);
+
+		assertSameJson(authResponse);
+		assertSameJson(user);
+		assertSameJson(List.of(address(), address()));
+		assertSameJson(new TokenPair().accessToken("access").refreshToken("refresh"));
+		Map<String, Object> details = new LinkedHashMap<>();
+		details.put("email", "must be a well-formed email address");
+		details.put("limits", Map.of("attempts", 5));
+		details.put("missing", null);
+		assertSameJson(new Error().message("Validation failed").code("VALIDATION_ERROR").details(details));
+	}
+
+	@Test
+	void absentAndNullValuesAreWrittenByteForByte() throws Exception {
+		// Undefined JsonNullables, present nulls, null wrappers, null list elements and plain nulls
+		User user = new User();
+		user.setPhone(JsonNullable.of(null));
+		user.setLocale(null);
+		user.setRoles(JsonNullable.of(null));
+		user.setAddresses(JsonNullable.of(Arrays.asList(null, new Address())));
+
+		assertSameJson(new AuthResponse());
+		assertSameJson(new AuthResponse().user(user));
+		assertSameJson(user);
+		assertSameJson(new User().roles(List.of()));
+		assertSameJson(new TokenPair());
+		assertSameJson(new Error());
+		Error nullDetails = new Error().message("m");
+		nullDetails.setDetails(JsonNullable.of(null));
+		assertSameJson(nullDetails);
+	}
+
+	@Test
+	void specializedSerializersAreActuallyUsed() throws Exception {
+		for (Class<?> type : List.of(AuthResponse.class, User.class, Role.class, Address.class, TokenPair.class, Error.class)) {
+			assertThat(specialized.getSerializerProviderInstance().findValueSerializer(type))
+					.as(type.getSimpleName())
+					.isNotInstanceOf(BeanSerializerBase.class);
+		}
+	}
+
+	@Test
+	void otherInclusionFallsBackToTheGenericSerializers() throws Exception {
+		ObjectMapper nonNull = generic.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+		ObjectMapper specializedNonNull = specialized.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+		assertThat(specializedNonNull.getSerializerProviderInstance().findValueSerializer(User.class))
+				.isInstanceOf(BeanSerializerBase.class);
+		User user = new User().id(1L).roles(List.of(new Role().id(1L)));
+		assertThat(specializedNonNull.writeValueAsString(user)).isEqualTo(nonNull.writeValueAsString(user));
+	}
+
+	private void assertSameJson(Object value) throws Exception {
+		assertThat(specialized.writeValueAsBytes(value)).isEqualTo(generic.writeValueAsBytes(value));
+		// And through the char-based generator, which Spring does not use for responses but others may
+		assertThat(specialized.writeValueAsString(value)).isEqualTo(generic.writeValueAsString(value));
+	}
+
+	private static Address address() {
+		return new Address().id(1L).type("SHIPPING").line1("1 Main St").line2("Apt 2").city("Springfield")
+				.state("IL").country("US").zip("62701").phone("+14155552671");
+	}
+}
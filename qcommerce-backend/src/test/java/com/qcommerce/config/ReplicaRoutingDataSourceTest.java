@@ -0,0 +1,131 @@
+package com.qcommerce.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+	@Test
+	void readsRotateOverHealthyReplicasOnly() throws Exception {
+		DataSource primary = dataSource();
+		DataSource replica1 = dataSource();
+		DataSource replica2 = dataSource();
+		DataSource down = mock(DataSource.class);
+		when(down.getConnection()).thenThrow(new SQLException("Connection refused", "08001"));
+
+		try (ReplicaRoutingDataSource routing = routing(primary, Map.of(), new AtomicBoolean())) {
+			assertThat(routing.getConnection()).isSameAs(primary.getConnection());
+		}
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put("replica-1", replica1);
+		replicas.put("replica-2", replica2);
+		replicas.put("replica-3", down);
+		try (ReplicaRoutingDataSource routing = routing(primary, replicas, new AtomicBoolean())) {
+			assertThat(routing.healthyReplicas()).containsExactly("replica-1", "replica-2");
+			assertThat(routing.getConnection()).isSameAs(replica1.getConnection());
+			assertThat(routing.getConnection()).isSameAs(replica2.getConnection());
+			assertThat(routing.getConnection()).isSameAs(replica1.getConnection());
+		}
+	}
+
+	@Test
+	void failingReplicaLeavesRotationAndReadsFallBackToPrimary() throws Exception {
+		DataSource primary = dataSource();
+		DataSource replica = dataSource();
+		Connection replicaConnection = replica.getConnection();
+
+		try (ReplicaRoutingDataSource routing = routing(primary, Map.of("replica-1", replica), new AtomicBoolean())) {
+			when(replica.getConnection()).thenThrow(new SQLException("Connection refused", "08001"));
+
+			assertThat(routing.getConnection()).isSameAs(primary.getConnection());
+			assertThat(routing.healthyReplicas()).isEmpty();
+
+			doReturn(replicaConnection).when(replica).getConnection();
+			routing.checkHealth();
+
+			assertThat(routing.getConnection()).isSameAs(replicaConnection);
+		}
+	}
+
+	@Test
+	void exhaustedPoolIsSkippedButStaysInRotation() throws Exception {
+		DataSource primary = dataSource();
+		DataSource replica = dataSource();
+		Connection replicaConnection = replica.getConnection();
+
+		try (ReplicaRoutingDataSource routing = routing(primary, Map.of("replica-1", replica), new AtomicBoolean())) {
+			when(replica.getConnection())
+					.thenThrow(new SQLTransientConnectionException("replica-1 - Connection is not available, request timed out after 1000ms."))
+					.thenReturn(replicaConnection);
+
+			assertThat(routing.getConnection()).isSameAs(primary.getConnection());
+			assertThat(routing.healthyReplicas()).containsExactly("replica-1");
+			assertThat(routing.getConnection()).isSameAs(replicaConnection);
+		}
+	}
+
+	@Test
+	void poolTimeoutCausedByAFailedConnectLeavesRotation() throws Exception {
+		DataSource primary = dataSource();
+		DataSource replica = dataSource();
+
+		try (ReplicaRoutingDataSource routing = routing(primary, Map.of("replica-1", replica), new AtomicBoolean())) {
+			SQLException refused = new SQLException("Connection to replica-1:5432 refused.", "08001");
+			when(replica.getConnection()).thenThrow(new SQLTransientConnectionException(
+					"replica-1 - Connection is not available, request timed out after 1000ms.", "08001", refused));
+
+			assertThat(routing.getConnection()).isSameAs(primary.getConnection());
+			assertThat(routing.healthyReplicas()).isEmpty();
+		}
+	}
+
+	@Test
+	void pinnedThreadReadsFromPrimary() throws Exception {
+		DataSource primary = dataSource();
+		AtomicBoolean pinned = new AtomicBoolean(true);
+
+		try (ReplicaRoutingDataSource routing = routing(primary, Map.of("replica-1", dataSource()), pinned)) {
+			assertThat(routing.getConnection()).isSameAs(primary.getConnection());
+		}
+	}
+
+	@Test
+	void explicitCredentialsGoToThePrimary() throws Exception {
+		DataSource primary = dataSource();
+		Connection asAdmin = mock(Connection.class);
+		when(primary.getConnection("admin", "secret")).thenReturn(asAdmin);
+		DataSource replica = dataSource();
+
+		try (ReplicaRoutingDataSource routing = routing(primary, Map.of("replica-1", replica), new AtomicBoolean())) {
+			assertThat(routing.getConnection("admin", "secret")).isSameAs(asAdmin);
+			verify(replica, never()).getConnection("admin", "secret");
+		}
+	}
+
+	private static ReplicaRoutingDataSource routing(DataSource primary, Map<String, DataSource> replicas, AtomicBoolean pinned) {
+		return new ReplicaRoutingDataSource(primary, replicas, pinned::get, 60_000L);
+	}
+
+	private static DataSource dataSource() throws SQLException {
+		Connection connection = mock(Connection.class);
+		when(connection.isValid(anyInt())).thenReturn(true);
+		DataSource dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+		return dataSource;
+	}
+}
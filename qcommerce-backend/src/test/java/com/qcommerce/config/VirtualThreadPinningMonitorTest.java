@@ -0,0 +1,45 @@
+package com.qcommerce.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+	private final Object lock = new Object();
+
+	@Test
+	void pinInOurCodeIsTimedUnderItsLocation() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		try (VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, Duration.ofMillis(10))) {
+			monitor.start();
+
+			Thread.ofVirtual().start(this::sleepWhileHoldingLock).join();
+
+			// JFR hands events to the stream about once a second; the timer is registered just before it records
+			Timer timer = null;
+			for (int i = 0; i < 100 && (timer == null || timer.count() == 0); i++) {
+				Thread.sleep(100);
+				timer = registry.find("virtual.threads.pinned")
+						.tag("location", "VirtualThreadPinningMonitorTest.sleepWhileHoldingLock")
+						.timer();
+			}
+			assertThat(timer).isNotNull();
+			assertThat(timer.count()).isEqualTo(1);
+		}
+	}
+
+	private void sleepWhileHoldingLock() {
+		synchronized (lock) {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
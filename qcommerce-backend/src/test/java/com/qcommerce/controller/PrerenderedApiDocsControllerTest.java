@@ -0,0 +1,89 @@
+package com.qcommerce.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrerenderedApiDocsControllerTest {
+
+	private final PrerenderedApiDocsController controller = new PrerenderedApiDocsController(3600);
+
+	@Test
+	void gzipIsSentOnlyWhenAccepted() throws Exception {
+		ResponseEntity<byte[]> identity = get(null, null);
+		ResponseEntity<byte[]> gzip = get("gzip, deflate, br", null);
+
+		assertThat(identity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(gzip.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getBody()))) {
+			assertThat(in.readAllBytes()).isEqualTo(identity.getBody());
+		}
+		assertThat(get("deflate, gzip;q=0", null).getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+	}
+
+	@Test
+	void qValuesAreHonoured() {
+		assertThat(PrerenderedApiDocsController.acceptsGzip("gzip")).isTrue();
+		assertThat(PrerenderedApiDocsController.acceptsGzip("br;q=1.0, GZIP ; q=0.5")).isTrue();
+		assertThat(PrerenderedApiDocsController.acceptsGzip("x-gzip")).isTrue();
+		assertThat(PrerenderedApiDocsController.acceptsGzip("*;q=0.1")).isTrue();
+		assertThat(PrerenderedApiDocsController.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(PrerenderedApiDocsController.acceptsGzip("gzip; q=0.000")).isFalse();
+		assertThat(PrerenderedApiDocsController.acceptsGzip("*, gzip;q=0")).isFalse();
+		assertThat(PrerenderedApiDocsController.acceptsGzip("*;q=0")).isFalse();
+		assertThat(PrerenderedApiDocsController.acceptsGzip("gzip;q=high")).isFalse();
+		assertThat(PrerenderedApiDocsController.acceptsGzip("identity")).isFalse();
+		assertThat(PrerenderedApiDocsController.acceptsGzip("")).isFalse();
+		assertThat(PrerenderedApiDocsController.acceptsGzip(null)).isFalse();
+	}
+
+	@Test
+	void eachEncodingHasItsOwnEtag() {
+		String identityEtag = get(null, null).getHeaders().getETag();
+		String gzipEtag = get("gzip", null).getHeaders().getETag();
+
+		assertThat(identityEtag).startsWith("\"").endsWith("\"");
+		assertThat(gzipEtag).isEqualTo(identityEtag.substring(0, identityEtag.length() - 1) + "-gzip\"");
+		assertThat(get("gzip;q=0", null).getHeaders().getETag()).isEqualTo(identityEtag);
+	}
+
+	@Test
+	void matchingEtagGets304() {
+		String identityEtag = get(null, null).getHeaders().getETag();
+		String gzipEtag = get("gzip", null).getHeaders().getETag();
+
+		ResponseEntity<byte[]> notModified = get("gzip", gzipEtag);
+		assertThat(notModified.getStatusCode().value()).isEqualTo(304);
+		assertThat(notModified.getBody()).isNull();
+		assertThat(notModified.getHeaders().getETag()).isEqualTo(gzipEtag);
+		assertThat(notModified.getHeaders().getCacheControl()).isEqualTo("max-age=3600, public");
+		assertThat(notModified.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+
+		assertThat(get(null, identityEtag).getStatusCode().value()).isEqualTo(304);
+		// A cached copy in the other encoding is not a match
+		ResponseEntity<byte[]> gzipAfterIdentity = get("gzip", identityEtag);
+		assertThat(gzipAfterIdentity.getStatusCode().value()).isEqualTo(200);
+		assertThat(gzipAfterIdentity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(get("gzip;q=0", gzipEtag).getStatusCode().value()).isEqualTo(200);
+	}
+
+	private ResponseEntity<byte[]> get(String acceptEncoding, String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v3/api-docs");
+		if (acceptEncoding != null) {
+			request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		return controller.apiDocs(new ServletWebRequest(request, new MockHttpServletResponse()));
+	}
+}
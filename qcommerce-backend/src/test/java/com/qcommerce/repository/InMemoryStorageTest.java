@@ -0,0 +1,141 @@
+package com.qcommerce.repository;
+
+import com.qcommerce.model.AddressEntity;
+import com.qcommerce.model.RoleEntity;
+import com.qcommerce.model.UserEntity;
+import com.qcommerce.model.UserLoginView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryStorageTest {
+
+	private final InMemoryStorage storage = new InMemoryStorage("");
+
+	@Test
+	void concurrentRegistrationsOfOneEmailHaveExactlyOneWinner() throws Exception {
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> results = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			String email = i % 2 == 0 ? "race@example.com" : "RACE@example.com";
+			String phone = "+1415555" + String.format("%04d", i);
+			results.add(executor.submit(() -> {
+				start.await();
+				try {
+					storage.insert(user(email, phone));
+					return true;
+				} catch (DataIntegrityViolationException e) {
+					assertThat(e.getMessage()).contains("(email)");
+					return false;
+				}
+			}));
+		}
+		start.countDown();
+		int winners = 0;
+		for (Future<Boolean> result : results) {
+			winners += result.get() ? 1 : 0;
+		}
+		executor.shutdown();
+
+		assertThat(winners).isEqualTo(1);
+		// The losers never claimed their phones
+		String winnerPhone = storage.findLoginViewByEmail("race@example.com").orElseThrow().phone();
+		for (int i = 0; i < threads; i++) {
+			String phone = "+1415555" + String.format("%04d", i);
+			assertThat(storage.existsByPhone(phone)).isEqualTo(phone.equals(winnerPhone));
+		}
+	}
+
+	@Test
+	void takenPhoneFailsTheInsertAndLeavesTheEmailFree() {
+		storage.insert(user("a@example.com", "+14155550001"));
+
+		assertThatThrownBy(() -> storage.insert(user("b@example.com", "+14155550001")))
+				.isInstanceOf(DataIntegrityViolationException.class)
+				.hasMessageContaining("(phone)");
+		assertThat(storage.existsByEmail("b@example.com")).isFalse();
+		assertThat(storage.insert(user("b@example.com", null)).getId()).isNotNull();
+	}
+
+	@Test
+	void addressesAreScopedByOwnerAndCopied() {
+		AddressEntity first = storage.insert(address(1L, "1 Main St"));
+		AddressEntity second = storage.insert(address(1L, "2 Main St"));
+		storage.insert(address(2L, "3 Main St"));
+
+		first.setLine1("changed without update");
+		assertThat(storage.findByUserIdOrderByIdAsc(1L)).extracting(AddressEntity::getLine1)
+				.containsExactly("1 Main St", "2 Main St");
+		assertThat(storage.findByIdAndUserId(first.getId(), 2L)).isEmpty();
+
+		AddressEntity loaded = storage.findByIdAndUserId(second.getId(), 1L).orElseThrow();
+		loaded.setCity("Chicago");
+		storage.update(loaded);
+		assertThat(storage.findByIdAndUserId(second.getId(), 1L).orElseThrow().getCity()).isEqualTo("Chicago");
+
+		assertThat(storage.deleteByIdAndUserId(second.getId(), 2L)).isZero();
+		assertThat(storage.deleteByIdAndUserId(second.getId(), 1L)).isEqualTo(1);
+		assertThat(storage.findByUserIdOrderByIdAsc(1L)).extracting(AddressEntity::getId).containsExactly(first.getId());
+	}
+
+	@Test
+	void snapshotRestoresUsersAddressesAndIdCounters(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("storage.snapshot");
+		InMemoryStorage original = new InMemoryStorage(file.toString());
+		UserEntity user = original.insert(user("Ünïcødé@example.com", null));
+		original.updatePasswordHash(user.getId(), "rehashed");
+		AddressEntity address = original.insert(address(user.getId(), "1 Main St"));
+		original.snapshot();
+		assertThat(Files.exists(directory.resolve("storage.snapshot.tmp"))).isFalse();
+
+		InMemoryStorage restored = new InMemoryStorage(file.toString());
+		restored.restore();
+
+		UserLoginView view = restored.findLoginViewByEmail("ünïcødé@example.com").orElseThrow();
+		assertThat(view).isEqualTo(original.findLoginViewByEmail("Ünïcødé@example.com").orElseThrow());
+		assertThat(view.passwordHash()).isEqualTo("rehashed");
+		assertThat(view.phone()).isNull();
+		assertThat(restored.findByUserIdOrderByIdAsc(user.getId())).singleElement()
+				.satisfies(a -> {
+					assertThat(a.getId()).isEqualTo(address.getId());
+					assertThat(a.getLine2()).isNull();
+					assertThat(a.getZip()).isEqualTo("62701");
+				});
+		// New ids continue after the restored ones
+		assertThat(restored.insert(user("new@example.com", null)).getId()).isGreaterThan(user.getId());
+		assertThat(restored.insert(address(user.getId(), "2 Main St")).getId()).isGreaterThan(address.getId());
+	}
+
+	private static UserEntity user(String email, String phone) {
+		UserEntity user = new UserEntity(email, phone, "hash", null, true);
+		user.setRoles(Set.of(new RoleEntity(1L, "ROLE_USER")));
+		return user;
+	}
+
+	private static AddressEntity address(Long userId, String line1) {
+		AddressEntity address = new AddressEntity();
+		address.setUserId(userId);
+		address.setType("SHIPPING");
+		address.setLine1(line1);
+		address.setCity("Springfield");
+		address.setState("IL");
+		address.setCountry("US");
+		address.setZip("62701");
+		return address;
+	}
+}
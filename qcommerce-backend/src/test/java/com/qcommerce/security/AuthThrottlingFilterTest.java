@@ -0,0 +1,100 @@
+package com.qcommerce.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthThrottlingFilterTest {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JsonNullableModule());
+
+	// Three requests per IP and two per email at once, then one a minute
+	private final AuthThrottle throttle = new AuthThrottle(true, 3, 1, 2, 1, 1_000);
+	private final AuthThrottlingFilter filter = new AuthThrottlingFilter(throttle, OBJECT_MAPPER, 1_024);
+	// Stands in for the controller: what reached it, body included
+	private final List<String> forwarded = new ArrayList<>();
+	private final FilterChain chain = (request, response) ->
+			forwarded.add(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+
+	@Test
+	void admittedBodyIsReplayedToTheController() throws Exception {
+		String body = "{\"password\":\"Str0ngP@ss!\",\"email\":\" Alice@Example.com \"}";
+
+		MockHttpServletResponse response = post("/auth/login", "10.0.0.1", body);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(forwarded).containsExactly(body);
+	}
+
+	@Test
+	void sameEmailFromManyClientsIsThrottled() throws Exception {
+		post("/auth/login", "10.0.0.1", login("Alice@example.com"));
+		post("/auth/login", "10.0.0.2", login("alice@example.com "));
+
+		MockHttpServletResponse rejected = post("/auth/login", "10.0.0.3", login("ALICE@example.com"));
+
+		assertTooManyRequests(rejected, 60);
+		assertThat(throttle.rejectedByEmailCount()).isEqualTo(1);
+		assertThat(post("/auth/login", "10.0.0.3", login("bob@example.com")).getStatus()).isEqualTo(200);
+		assertThat(forwarded).hasSize(3);
+	}
+
+	@Test
+	void clientIsThrottledBeforeTheBodyIsRead() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			post("/auth/register", "10.0.0.1", login("user" + i + "@example.com"));
+		}
+
+		MockHttpServletResponse rejected = post("/auth/register", "10.0.0.1", "not even JSON");
+
+		assertTooManyRequests(rejected, 60);
+		assertThat(throttle.rejectedByClientIpCount()).isEqualTo(1);
+		assertThat(forwarded).hasSize(3);
+	}
+
+	@Test
+	void otherRequestsAreNotThrottled() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/login");
+			request.setRemoteAddr("10.0.0.1");
+			filter.doFilter(request, new MockHttpServletResponse(), chain);
+			assertThat(post("/auth/refresh", "10.0.0.1", "{\"refreshToken\":\"x\"}").getStatus()).isEqualTo(200);
+		}
+
+		assertThat(forwarded).hasSize(10);
+		assertThat(throttle.trackedKeys()).isZero();
+	}
+
+	private MockHttpServletResponse post(String path, String clientIp, String body) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+		request.setRemoteAddr(clientIp);
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	private static void assertTooManyRequests(MockHttpServletResponse response, long retryAfterSeconds)
+			throws Exception {
+		assertThat(response.getStatus()).isEqualTo(429);
+		assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo(Long.toString(retryAfterSeconds));
+		JsonNode error = OBJECT_MAPPER.readTree(response.getContentAsByteArray());
+		assertThat(error.get("code").asText()).isEqualTo("TOO_MANY_REQUESTS");
+	}
+
+	private static String login(String email) {
+		return "{\"email\":\"" + email + "\",\"password\":\"Str0ngP@ss!\"}";
+	}
+}
@@ -0,0 +1,38 @@
+package com.qcommerce.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedPasswordEncoderTest {
+
+	@Test
+	void calibrationStaysWithinBounds() {
+		assertThat(CalibratedPasswordEncoder.calibrate(0, 4, 6)).isEqualTo(4);
+		assertThat(CalibratedPasswordEncoder.calibrate(60_000, 4, 6)).isEqualTo(6);
+	}
+
+	@Test
+	void writesPrefixedHashesAtItsStrength() {
+		CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5);
+		String hash = encoder.encode("secret");
+
+		assertThat(hash).startsWith("{bcrypt}$2a$05$");
+		assertThat(encoder.matches("secret", hash)).isTrue();
+		assertThat(encoder.upgradeEncoding(hash)).isFalse();
+	}
+
+	@Test
+	void upgradesOnlyWeakerOrForeignHashes() {
+		CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5);
+		String legacy = new BCryptPasswordEncoder(5).encode("secret");
+
+		assertThat(encoder.matches("secret", legacy)).isTrue();
+		assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+		assertThat(encoder.upgradeEncoding(new CalibratedPasswordEncoder(4).encode("secret"))).isTrue();
+		// Written by a node on faster hardware: kept, or two nodes would rehash the same user forever
+		assertThat(encoder.upgradeEncoding(new CalibratedPasswordEncoder(6).encode("secret"))).isFalse();
+		assertThat(encoder.upgradeEncoding("{bcrypt}garbage")).isTrue();
+	}
+}
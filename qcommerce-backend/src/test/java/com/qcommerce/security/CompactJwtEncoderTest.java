@@ -0,0 +1,70 @@
+package com.qcommerce.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactJwtEncoderTest {
+
+	private static final String SECRET = "zVTcy5/pa/FisoRkSHSzvFNDMsC+9zq+RwZACTT5X5k=";
+	private static final SecretKey KEY = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+	private final CompactJwtEncoder encoder = new CompactJwtEncoder(KEY, "qcommerce-app");
+
+	@Test
+	void accessTokenIsVerifiedByJjwt() {
+		TokenSubject subject = new TokenSubject(42L, "O'Brien \"Q\"\\ Ünïcødé 😀@example.com", List.of("ROLE_USER", "ROLE_ADMIN"));
+		long now = System.currentTimeMillis() / 1000;
+
+		String token = encoder.accessToken(subject, "family-1", "jti-1", now, now + 60);
+
+		Claims claims = parse(token);
+		assertThat(claims.get("token_type")).isEqualTo("access");
+		assertThat(claims.get("userId", Long.class)).isEqualTo(42L);
+		assertThat(claims.get("email")).isEqualTo(subject.email());
+		assertThat(claims.getSubject()).isEqualTo(subject.email());
+		assertThat(claims.get("roles", List.class)).containsExactly("ROLE_USER", "ROLE_ADMIN");
+		assertThat(claims.get("sid")).isEqualTo("family-1");
+		assertThat(claims.getId()).isEqualTo("jti-1");
+		assertThat(claims.getIssuedAt().getTime()).isEqualTo(now * 1000);
+		assertThat(claims.getExpiration().getTime()).isEqualTo((now + 60) * 1000);
+	}
+
+	@Test
+	void refreshTokenIsVerifiedByJjwt() {
+		long now = System.currentTimeMillis() / 1000;
+
+		Claims claims = parse(encoder.refreshToken(new TokenSubject(7L, "a@example.com", List.of()), "fam-9", "jti-2", now, now + 60));
+
+		assertThat(claims.get("token_type")).isEqualTo("refresh");
+		assertThat(claims.get("fam")).isEqualTo("fam-9");
+		assertThat(claims.getId()).isEqualTo("jti-2");
+		assertThat(claims.get("email")).isNull();
+	}
+
+	@Test
+	void headerAndSignatureMatchJjwtForTheSamePayload() {
+		long now = System.currentTimeMillis() / 1000;
+		String token = encoder.refreshToken(new TokenSubject(7L, "a@example.com", List.of()), "fam-9", "jti-2", now, now + 60);
+		String payloadJson = new String(Base64.getUrlDecoder().decode(token.split("\\.")[1]), StandardCharsets.UTF_8);
+
+		// Signing the identical payload with jjwt must give the identical compact token
+		String jjwtToken = Jwts.builder().setPayload(payloadJson).signWith(KEY, SignatureAlgorithm.HS256).compact();
+
+		assertThat(token).isEqualTo(jjwtToken);
+	}
+
+	private static Claims parse(String token) {
+		return Jwts.parserBuilder().setSigningKey(KEY).requireIssuer("qcommerce-app").build()
+				.parseClaimsJws(token).getBody();
+	}
+}
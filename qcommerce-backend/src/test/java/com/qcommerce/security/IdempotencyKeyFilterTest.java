@@ -0,0 +1,228 @@
+package com.qcommerce.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyKeyFilterTest {
+
+	private static final String ALICE = "{\"email\":\"alice@example.com\",\"password\":\"Str0ngP@ss!\"}";
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JsonNullableModule());
+
+	private final IdempotencyStore store = new IdempotencyStore(100, 60_000);
+	private final IdempotencyKeyFilter filter = new IdempotencyKeyFilter(store, OBJECT_MAPPER, 16_384, 200, 60_000);
+	// Stands in for the controller, and with it the database and the password hasher
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@AfterEach
+	void clearSecurityContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void replayDoesNotReachTheApplication() throws Exception {
+		FilterChain chain = respond(201, "{\"id\":1}");
+
+		MockHttpServletResponse first = post("/auth/register", "k1", ALICE, chain);
+		MockHttpServletResponse retry = post("/auth/register", "k1", ALICE, chain);
+
+		assertThat(executions).hasValue(1);
+		assertThat(retry.getStatus()).isEqualTo(201);
+		assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"id\":1}");
+		assertThat(retry.getHeader(IdempotencyKeyFilter.REPLAYED)).isEqualTo("true");
+		assertThat(first.getHeader(IdempotencyKeyFilter.REPLAYED)).isNull();
+	}
+
+	@Test
+	void concurrentDuplicateWaitsForTheOriginal() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		FilterChain slow = (request, response) -> {
+			executions.incrementAndGet();
+			running.countDown();
+			await(release);
+			write((HttpServletResponse) response, 201, "{\"id\":7}");
+		};
+		IdempotencyKeyFilter patient = new IdempotencyKeyFilter(store, OBJECT_MAPPER, 16_384, 5_000, 60_000);
+
+		CompletableFuture<MockHttpServletResponse> original = CompletableFuture.supplyAsync(
+				() -> uncheckedPost(patient, "/auth/register", "k1", ALICE, slow));
+		assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(
+				() -> uncheckedPost(patient, "/auth/register", "k1", ALICE, slow));
+		Thread.sleep(100);
+		assertThat(duplicate).isNotDone();
+		release.countDown();
+
+		assertThat(duplicate.get().getContentAsString()).isEqualTo("{\"id\":7}");
+		assertThat(duplicate.get().getHeader(IdempotencyKeyFilter.REPLAYED)).isEqualTo("true");
+		assertThat(original.get().getStatus()).isEqualTo(201);
+		assertThat(executions).hasValue(1);
+	}
+
+	@Test
+	void waitTimeoutAnswers409WithRetryAfter() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		FilterChain stuck = (request, response) -> {
+			await(release);
+			write((HttpServletResponse) response, 201, "{}");
+		};
+		CompletableFuture<MockHttpServletResponse> original = CompletableFuture.supplyAsync(
+				() -> uncheckedPost(filter, "/auth/register", "k1", ALICE, stuck));
+		while (store.size() == 0) {
+			Thread.onSpinWait();
+		}
+
+		MockHttpServletResponse duplicate = post("/auth/register", "k1", ALICE, stuck);
+
+		assertThat(duplicate.getStatus()).isEqualTo(409);
+		assertThat(duplicate.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(duplicate.getContentAsString()).contains("IDEMPOTENCY_KEY_IN_PROGRESS");
+		release.countDown();
+		original.get();
+	}
+
+	@Test
+	void keyReusedWithAnotherBodyIsRefused() throws Exception {
+		FilterChain chain = respond(201, "{\"id\":1}");
+		post("/auth/register", "k1", ALICE, chain);
+
+		MockHttpServletResponse other = post("/auth/register", "k1",
+				"{\"email\":\"alice@example.com\",\"password\":\"0ther!Pass\"}", chain);
+
+		assertThat(other.getStatus()).isEqualTo(422);
+		assertThat(other.getContentAsString()).contains("IDEMPOTENCY_KEY_REUSED");
+		assertThat(executions).hasValue(1);
+	}
+
+	@Test
+	void registrationKeysAreScopedToTheEmail() throws Exception {
+		FilterChain chain = respond(201, "{}");
+		post("/auth/register", "k1", ALICE, chain);
+
+		MockHttpServletResponse bob = post("/auth/register", "k1", "{\"email\":\"bob@example.com\",\"password\":\"x\"}", chain);
+
+		assertThat(bob.getStatus()).isEqualTo(201);
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void addressKeysAreScopedToTheUser() throws Exception {
+		FilterChain chain = respond(201, "{}");
+		String body = "{\"line1\":\"1 Main St\"}";
+		authenticate(1L);
+		post("/users/me/addresses", "k1", body, chain);
+		authenticate(2L);
+		post("/users/me/addresses", "k1", body, chain);
+		authenticate(1L);
+		MockHttpServletResponse retry = post("/users/me/addresses", "k1", body, chain);
+
+		assertThat(executions).hasValue(2);
+		assertThat(retry.getHeader(IdempotencyKeyFilter.REPLAYED)).isEqualTo("true");
+	}
+
+	@Test
+	void serverErrorsAndLoadSheddingAreNotStored() throws Exception {
+		for (int status : List.of(500, 503, 429)) {
+			executions.set(0);
+			FilterChain chain = respond(status, "{}");
+			post("/auth/register", "k" + status, ALICE, chain);
+			MockHttpServletResponse retry = post("/auth/register", "k" + status, ALICE, chain);
+
+			assertThat(executions).as("status %d", status).hasValue(2);
+			assertThat(retry.getHeader(IdempotencyKeyFilter.REPLAYED)).isNull();
+		}
+	}
+
+	@Test
+	void clientErrorsAreStored() throws Exception {
+		FilterChain chain = respond(400, "{\"code\":\"USER_ALREADY_EXISTS\"}");
+		post("/auth/register", "k1", ALICE, chain);
+
+		MockHttpServletResponse retry = post("/auth/register", "k1", ALICE, chain);
+
+		assertThat(executions).hasValue(1);
+		assertThat(retry.getStatus()).isEqualTo(400);
+	}
+
+	@Test
+	void requestsWithoutAKeyPassThrough() throws Exception {
+		FilterChain chain = respond(201, "{}");
+		post("/auth/register", null, ALICE, chain);
+		post("/auth/register", null, ALICE, chain);
+
+		assertThat(executions).hasValue(2);
+		assertThat(store.size()).isZero();
+	}
+
+	private FilterChain respond(int status, String body) {
+		return (request, response) -> {
+			executions.incrementAndGet();
+			write((HttpServletResponse) response, status, body);
+		};
+	}
+
+	private static void write(HttpServletResponse response, int status, String body) throws IOException {
+		response.setStatus(status);
+		response.setContentType("application/json");
+		response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void authenticate(Long userId) {
+		AuthenticatedUser user = new AuthenticatedUser(userId, "user" + userId + "@example.com");
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(user, null, List.of()));
+	}
+
+	private MockHttpServletResponse post(String path, String key, String body, FilterChain chain) throws Exception {
+		return post(filter, path, key, body, chain);
+	}
+
+	private static MockHttpServletResponse post(IdempotencyKeyFilter filter, String path, String key, String body,
+												FilterChain chain) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+		if (key != null) {
+			request.addHeader(IdempotencyKeyFilter.IDEMPOTENCY_KEY, key);
+		}
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	private static MockHttpServletResponse uncheckedPost(IdempotencyKeyFilter filter, String path, String key,
+														 String body, FilterChain chain) {
+		try {
+			return post(filter, path, key, body, chain);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
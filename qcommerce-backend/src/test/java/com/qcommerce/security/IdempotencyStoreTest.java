@@ -0,0 +1,86 @@
+package com.qcommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest {
+
+	private static final IdempotencyStore.StoredResponse CREATED = new IdempotencyStore.StoredResponse(201,
+			"application/json", null, "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+	@Test
+	void secondClaimGetsTheFirstResponse() throws Exception {
+		IdempotencyStore store = new IdempotencyStore(100, 60_000);
+
+		IdempotencyStore.Claim first = store.claim("k", "fp");
+		assertThat(first.owner()).isTrue();
+		store.complete("k", first.entry(), CREATED);
+
+		IdempotencyStore.Claim retry = store.claim("k", "fp");
+		assertThat(retry.owner()).isFalse();
+		assertThat(retry.entry().await(10)).isSameAs(CREATED);
+		assertThat(retry.entry().matches("other")).isFalse();
+	}
+
+	@Test
+	void waiterIsReleasedWhenTheOriginalCompletes() throws Exception {
+		IdempotencyStore store = new IdempotencyStore(100, 60_000);
+		IdempotencyStore.Claim first = store.claim("k", "fp");
+
+		IdempotencyStore.Claim concurrent = store.claim("k", "fp");
+		assertThat(concurrent.owner()).isFalse();
+		assertThatThrownBy(() -> concurrent.entry().await(10)).isInstanceOf(TimeoutException.class);
+
+		CompletableFuture<IdempotencyStore.StoredResponse> waiting = CompletableFuture.supplyAsync(() -> {
+			try {
+				return concurrent.entry().await(5_000);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		store.complete("k", first.entry(), CREATED);
+		assertThat(waiting.get()).isSameAs(CREATED);
+	}
+
+	@Test
+	void responseNotKeptFreesTheKey() throws Exception {
+		IdempotencyStore store = new IdempotencyStore(100, 60_000);
+		IdempotencyStore.Claim first = store.claim("k", "fp");
+		IdempotencyStore.Claim concurrent = store.claim("k", "fp");
+
+		store.complete("k", first.entry(), null);
+
+		assertThat(concurrent.entry().await(10)).isNull();
+		assertThat(store.size()).isZero();
+		assertThat(store.claim("k", "fp").owner()).isTrue();
+	}
+
+	@Test
+	void expiredResponseIsNotReplayed() throws Exception {
+		IdempotencyStore store = new IdempotencyStore(100, 1);
+		IdempotencyStore.Claim first = store.claim("k", "fp");
+		store.complete("k", first.entry(), CREATED);
+		Thread.sleep(5);
+
+		assertThat(store.claim("k", "other").owner()).isTrue();
+	}
+
+	@Test
+	void evictionKeepsInFlightEntries() {
+		IdempotencyStore store = new IdempotencyStore(10, 60_000);
+		IdempotencyStore.Claim inFlight = store.claim("in-flight", "fp");
+		for (int i = 0; i < 20; i++) {
+			IdempotencyStore.Claim claim = store.claim("k" + i, "fp");
+			store.complete("k" + i, claim.entry(), CREATED);
+		}
+
+		assertThat(store.size()).isLessThanOrEqualTo(10);
+		assertThat(store.claim("in-flight", "fp").entry()).isSameAs(inFlight.entry());
+	}
+}
@@ -0,0 +1,95 @@
+package com.qcommerce.security;
+
+import com.qcommerce.exception.ServiceOverloadedException;
+import com.qcommerce.security.RefreshTokenStore.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryRefreshTokenStoreTest {
+
+	private static final TokenSubject ALICE = new TokenSubject(1L, "alice@example.com", List.of("ROLE_USER"));
+	private static final TokenSubject BOB = new TokenSubject(2L, "bob@example.com", List.of("ROLE_USER"));
+
+	private final long later = System.currentTimeMillis() + 60_000;
+
+	@Test
+	void newLoginBeyondThePerUserCapDropsTheOldestFamily() {
+		InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(2, 100);
+		store.createFamily("a1", ALICE, "h1", later);
+		store.createFamily("a2", ALICE, "h2", later);
+		store.createFamily("b1", BOB, "h3", later);
+
+		store.createFamily("a3", ALICE, "h4", later);
+
+		assertThat(store.size()).isEqualTo(3);
+		assertThat(store.rotate("a1", "h1", "n1", later).outcome()).isEqualTo(Outcome.UNKNOWN);
+		assertThat(store.rotate("a2", "h2", "n2", later).outcome()).isEqualTo(Outcome.ROTATED);
+		assertThat(store.rotate("a3", "h4", "n4", later).outcome()).isEqualTo(Outcome.ROTATED);
+		assertThat(store.rotate("b1", "h3", "n3", later).outcome()).isEqualTo(Outcome.ROTATED);
+
+		// Rotating does not make a family newer: a2 is still the oldest
+		store.createFamily("a4", ALICE, "h5", later);
+		assertThat(store.rotate("a2", "n2", "m2", later).outcome()).isEqualTo(Outcome.UNKNOWN);
+		assertThat(store.size()).isEqualTo(3);
+	}
+
+	@Test
+	void fullStoreRefusesNewFamiliesUntilSomeExpire() {
+		InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(10, 2);
+		long past = System.currentTimeMillis() - 1;
+		store.createFamily("a1", ALICE, "h1", later);
+		store.createFamily("b1", BOB, "h2", later);
+
+		assertThatThrownBy(() -> store.createFamily("a2", ALICE, "h3", later))
+				.isInstanceOfSatisfying(ServiceOverloadedException.class,
+						ex -> assertThat(ex.getRetryAfterSeconds()).isPositive());
+		// Other users' sessions are left alone
+		assertThat(store.rotate("b1", "h2", "n2", later).outcome()).isEqualTo(Outcome.ROTATED);
+
+		store.revokeFamily("a1");
+		store.createFamily("a2", ALICE, "h3", past);
+		store.createFamily("a3", ALICE, "h4", later);
+		assertThat(store.size()).isEqualTo(2);
+	}
+
+	@Test
+	void sweepDropsOnlyExpiredFamilies() {
+		InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(10, 100);
+		long past = System.currentTimeMillis() - 1;
+		store.createFamily("a1", ALICE, "h1", past);
+		store.createFamily("a2", ALICE, "h2", later);
+		store.createFamily("b1", BOB, "h3", past);
+		// Rotation moves a family's expiry forward
+		store.createFamily("b2", BOB, "h4", System.currentTimeMillis() + 1_000);
+		assertThat(store.rotate("b2", "h4", "n4", past).outcome()).isEqualTo(Outcome.ROTATED);
+
+		store.sweepExpired();
+
+		assertThat(store.size()).isEqualTo(1);
+		assertThat(store.userCount()).isEqualTo(1);
+		assertThat(store.rotate("a2", "h2", "n2", later).outcome()).isEqualTo(Outcome.ROTATED);
+	}
+
+	@Test
+	void expiredOrReusedFamilyNoLongerCountsForTheUser() {
+		InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(2, 100);
+		store.createFamily("a1", ALICE, "h1", System.currentTimeMillis() - 1);
+		store.createFamily("a2", ALICE, "h2", later);
+
+		assertThat(store.rotate("a1", "h1", "n1", later).outcome()).isEqualTo(Outcome.UNKNOWN);
+		assertThat(store.rotate("a2", "old", "n2", later).outcome()).isEqualTo(Outcome.REUSED);
+		assertThat(store.size()).isZero();
+		assertThat(store.userCount()).isZero();
+
+		store.createFamily("a3", ALICE, "h3", later);
+		store.createFamily("b1", BOB, "h4", later);
+		store.revokeAllForUser(1L);
+		store.revokeFamily("b1");
+		assertThat(store.size()).isZero();
+		assertThat(store.userCount()).isZero();
+	}
+}
@@ -0,0 +1,35 @@
+package com.qcommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryTokenRevocationStoreTest {
+
+	@Test
+	void revokedTokensAreReportedUntilTheyExpire() throws InterruptedException {
+		InMemoryTokenRevocationStore store = new InMemoryTokenRevocationStore(1_000, 0.001);
+		long now = System.currentTimeMillis();
+
+		store.revoke("short-lived", now + 50);
+		store.revoke("long-lived", now + 60_000);
+
+		assertThat(store.isRevoked("short-lived")).isTrue();
+		assertThat(store.isRevoked("long-lived")).isTrue();
+		assertThat(store.isRevoked("never-revoked")).isFalse();
+
+		Thread.sleep(100);
+		store.sweepExpired();
+
+		assertThat(store.isRevoked("short-lived")).isFalse();
+		assertThat(store.isRevoked("long-lived")).isTrue();
+		assertThat(store.size()).isEqualTo(1);
+	}
+
+	@Test
+	void alreadyExpiredTokensAreNotStored() {
+		InMemoryTokenRevocationStore store = new InMemoryTokenRevocationStore(1_000, 0.001);
+		store.revoke("expired", System.currentTimeMillis() - 1);
+		assertThat(store.size()).isZero();
+	}
+}
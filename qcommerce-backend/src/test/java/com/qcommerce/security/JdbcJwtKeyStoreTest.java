@@ -0,0 +1,44 @@
+package com.qcommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcJwtKeyStoreTest {
+
+	private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+	private final JdbcJwtKeyStore store = new JdbcJwtKeyStore(null, null, KEY);
+
+	@Test
+	void privateKeysAreSealedToTheirKid() throws Exception {
+		byte[] privateKey = "pkcs8 bytes".getBytes(StandardCharsets.US_ASCII);
+
+		byte[] sealed = store.seal("kid-1", privateKey);
+
+		assertThat(sealed).hasSize(12 + privateKey.length + 16);
+		assertThat(store.open("kid-1", sealed)).isEqualTo(privateKey);
+		assertThat(store.seal("kid-1", privateKey)).isNotEqualTo(sealed);
+		assertThatThrownBy(() -> store.open("kid-2", sealed)).isInstanceOf(AEADBadTagException.class);
+		JdbcJwtKeyStore otherKey = new JdbcJwtKeyStore(null, null, Base64.getEncoder().encodeToString(new byte[32])
+				.replace('A', 'B'));
+		assertThatThrownBy(() -> otherKey.open("kid-1", sealed)).isInstanceOf(AEADBadTagException.class);
+	}
+
+	@Test
+	void encryptionKeyMustBe256Bits() {
+		assertThat(JdbcJwtKeyStore.encryptionKey(" " + KEY + "\n").getEncoded()).hasSize(32);
+		assertThatThrownBy(() -> JdbcJwtKeyStore.encryptionKey(""))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("JWT_KEY_ENCRYPTION_KEY");
+		assertThatThrownBy(() -> JdbcJwtKeyStore.encryptionKey("not base64!"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> JdbcJwtKeyStore.encryptionKey(Base64.getEncoder().encodeToString(new byte[16])))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,142 @@
+package com.qcommerce.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTest {
+
+	private static final long ROTATION_MS = Duration.ofDays(1).toMillis();
+	private static final long OVERLAP_MS = Duration.ofHours(1).toMillis();
+
+	// Stands in for the jwt_signing_keys table every instance shares
+	private final InMemoryJwtKeyStore keyStore = new InMemoryJwtKeyStore();
+	private final JwtKeyRing keyRing = keyRing();
+	private final JwtTokenProvider tokens = new JwtTokenProvider(keyRing, 60_000L, 120_000L, "qcommerce-app");
+	private final TokenSubject subject = new TokenSubject(42L, "a@example.com", List.of("ROLE_USER"));
+
+	@Test
+	void tokenVerifiesWithNothingButThePublishedKeySet() throws Exception {
+		String token = tokens.generateAccessToken(subject, "family-1");
+
+		String header = new String(Base64.getUrlDecoder().decode(token.split("\\.")[0]), StandardCharsets.UTF_8);
+		String kid = keyRing.signingKey().kid();
+		assertThat(header).isEqualTo("{\"alg\":\"RS256\",\"kid\":\"" + kid + "\"}");
+
+		// What a downstream service does: find the JWK by kid and verify with its public key
+		Map<String, String> jwk = keyRing.jwks().stream().filter(k -> k.get("kid").equals(kid)).findFirst().orElseThrow();
+		Claims claims = Jwts.parserBuilder().setSigningKey(publicKey(jwk)).requireIssuer("qcommerce-app").build()
+				.parseClaimsJws(token).getBody();
+		assertThat(claims.get("userId", Long.class)).isEqualTo(42L);
+		assertThat(claims.get("sid")).isEqualTo("family-1");
+	}
+
+	@Test
+	void nextKeyIsPublishedBeforeItSigns() {
+		String next = keyRing.jwks().get(1).get("kid");
+		String etag = keyRing.jwksEtag();
+
+		keyRing.refresh(Instant.now().plusMillis(ROTATION_MS - 60_000));
+		assertThat(keyRing.jwksEtag()).isEqualTo(etag);
+
+		keyRing.refresh(Instant.now().plusMillis(ROTATION_MS));
+
+		assertThat(keyRing.signingKey().kid()).isEqualTo(next);
+		assertThat(keyRing.jwksEtag()).isNotEqualTo(etag);
+		assertThat(keyRing.jwks()).hasSize(3);
+		assertThat(keyStore.load()).hasSize(3);
+	}
+
+	@Test
+	void retiredKeyVerifiesUntilItsOverlapEnds() {
+		String token = tokens.generateAccessToken(subject, "family-1");
+		String signedWith = keyRing.signingKey().kid();
+		Instant rotatedAt = Instant.now().plusMillis(ROTATION_MS);
+
+		keyRing.refresh(rotatedAt);
+		assertThat(tokens.parseAccessToken(token).userId()).isEqualTo(42L);
+		assertThat(keyRing.signingKey().kid()).isNotEqualTo(signedWith);
+
+		keyRing.refresh(rotatedAt.plusMillis(OVERLAP_MS));
+		assertThatThrownBy(() -> tokens.parseAccessToken(token)).isInstanceOf(JwtException.class);
+		assertThat(keyRing.jwks()).hasSize(2);
+		assertThat(keyStore.load()).extracting(JwtKeyStore.StoredJwtKey::kid).doesNotContain(signedWith);
+	}
+
+	@Test
+	void instancesSharingTheStoreSignAndPublishAlike() {
+		JwtKeyRing other = keyRing();
+		JwtTokenProvider otherTokens = new JwtTokenProvider(other, 60_000L, 120_000L, "qcommerce-app");
+
+		assertThat(other.jwksEtag()).isEqualTo(keyRing.jwksEtag());
+		assertThat(otherTokens.parseAccessToken(tokens.generateAccessToken(subject, "family-1")).userId()).isEqualTo(42L);
+		assertThat(tokens.parseAccessToken(otherTokens.generateAccessToken(subject, "family-1")).userId()).isEqualTo(42L);
+
+		// Whichever instance refreshes first rotates; the other picks up the same ring instead of generating its own
+		Instant later = Instant.now().plusMillis(ROTATION_MS);
+		other.refresh(later);
+		keyRing.refresh(later);
+		assertThat(keyRing.jwksEtag()).isEqualTo(other.jwksEtag());
+		assertThat(keyRing.signingKey().kid()).isEqualTo(other.signingKey().kid());
+		assertThat(keyStore.load()).hasSize(3);
+	}
+
+	@Test
+	void tokensSurviveARestart() {
+		String token = tokens.generateAccessToken(subject, "family-1");
+
+		JwtTokenProvider restarted = new JwtTokenProvider(keyRing(), 60_000L, 120_000L, "qcommerce-app");
+
+		assertThat(restarted.parseAccessToken(token).userId()).isEqualTo(42L);
+	}
+
+	@Test
+	void nextKeyIsPublishedForTheFullLeadAfterAnOutage() {
+		String stale = keyRing.jwks().get(1).get("kid");
+		Instant muchLater = Instant.now().plusMillis(5 * ROTATION_MS);
+
+		keyRing.refresh(muchLater);
+
+		// The last stored key signs on; the new next key waits out the key-set cache lifetime plus one refresh
+		assertThat(keyRing.signingKey().kid()).isEqualTo(stale);
+		assertThat(keyStore.load()).filteredOn(key -> key.activatesAt().isAfter(muchLater))
+				.singleElement()
+				.satisfies(key -> assertThat(key.activatesAt()).isEqualTo(muchLater.plusMillis(3_600_000 + 60_000)));
+	}
+
+	@Test
+	void hs256TokenIsRejected() {
+		JwtTokenProvider hs256 = new JwtTokenProvider("zVTcy5/pa/FisoRkSHSzvFNDMsC+9zq+RwZACTT5X5k=",
+				60_000L, 120_000L, "qcommerce-app");
+
+		String token = hs256.generateAccessToken(subject, "family-1");
+
+		assertThatThrownBy(() -> tokens.parseAccessToken(token)).isInstanceOf(JwtException.class);
+	}
+
+	private JwtKeyRing keyRing() {
+		return new JwtKeyRing(keyStore, 2048, ROTATION_MS, 60_000, OVERLAP_MS, 3600);
+	}
+
+	private static PublicKey publicKey(Map<String, String> jwk) throws Exception {
+		Base64.Decoder decoder = Base64.getUrlDecoder();
+		RSAPublicKeySpec spec = new RSAPublicKeySpec(new BigInteger(1, decoder.decode(jwk.get("n"))),
+				new BigInteger(1, decoder.decode(jwk.get("e"))));
+		return KeyFactory.getInstance("RSA").generatePublic(spec);
+	}
+}
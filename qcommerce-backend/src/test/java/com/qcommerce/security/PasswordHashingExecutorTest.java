@@ -0,0 +1,131 @@
+package com.qcommerce.security;
+
+import com.qcommerce.exception.ServiceOverloadedException;
+import com.qcommerce.generated.model.Error;
+import com.qcommerce.handler.GlobalExceptionHandler;
+import com.qcommerce.model.AuthAuditEvent;
+import com.qcommerce.service.AuthAuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class PasswordHashingExecutorTest {
+
+	// Stands in for BCrypt: every hash holds its pool thread until released
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final PasswordEncoder blockingEncoder = new PasswordEncoder() {
+		@Override
+		public String encode(CharSequence rawPassword) {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "hash:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	};
+	private final List<PasswordHashingExecutor> executors = new ArrayList<>();
+	// One thread per caller, like request threads, whatever the size of the common pool
+	private final ExecutorService callers = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		executors.forEach(PasswordHashingExecutor::shutdown);
+		callers.shutdownNow();
+	}
+
+	@Test
+	void fullQueueIsRefusedWith503AndRetryAfter() throws Exception {
+		PasswordHashingExecutor executor = executor(1, 1, 7);
+		List<CompletableFuture<String>> accepted = List.of(
+				CompletableFuture.supplyAsync(() -> executor.encode("first"), callers),
+				CompletableFuture.supplyAsync(() -> executor.encode("second"), callers));
+		awaitLoad(executor, 1, 1);
+
+		assertThatThrownBy(() -> executor.matches("third", "hash:third"))
+				.isInstanceOfSatisfying(ServiceOverloadedException.class,
+						ex -> assertThat(ex.getRetryAfterSeconds()).isEqualTo(7));
+		assertThat(executor.rejectedCount()).isEqualTo(1);
+
+		AuthAuditLog auditLog = mock(AuthAuditLog.class);
+		ResponseEntity<Error> response = new GlobalExceptionHandler(new SimpleMeterRegistry(), auditLog)
+				.handleServiceOverloadedException(new ServiceOverloadedException("busy", 7),
+						new ServletWebRequest(new MockHttpServletRequest("POST", "/auth/login")));
+		assertThat(response.getStatusCode().value()).isEqualTo(503);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+		verify(auditLog).record(AuthAuditEvent.Action.LOGIN, "overloaded", null, null);
+
+		// The work already accepted still completes
+		release.countDown();
+		assertThat(accepted.get(0).get(5, TimeUnit.SECONDS)).isEqualTo("hash:first");
+		assertThat(accepted.get(1).get(5, TimeUnit.SECONDS)).isEqualTo("hash:second");
+		assertThat(executor.completedCount()).isEqualTo(2);
+	}
+
+	@Test
+	void configuredThreadsHashInParallel() throws Exception {
+		PasswordHashingExecutor executor = executor(3, 10, 1);
+		for (int i = 0; i < 4; i++) {
+			String password = "p" + i;
+			callers.execute(() -> executor.encode(password));
+		}
+
+		awaitLoad(executor, 3, 1);
+	}
+
+	@Test
+	void defaultsToOneThreadPerCore() throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+		PasswordHashingExecutor executor = executor(0, 10, 1);
+		for (int i = 0; i <= cores; i++) {
+			String password = "p" + i;
+			callers.execute(() -> executor.encode(password));
+		}
+
+		awaitLoad(executor, cores, 1);
+	}
+
+	private PasswordHashingExecutor executor(int threads, int queueCapacity, long retryAfterSeconds) {
+		PasswordHashingExecutor executor = new PasswordHashingExecutor(blockingEncoder, threads, queueCapacity,
+				retryAfterSeconds);
+		executors.add(executor);
+		return executor;
+	}
+
+	/**
+	 * Waits until exactly {@code active} hashes run and {@code queued} wait, and checks it stays that way.
+	 */
+	private static void awaitLoad(PasswordHashingExecutor executor, int active, int queued) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while ((executor.activeCount() != active || executor.queueDepth() != queued) && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		Thread.sleep(50);
+		assertThat(executor.activeCount()).isEqualTo(active);
+		assertThat(executor.queueDepth()).isEqualTo(queued);
+	}
+}
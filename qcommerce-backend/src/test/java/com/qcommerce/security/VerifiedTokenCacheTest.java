@@ -0,0 +1,63 @@
+package com.qcommerce.security;
+
+import com.qcommerce.model.RoleEntity;
+import com.qcommerce.model.UserEntity;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerifiedTokenCacheTest {
+
+	private static final String SECRET = "zVTcy5/pa/FisoRkSHSzvFNDMsC+9zq+RwZACTT5X5k=";
+
+	private JwtTokenProvider jwtTokenProvider;
+	private UserEntity user;
+
+	@BeforeEach
+	void setUp() {
+		jwtTokenProvider = new JwtTokenProvider(SECRET, 60_000L, 120_000L, "qcommerce-app");
+		user = new UserEntity("cache.user@example.com", null, "unused", null, true);
+		user.setId(7L);
+		user.setRoles(Set.of(new RoleEntity(1L, "ROLE_USER")));
+	}
+
+	@Test
+	void secondVerificationIsServedFromCache() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(jwtTokenProvider, 100);
+		String token = jwtTokenProvider.generateAccessToken(TokenSubject.of(user), "family-1");
+
+		VerifiedToken first = cache.verify(token);
+		VerifiedToken second = cache.verify(token);
+
+		assertThat(second).isSameAs(first);
+		assertThat(first.userId()).isEqualTo(7L);
+		assertThat(first.authorities()).extracting("authority").containsExactly("ROLE_USER");
+		assertThat(cache.missCount()).isEqualTo(1);
+		assertThat(cache.hitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void tamperedTokenIsRejectedAndNotCached() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(jwtTokenProvider, 100);
+		String token = jwtTokenProvider.generateAccessToken(TokenSubject.of(user), "family-1");
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		assertThatThrownBy(() -> cache.verify(tampered)).isInstanceOf(JwtException.class);
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void sizeStaysWithinBound() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(jwtTokenProvider, 10);
+		for (long id = 1; id <= 50; id++) {
+			user.setId(id);
+			cache.verify(jwtTokenProvider.generateAccessToken(TokenSubject.of(user), "family-1"));
+		}
+		assertThat(cache.size()).isLessThanOrEqualTo(10);
+	}
+}
@@ -0,0 +1,58 @@
+package com.qcommerce.service;
+
+import com.qcommerce.generated.model.Address;
+import com.qcommerce.model.AddressesChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AddressListCacheTest {
+
+	@Test
+	void cachedListIsServedUntilTheUserChangesAddresses() {
+		AddressListCache cache = new AddressListCache(100, 60_000L);
+		AddressListCache.Entry entry = cache.put(1L, cache.version(1L), List.of(address(10L, "1 Main St")));
+
+		assertThat(cache.get(1L)).isSameAs(entry);
+
+		cache.onAddressesChanged(new AddressesChangedEvent(1L));
+
+		assertThat(cache.get(1L)).isNull();
+	}
+
+	@Test
+	void listLoadedAcrossAWriteIsNotCached() {
+		AddressListCache cache = new AddressListCache(100, 60_000L);
+		long version = cache.version(1L);
+		cache.onAddressesChanged(new AddressesChangedEvent(1L)); // committed while the list was being loaded
+
+		AddressListCache.Entry entry = cache.put(1L, version, List.of(address(10L, "1 Main St")));
+
+		assertThat(entry.addresses()).hasSize(1);
+		assertThat(cache.get(1L)).isNull();
+	}
+
+	@Test
+	void etagFollowsContent() {
+		String etag = AddressListCache.etagOf(List.of(address(10L, "1 Main St")));
+
+		assertThat(etag).startsWith("\"").endsWith("\"");
+		assertThat(AddressListCache.etagOf(List.of(address(10L, "1 Main St")))).isEqualTo(etag);
+		assertThat(AddressListCache.etagOf(List.of(address(10L, "2 Main St")))).isNotEqualTo(etag);
+		assertThat(AddressListCache.etagOf(List.of())).isNotEqualTo(etag);
+	}
+
+	private static Address address(Long id, String line1) {
+		Address address = new Address();
+		address.setId(id);
+		address.setType("home");
+		address.setLine1(line1);
+		address.setCity("Anytown");
+		address.setState("CA");
+		address.setCountry("US");
+		address.setZip("90210");
+		return address;
+	}
+}
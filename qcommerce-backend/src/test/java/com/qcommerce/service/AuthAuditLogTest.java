@@ -0,0 +1,135 @@
+package com.qcommerce.service;
+
+import com.qcommerce.model.AuthAuditEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthAuditLogTest {
+
+	@TempDir
+	Path directory;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void everyEventRecordedBeforeStopIsWritten() throws Exception {
+		AuthAuditLog auditLog = auditLog(1024, AuthAuditLog.WhenFull.BLOCK, 200);
+		auditLog.start();
+
+		for (int i = 0; i < 500; i++) {
+			auditLog.record(AuthAuditEvent.Action.LOGIN, i % 2 == 0 ? AuthAuditEvent.SUCCESS : "wrong_password",
+					(long) i, "user" + i + "@example.com");
+		}
+		auditLog.record(AuthAuditEvent.Action.LOGOUT, AuthAuditEvent.SUCCESS, 7L, "quote\"d@example.com");
+		auditLog.stop();
+
+		List<String> lines = lines();
+		assertThat(lines).hasSize(501);
+		assertThat(lines.get(0)).startsWith("{\"time\":\"").endsWith(
+				"\"action\":\"LOGIN\",\"outcome\":\"success\",\"userId\":0,\"email\":\"user0@example.com\"}");
+		assertThat(lines.get(500)).contains("\"email\":\"quote\\\"d@example.com\"");
+		assertThat(meterRegistry.counter("audit.events", "result", "written").count()).isEqualTo(501);
+	}
+
+	@Test
+	void segmentsRollOverAtTheSizeLimit() throws Exception {
+		AuthAuditLog auditLog = auditLog(1024, AuthAuditLog.WhenFull.BLOCK, 1);
+		auditLog.start();
+
+		for (int i = 0; i < 100; i++) {
+			auditLog.record(AuthAuditEvent.Action.REGISTER, AuthAuditEvent.SUCCESS, (long) i, "user" + i + "@example.com");
+			Thread.sleep(1); // lets the writer take more than one batch
+		}
+		auditLog.stop();
+
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files.count()).isGreaterThan(1);
+		}
+		assertThat(lines()).hasSize(100);
+	}
+
+	@Test
+	void fullBufferDropsInsteadOfWaiting() throws Exception {
+		AuthAuditLog auditLog = new AuthAuditLog(true, 4, AuthAuditLog.WhenFull.DROP, 1_000, 100, 60_000,
+				directory.toString(), 64 * 1024 * 1024, false, meterRegistry);
+		auditLog.start();
+		Thread.sleep(100); // the writer found nothing and is parked for the flush interval
+
+		for (int i = 0; i < 10; i++) {
+			auditLog.record(AuthAuditEvent.Action.LOGIN, AuthAuditEvent.SUCCESS, (long) i, "a@example.com");
+		}
+		assertThat(meterRegistry.counter("audit.events", "result", "dropped").count()).isEqualTo(6);
+
+		auditLog.stop();
+		assertThat(lines()).hasSize(4);
+	}
+
+	@Test
+	void eventsRecordedWhileNotRunningAreCountedAsDropped() throws Exception {
+		AuthAuditLog auditLog = auditLog(1024, AuthAuditLog.WhenFull.DROP, 64 * 1024 * 1024);
+		auditLog.record(AuthAuditEvent.Action.LOGIN, AuthAuditEvent.SUCCESS, 1L, "a@example.com");
+		auditLog.start();
+		auditLog.record(AuthAuditEvent.Action.LOGIN, AuthAuditEvent.SUCCESS, 2L, "a@example.com");
+		auditLog.stop();
+		auditLog.record(AuthAuditEvent.Action.LOGOUT, AuthAuditEvent.SUCCESS, 3L, "a@example.com");
+
+		assertThat(meterRegistry.counter("audit.events", "result", "dropped").count()).isEqualTo(2);
+		assertThat(lines()).hasSize(1);
+	}
+
+	@Test
+	void eventsRacingStopAreWrittenOrCounted() throws Exception {
+		AuthAuditLog auditLog = auditLog(64, AuthAuditLog.WhenFull.BLOCK, 64 * 1024 * 1024);
+		auditLog.start();
+		int producers = 4;
+		int perProducer = 2_000;
+		CountDownLatch started = new CountDownLatch(producers);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			Thread thread = new Thread(() -> {
+				started.countDown();
+				for (int i = 0; i < perProducer; i++) {
+					auditLog.record(AuthAuditEvent.Action.LOGIN, AuthAuditEvent.SUCCESS, (long) i, "a@example.com");
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		started.await();
+
+		auditLog.stop();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		double written = meterRegistry.counter("audit.events", "result", "written").count();
+		double dropped = meterRegistry.counter("audit.events", "result", "dropped").count();
+		assertThat(written + dropped).isEqualTo(producers * perProducer);
+		assertThat(lines()).hasSize((int) written);
+	}
+
+	private AuthAuditLog auditLog(int capacity, AuthAuditLog.WhenFull whenFull, long segmentMaxBytes) {
+		return new AuthAuditLog(true, capacity, whenFull, 1_000, 100, 1, directory.toString(), segmentMaxBytes,
+				false, meterRegistry);
+	}
+
+	private List<String> lines() throws Exception {
+		List<String> lines = new ArrayList<>();
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : files.sorted().toList()) {
+				lines.addAll(Files.readAllLines(file));
+			}
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,65 @@
+package com.qcommerce.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesTest {
+
+	private static final String KEY = ReadYourWrites.userKey("a@example.com");
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void readsWithinTheWindowArePinnedToThePrimary() {
+		ReadYourWrites readYourWrites = new ReadYourWrites(true, 60_000, 100);
+
+		assertThat(readYourWrites.read(KEY, readYourWrites::isPinnedToPrimary)).isFalse();
+		readYourWrites.recordWrite(KEY);
+
+		assertThat(readYourWrites.read(KEY, readYourWrites::isPinnedToPrimary)).isTrue();
+		assertThat(readYourWrites.read(ReadYourWrites.userKey("b@example.com"), readYourWrites::isPinnedToPrimary)).isFalse();
+		assertThat(readYourWrites.isPinnedToPrimary()).isFalse();
+	}
+
+	@Test
+	void windowCloses() throws Exception {
+		ReadYourWrites readYourWrites = new ReadYourWrites(true, 20, 100);
+		readYourWrites.recordWrite(KEY);
+		assertThat(readYourWrites.isRecent(KEY)).isTrue();
+
+		Thread.sleep(40);
+
+		assertThat(readYourWrites.read(KEY, readYourWrites::isPinnedToPrimary)).isFalse();
+	}
+
+	@Test
+	void windowOpensWhenTheTransactionCommits() {
+		ReadYourWrites readYourWrites = new ReadYourWrites(true, 60_000, 100);
+		TransactionSynchronizationManager.initSynchronization();
+
+		readYourWrites.recordWrite(KEY);
+		assertThat(readYourWrites.isRecent(KEY)).isFalse();
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertThat(readYourWrites.isRecent(KEY)).isTrue();
+	}
+
+	@Test
+	void nothingIsRecordedWithoutRouting() {
+		ReadYourWrites readYourWrites = new ReadYourWrites(false, 60_000, 100);
+
+		readYourWrites.recordWrite(KEY);
+
+		assertThat(readYourWrites.isRecent(KEY)).isFalse();
+		assertThat(readYourWrites.read(KEY, readYourWrites::isPinnedToPrimary)).isFalse();
+	}
+}
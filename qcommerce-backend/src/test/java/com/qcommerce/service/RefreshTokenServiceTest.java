@@ -0,0 +1,88 @@
+package com.qcommerce.service;
+
+import com.qcommerce.generated.model.TokenPair;
+import com.qcommerce.model.UserLoginView;
+import com.qcommerce.repository.UserStore;
+import com.qcommerce.security.InMemoryRefreshTokenStore;
+import com.qcommerce.security.JwtTokenProvider;
+import com.qcommerce.security.TokenSubject;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+	private final JwtTokenProvider tokens = new JwtTokenProvider("zVTcy5/pa/FisoRkSHSzvFNDMsC+9zq+RwZACTT5X5k=",
+			60_000L, 120_000L, "qcommerce-app");
+	private final UserStore userStore = mock(UserStore.class);
+	private final RefreshTokenService service = new RefreshTokenService(tokens,
+			new InMemoryRefreshTokenStore(10, 100_000), userStore, new ReadYourWrites(false, 0, 100));
+	private final TokenSubject subject = new TokenSubject(42L, "a@example.com", List.of("ROLE_USER"));
+
+	@Test
+	void rotationReplacesThePresentedToken() {
+		user(true, "ROLE_USER");
+		RefreshTokenService.IssuedRefreshToken issued = service.startFamily(subject);
+
+		TokenPair next = service.rotate(issued.refreshToken());
+
+		assertThat(tokens.parseAccessToken(next.getAccessToken()).sessionId()).isEqualTo(issued.familyId());
+		assertThat(service.rotate(next.getRefreshToken()).getRefreshToken()).isNotEqualTo(next.getRefreshToken());
+	}
+
+	@Test
+	void reusedTokenRevokesTheWholeFamily() {
+		user(true, "ROLE_USER");
+		RefreshTokenService.IssuedRefreshToken issued = service.startFamily(subject);
+		TokenPair next = service.rotate(issued.refreshToken());
+
+		assertThatThrownBy(() -> service.rotate(issued.refreshToken())).isInstanceOf(ResponseStatusException.class);
+		// The legitimate holder's newer token is dead too
+		assertThatThrownBy(() -> service.rotate(next.getRefreshToken())).isInstanceOf(ResponseStatusException.class);
+	}
+
+	@Test
+	void revokedFamilyCannotRefresh() {
+		user(true, "ROLE_USER");
+		RefreshTokenService.IssuedRefreshToken issued = service.startFamily(subject);
+
+		service.revokeFamily(issued.familyId());
+
+		assertThatThrownBy(() -> service.rotate(issued.refreshToken())).isInstanceOf(ResponseStatusException.class);
+	}
+
+	@Test
+	void refreshPicksUpCurrentRoles() {
+		RefreshTokenService.IssuedRefreshToken issued = service.startFamily(subject);
+		user(true, "ROLE_ADMIN");
+
+		TokenPair next = service.rotate(issued.refreshToken());
+
+		assertThat(tokens.parseAccessToken(next.getAccessToken()).authorities())
+				.extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+	}
+
+	@Test
+	void deactivatedUserGetsNoMoreTokens() {
+		RefreshTokenService.IssuedRefreshToken issued = service.startFamily(subject);
+		user(false, "ROLE_USER");
+
+		assertThatThrownBy(() -> service.rotate(issued.refreshToken())).isInstanceOf(ResponseStatusException.class);
+		// Reactivation does not bring the family back
+		user(true, "ROLE_USER");
+		assertThatThrownBy(() -> service.rotate(issued.refreshToken())).isInstanceOf(ResponseStatusException.class);
+	}
+
+	private void user(boolean active, String role) {
+		when(userStore.findLoginViewById(42L)).thenReturn(Optional.of(new UserLoginView(42L, "a@example.com", "hash",
+				active, null, "en-US", List.of(new UserLoginView.RoleSummary(1L, role)))));
+	}
+}
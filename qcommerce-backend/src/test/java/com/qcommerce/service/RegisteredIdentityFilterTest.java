@@ -0,0 +1,127 @@
+package com.qcommerce.service;
+
+import com.qcommerce.exception.UserAlreadyExistsException;
+import com.qcommerce.generated.model.UserRegistration;
+import com.qcommerce.mapper.UserMapperImpl;
+import com.qcommerce.model.UserEntity;
+import com.qcommerce.repository.InMemoryStorage;
+import com.qcommerce.security.InMemoryRefreshTokenStore;
+import com.qcommerce.security.JwtTokenProvider;
+import com.qcommerce.security.PasswordHashingExecutor;
+import com.qcommerce.security.TokenRevocationStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class RegisteredIdentityFilterTest {
+
+	private final InMemoryStorage userStore = spy(new InMemoryStorage(""));
+	private final PasswordHashingExecutor passwordHashingExecutor = new PasswordHashingExecutor(
+			new BCryptPasswordEncoder(4), 1, 10, 1);
+
+	@AfterEach
+	void shutdown() {
+		passwordHashingExecutor.shutdown();
+	}
+
+	@Test
+	void definitelyNewUserSkipsTheExistenceQueries() {
+		RegisteredIdentityFilter filter = warmFilter(1_000, 0.01);
+		AuthService authService = authService(filter);
+
+		authService.registerUser(registration("new@example.com", "+14155550100"));
+
+		verify(userStore, never()).existsByEmail(anyString());
+		verify(userStore, never()).existsByPhone(anyString());
+		assertThat(userStore.findLoginViewByEmail("new@example.com")).isPresent();
+	}
+
+	@Test
+	void falsePositiveIsConfirmedAndLetThrough() {
+		// Two expected entries filled with hundreds: every bit is set, so any email "might be registered"
+		RegisteredIdentityFilter filter = warmFilter(2, 0.01);
+		for (int i = 0; i < 500; i++) {
+			filter.add("other" + i + "@example.com", null);
+		}
+		assertThat(filter.mightBeRegistered("new@example.com", null)).isTrue();
+		AuthService authService = authService(filter);
+
+		authService.registerUser(registration("new@example.com", "+14155550100"));
+
+		verify(userStore).existsByEmail("new@example.com");
+		verify(userStore).existsByPhone("+14155550100");
+		assertThat(userStore.findLoginViewByEmail("new@example.com")).isPresent();
+	}
+
+	@Test
+	void registeredUserIsNeverReportedAsNew() {
+		RegisteredIdentityFilter filter = warmFilter(1_000, 0.01);
+		AuthService authService = authService(filter);
+		authService.registerUser(registration("Taken@example.com", "+14155550100"));
+		clearInvocations(userStore);
+
+		assertThat(filter.mightBeRegistered("taken@example.com", null)).isTrue();
+		assertThat(filter.mightBeRegistered("someone@example.com", "+14155550100")).isTrue();
+		assertThatThrownBy(() -> authService.registerUser(registration("TAKEN@example.com", null)))
+				.isInstanceOf(UserAlreadyExistsException.class);
+		verify(userStore).existsByEmail("taken@example.com");
+
+		for (int i = 0; i < 1_000; i++) {
+			filter.add("user" + i + "@example.com", "+1415556" + String.format("%04d", i));
+		}
+		for (int i = 0; i < 1_000; i++) {
+			assertThat(filter.mightBeRegistered("user" + i + "@example.com", null)).isTrue();
+			assertThat(filter.mightBeRegistered("nobody@example.com", "+1415556" + String.format("%04d", i))).isTrue();
+		}
+	}
+
+	@Test
+	void coldFilterLeavesDuplicatesToTheConstraints() {
+		UserEntity existing = new UserEntity();
+		existing.setEmail("taken@example.com");
+		existing.setPasswordHash("x");
+		existing.setActive(true);
+		existing.setRoles(Set.of());
+		userStore.insert(existing);
+		RegisteredIdentityFilter filter = new RegisteredIdentityFilter(userStore, 1_000, 0.01);
+
+		assertThat(filter.mightBeRegistered("taken@example.com", null)).isFalse();
+		filter.warmUp();
+		assertThat(filter.isReady()).isTrue();
+		assertThat(filter.mightBeRegistered("taken@example.com", null)).isTrue();
+	}
+
+	private RegisteredIdentityFilter warmFilter(long expectedEntries, double falsePositiveProbability) {
+		RegisteredIdentityFilter filter = new RegisteredIdentityFilter(userStore, expectedEntries, falsePositiveProbability);
+		filter.warmUp();
+		return filter;
+	}
+
+	private AuthService authService(RegisteredIdentityFilter filter) {
+		JwtTokenProvider jwtTokenProvider = new JwtTokenProvider("zVTcy5/pa/FisoRkSHSzvFNDMsC+9zq+RwZACTT5X5k=",
+				60_000L, 120_000L, "qcommerce-app");
+		ReadYourWrites readYourWrites = new ReadYourWrites(false, 0, 1);
+		RefreshTokenService refreshTokenService = new RefreshTokenService(jwtTokenProvider,
+				new InMemoryRefreshTokenStore(10, 100_000), userStore, readYourWrites);
+		return new AuthService(userStore, new RoleRegistry(userStore), passwordHashingExecutor, jwtTokenProvider,
+				mock(TokenRevocationStore.class), refreshTokenService, filter, new UserMapperImpl(), readYourWrites,
+				mock(AuthAuditLog.class), new SimpleMeterRegistry());
+	}
+
+	private static UserRegistration registration(String email, String phone) {
+		UserRegistration registration = new UserRegistration().email(email).password("Str0ngP@ss!");
+		return phone == null ? registration : registration.phone(phone);
+	}
+}
@@ -0,0 +1,66 @@
+package com.qcommerce.service;
+
+import com.qcommerce.exception.InvalidInputException;
+import com.qcommerce.generated.model.RoleReference;
+import com.qcommerce.model.RoleChangedEvent;
+import com.qcommerce.model.RoleEntity;
+import com.qcommerce.repository.RoleStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoleRegistryTest {
+
+	private static final RoleEntity USER = new RoleEntity(1L, "ROLE_USER");
+	private static final RoleEntity ADMIN = new RoleEntity(2L, "ROLE_ADMIN");
+
+	private final List<RoleEntity> roles = new ArrayList<>(List.of(USER, ADMIN));
+	private final RoleStore roleStore = () -> List.copyOf(roles);
+	private final RoleRegistry registry = new RoleRegistry(roleStore);
+
+	@Test
+	void resolvesKnownRolesOnceEach() {
+		registry.reload();
+
+		assertThat(registry.resolve(List.of(new RoleReference(2L), new RoleReference(1L), new RoleReference(2L))))
+				.containsExactly(ADMIN, USER);
+		assertThat(registry.resolve(List.of())).isEmpty();
+		assertThat(registry.findById(1L)).containsSame(USER);
+		assertThat(registry.findByName("ROLE_ADMIN")).containsSame(ADMIN);
+		assertThat(registry.findAll()).containsExactlyInAnyOrder(USER, ADMIN);
+	}
+
+	@Test
+	void unknownRolesAreRejected() {
+		registry.reload();
+
+		assertThatThrownBy(() -> registry.resolve(List.of(new RoleReference(1L), new RoleReference(99L))))
+				.isInstanceOfSatisfying(InvalidInputException.class, ex -> {
+					assertThat(ex.getMessage()).isEqualTo("Invalid role ID: 99");
+					assertThat(ex.getDetails()).isEqualTo("roles[1].id");
+				});
+		assertThatThrownBy(() -> registry.resolve(List.of(new RoleReference())))
+				.isInstanceOfSatisfying(InvalidInputException.class,
+						ex -> assertThat(ex.getDetails()).isEqualTo("roles[0].id"));
+		assertThat(registry.findById(99L)).isEmpty();
+		assertThat(registry.findByName("ROLE_ROOT")).isEmpty();
+		assertThat(registry.findByName("role_user")).isEmpty();
+	}
+
+	@Test
+	void reloadPicksUpChangedRoles() {
+		registry.reload();
+		RoleEntity support = new RoleEntity(3L, "ROLE_SUPPORT");
+		roles.add(support);
+		assertThat(registry.findByName("ROLE_SUPPORT")).isEmpty();
+
+		registry.onRoleChanged(new RoleChangedEvent(3L));
+
+		assertThat(registry.findByName("ROLE_SUPPORT")).containsSame(support);
+		assertThat(registry.resolve(List.of(new RoleReference(3L)))).containsExactly(support);
+	}
+}
@@ -0,0 +1,36 @@
+package com.qcommerce.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserImportCsvTest {
+
+	private static final String[] HEADER = {"email", "password", "roles", "active", "note"};
+
+	@Test
+	void quotedFieldsKeepCommasAndEscapedQuotes() {
+		assertThat(UserImportService.CsvLine.split("a,\"b,c\",\"say \"\"hi\"\"\",")).containsExactly("a", "b,c", "say \"hi\"", "");
+	}
+
+	@Test
+	void rowIsMappedByHeaderWithPipeSeparatedRoles() {
+		UserImportService.UserImportRecord record = UserImportService.CsvLine.toRecord(HEADER,
+				"jane@example.com,secret,ROLE_USER|ROLE_ADMIN,false,ignored");
+
+		assertThat(record.email()).isEqualTo("jane@example.com");
+		assertThat(record.password()).isEqualTo("secret");
+		assertThat(record.passwordHash()).isNull();
+		assertThat(record.roles()).containsExactly("ROLE_USER", "ROLE_ADMIN");
+		assertThat(record.active()).isFalse();
+	}
+
+	@Test
+	void rowWithWrongColumnCountIsRejected() {
+		assertThatThrownBy(() -> UserImportService.CsvLine.toRecord(HEADER, "jane@example.com,secret"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> UserImportService.CsvLine.split("\"unterminated"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,82 @@
+package com.qcommerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingBufferTest {
+
+	@Test
+	void refusesWhenFullAndWrapsAround() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3); // rounded up to 4
+		assertThat(buffer.capacity()).isEqualTo(4);
+
+		for (int lap = 0; lap < 3; lap++) {
+			for (int i = 0; i < 4; i++) {
+				assertThat(buffer.offer(lap * 10 + i)).isTrue();
+			}
+			assertThat(buffer.offer(-1)).isFalse();
+			assertThat(buffer.size()).isEqualTo(4);
+
+			List<Integer> drained = new ArrayList<>();
+			assertThat(buffer.drain(drained::add, 10)).isEqualTo(4);
+			assertThat(drained).containsExactly(lap * 10, lap * 10 + 1, lap * 10 + 2, lap * 10 + 3);
+			assertThat(buffer.poll()).isNull();
+		}
+	}
+
+	@Test
+	void concurrentProducersLoseNothingAndKeepTheirOwnOrder() throws Exception {
+		int producers = 4;
+		int perProducer = 50_000;
+		MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(256);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			long producer = p;
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				// Yielding rather than spinning when full: on a single core a spinning producer starves the consumer
+				for (long i = 0; i < perProducer; i++) {
+					long[] element = {producer, i};
+					while (!buffer.offer(element)) {
+						Thread.yield();
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+
+		// Order is tallied per element and asserted once at the end
+		long[] next = new long[producers];
+		int outOfOrder = 0;
+		int received = 0;
+		start.countDown();
+		while (received < producers * perProducer) {
+			long[] element = buffer.poll();
+			if (element == null) {
+				Thread.yield();
+				continue;
+			}
+			if (element[1] != next[(int) element[0]]++) {
+				outOfOrder++;
+			}
+			received++;
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(outOfOrder).isZero();
+		assertThat(next).containsOnly(perProducer);
+		assertThat(buffer.poll()).isNull();
+	}
+}
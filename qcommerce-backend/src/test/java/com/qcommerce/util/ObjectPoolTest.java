@@ -0,0 +1,33 @@
+package com.qcommerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ObjectPoolTest {
+
+	@Test
+	void reusesReleasedInstancesAndKeepsAtMostCapacity() {
+		AtomicInteger created = new AtomicInteger();
+		ObjectPool<StringBuilder> pool = new ObjectPool<>(2, () -> {
+			created.incrementAndGet();
+			return new StringBuilder();
+		});
+
+		StringBuilder first = pool.acquire();
+		pool.release(first);
+		assertThat(pool.acquire()).isSameAs(first);
+		assertThat(created).hasValue(1);
+
+		StringBuilder a = pool.acquire();
+		StringBuilder b = pool.acquire();
+		StringBuilder c = pool.acquire();
+		pool.release(a);
+		pool.release(b);
+		pool.release(c);
+		assertThat(pool.idleCount()).isEqualTo(2);
+		assertThat(created).hasValue(4);
+	}
+}
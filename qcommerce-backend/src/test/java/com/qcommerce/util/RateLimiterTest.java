@@ -0,0 +1,57 @@
+package com.qcommerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+	@Test
+	void burstIsAdmittedThenRequestsWaitForRefill() {
+		RateLimiter limiter = new RateLimiter(3, 60, 100);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+		}
+		long wait = limiter.tryAcquire("10.0.0.1");
+
+		// One token per second at 60 per minute
+		assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+		assertThat(limiter.tryAcquire("10.0.0.2")).isZero();
+	}
+
+	@Test
+	void idleBucketsAreEvictedAndTheMapStaysBounded() throws InterruptedException {
+		RateLimiter limiter = new RateLimiter(1, 6_000, 1_000); // refills in 10 ms
+
+		for (int i = 0; i < 5_000; i++) {
+			limiter.tryAcquire("user" + i + "@example.com");
+		}
+		assertThat(limiter.size()).isLessThanOrEqualTo(1_000);
+
+		Thread.sleep(20);
+		limiter.evictIdle();
+
+		assertThat(limiter.size()).isZero();
+	}
+
+	@Test
+	void fullLimiterRefusesNewKeysInsteadOfResettingTrackedOnes() {
+		RateLimiter limiter = new RateLimiter(2, 1, 3); // one token a minute
+		assertThat(limiter.tryAcquire("victim@example.com")).isZero();
+		assertThat(limiter.tryAcquire("victim@example.com")).isZero();
+		assertThat(limiter.tryAcquire("a@example.com")).isZero();
+		assertThat(limiter.tryAcquire("b@example.com")).isZero();
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(limiter.tryAcquire("flood" + i + "@example.com"))
+					.isEqualTo(TimeUnit.MINUTES.toNanos(2));
+		}
+
+		assertThat(limiter.size()).isEqualTo(3);
+		assertThat(limiter.tryAcquire("victim@example.com")).isPositive();
+		assertThat(limiter.tryAcquire("a@example.com")).isZero();
+	}
+}
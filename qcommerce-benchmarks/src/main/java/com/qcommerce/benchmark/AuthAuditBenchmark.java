@@ -0,0 +1,108 @@
+package com.qcommerce.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.qcommerce.model.AuthAuditEvent;
+import com.qcommerce.service.AuthAuditLog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * What the auth audit trail adds to a login: {@link AuthAuditLog#record} (enqueue only, the background writer
+ * appends to a segment file) against encoding the event as the same NDJSON line and appending it to a file on the
+ * request thread. Files go to a temporary directory deleted at the end. With {@code whenFull=DROP} the writer may
+ * fall behind the benchmark loop, which then also measures the drop path; the teardown prints how many events
+ * were written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthAuditBenchmark {
+
+    @Param({"DROP", "BLOCK"})
+    public AuthAuditLog.WhenFull whenFull;
+
+    private Path directory;
+    private SimpleMeterRegistry meterRegistry;
+    private AuthAuditLog auditLog;
+    private FileChannel synchronousFile;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ByteArrayOutputStream encoded = new ByteArrayOutputStream(256);
+    private long userId;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("auth-audit-bench");
+        meterRegistry = new SimpleMeterRegistry();
+        auditLog = new AuthAuditLog(true, 65_536, whenFull, 100, 1_000, 200, directory.resolve("async").toString(),
+                64L * 1024 * 1024, false, meterRegistry);
+        auditLog.start();
+        synchronousFile = FileChannel.open(directory.resolve("sync.ndjson"), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        auditLog.stop();
+        synchronousFile.close();
+        System.out.printf("%naudit.events written=%.0f dropped=%.0f%n",
+                meterRegistry.counter("audit.events", "result", "written").count(),
+                meterRegistry.counter("audit.events", "result", "dropped").count());
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void record() {
+        auditLog.record(AuthAuditEvent.Action.LOGIN, AuthAuditEvent.SUCCESS, ++userId, "bench.user@example.com");
+    }
+
+    @Benchmark
+    public void appendOnRequestThread() throws IOException {
+        encoded.reset();
+        try (JsonGenerator json = jsonFactory.createGenerator(encoded)) {
+            json.writeStartObject();
+            json.writeStringField("time", Instant.ofEpochMilli(System.currentTimeMillis()).toString());
+            json.writeStringField("action", AuthAuditEvent.Action.LOGIN.name());
+            json.writeStringField("outcome", AuthAuditEvent.SUCCESS);
+            json.writeNumberField("userId", ++userId);
+            json.writeStringField("email", "bench.user@example.com");
+            json.writeEndObject();
+        }
+        encoded.write('\n');
+        ByteBuffer line = ByteBuffer.wrap(encoded.toByteArray());
+        while (line.hasRemaining()) {
+            synchronousFile.write(line);
+        }
+    }
+}
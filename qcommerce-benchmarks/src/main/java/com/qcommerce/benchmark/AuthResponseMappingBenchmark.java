@@ -0,0 +1,86 @@
+package com.qcommerce.benchmark;
+
+import com.qcommerce.generated.model.AuthResponse;
+import com.qcommerce.generated.model.User;
+import com.qcommerce.mapper.UserMapper;
+import com.qcommerce.model.RoleEntity;
+import com.qcommerce.model.UserEntity;
+import com.qcommerce.model.UserLoginView;
+import com.qcommerce.security.InMemoryRefreshTokenStore;
+import com.qcommerce.security.JwtTokenProvider;
+import com.qcommerce.security.TokenSubject;
+import com.qcommerce.service.RefreshTokenService;
+
+import org.mapstruct.factory.Mappers;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The response every login and registration ends in: the generated user-to-API-model mapping on its own, and the
+ * whole {@link AuthResponse} the way {@code AuthService} builds it (refresh-token family, access token, mapped
+ * user), put together from the same public components. No database involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthResponseMappingBenchmark {
+
+    private InMemoryRefreshTokenStore refreshTokenStore;
+    private RefreshTokenService refreshTokenService;
+    private JwtTokenProvider jwtTokenProvider;
+    private UserMapper userMapper;
+    private UserLoginView user;
+
+    @Setup
+    public void setUp() {
+        // Refresh tokens expire at once so the families created per call can be swept between iterations; no caps,
+        // so no call pays for evicting an older session
+        jwtTokenProvider = new JwtTokenProvider(TokenVerificationBenchmark.SECRET, 86_400_000L, 1L, "qcommerce-app");
+        refreshTokenStore = new InMemoryRefreshTokenStore(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        refreshTokenService = new RefreshTokenService(jwtTokenProvider, refreshTokenStore, null, null);
+        userMapper = Mappers.getMapper(UserMapper.class);
+
+        UserEntity entity = new UserEntity("bench.user@example.com", "+14155552671", "unused", "en-US", true);
+        entity.setId(42L);
+        entity.setRoles(Set.of(new RoleEntity(1L, "ROLE_USER"), new RoleEntity(2L, "ROLE_ADMIN")));
+        user = UserLoginView.of(entity);
+    }
+
+    @TearDown(Level.Iteration)
+    public void sweepRefreshFamilies() {
+        refreshTokenStore.sweepExpired();
+    }
+
+    @Benchmark
+    public User userMapping() {
+        return userMapper.toUser(user);
+    }
+
+    @Benchmark
+    public AuthResponse authResponse() {
+        TokenSubject tokenSubject = TokenSubject.of(user);
+        RefreshTokenService.IssuedRefreshToken refreshToken = refreshTokenService.startFamily(tokenSubject);
+        AuthResponse authResponse = new AuthResponse();
+        authResponse.setAccessToken(jwtTokenProvider.generateAccessToken(tokenSubject, refreshToken.familyId()));
+        authResponse.setRefreshToken(JsonNullable.of(refreshToken.refreshToken()));
+        authResponse.setUser(userMapper.toUser(user));
+        return authResponse;
+    }
+}
@@ -0,0 +1,52 @@
+package com.qcommerce.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: the JMH command line with defaults suited to comparing commits.
+ * <ul>
+ *   <li>Results are written as JSON to {@code jmh-result.json} unless {@code -rf}/{@code -rff} are given,
+ *       so two runs can be diffed or loaded into a JMH visualizer.</li>
+ *   <li>Benchmarks that need a database ({@link LoginQueryBenchmark}) are skipped unless {@code -Dbenchmarks.database=true}
+ *       is set or benchmarks are selected explicitly.</li>
+ * </ul>
+ * Every other JMH option is passed through unchanged, e.g. {@code java -jar benchmarks.jar Token -prof gc}.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.addAll(List.of("-rf", "json"));
+        }
+        if (!options.contains("-rff")) {
+            options.addAll(List.of("-rff", "jmh-result.json"));
+        }
+        if (!Boolean.getBoolean("benchmarks.database") && !hasIncludePattern(args)) {
+            options.addAll(List.of("-e", LoginQueryBenchmark.class.getSimpleName()));
+        }
+        Main.main(options.toArray(String[]::new));
+    }
+
+    // JMH treats every argument that is not an option or an option's value as an include regexp
+    private static boolean hasIncludePattern(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("-")) {
+                if (!args[i].equals("-h") && !args[i].equals("-l") && !args[i].equals("-lp") && !args[i].equals("-lrf")
+                        && !args[i].equals("-lprof")) {
+                    i++; // skip the option's value
+                }
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+}
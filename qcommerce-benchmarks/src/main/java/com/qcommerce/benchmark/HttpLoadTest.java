@@ -0,0 +1,213 @@
+package com.qcommerce.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load against a running backend, used to compare the platform-thread and virtual-thread modes
+ * end to end (Tomcat, security filters, JDBC pool, database), which the in-process JMH benchmarks do not cover.
+ * <p>
+ * {@code concurrency} clients each send the next request as soon as the previous answer arrives, for {@code warmup}
+ * seconds unrecorded and then {@code duration} seconds recorded; throughput, latency percentiles and status codes
+ * are printed at the end. Being closed-loop, latencies under saturation are understated (a slow answer also delays
+ * the next request), so compare modes at equal concurrency rather than reading the numbers as absolute. Clients
+ * honour {@code Retry-After} on 429/503 answers, as real ones would, rather than retrying in a tight loop.
+ * <pre>
+ * java -cp target/benchmarks.jar com.qcommerce.benchmark.HttpLoadTest scenario=login concurrency=200 \
+ *     email=loadtest@example.com password=... [url=http://localhost:8080] [duration=30] [warmup=10]
+ * </pre>
+ * Scenarios:
+ * <ul>
+ *   <li>{@code login}: {@code POST /auth/login}. Start the backend with {@code --auth-throttling.enabled=false},
+ *       otherwise the per-IP and per-email limits answer most requests with 429.</li>
+ *   <li>{@code addresses}: {@code GET /users/me/addresses} with a token obtained by one login up front.
+ *       {@code --addresses.cache.max-users=0} makes every request read the database.</li>
+ * </ul>
+ */
+public final class HttpLoadTest {
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "url", "http://localhost:8080",
+                "scenario", "login",
+                "concurrency", "50",
+                "duration", "30",
+                "warmup", "10"));
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 1) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        String baseUrl = options.get("url");
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String loginBody = new ObjectMapper().writeValueAsString(
+                Map.of("email", required(options, "email"), "password", required(options, "password")));
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(loginBody))
+                .build();
+
+        HttpRequest request = switch (options.get("scenario")) {
+            case "login" -> login;
+            case "addresses" -> HttpRequest.newBuilder(URI.create(baseUrl + "/users/me/addresses"))
+                    .header("Authorization", "Bearer " + accessToken(client, login))
+                    .GET()
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown scenario " + options.get("scenario"));
+        };
+
+        System.out.printf("%s %s, %d clients, %ss warm-up, %ss measured%n", request.method(), request.uri(),
+                concurrency, options.get("warmup"), options.get("duration"));
+        run(client, request, concurrency, Duration.ofSeconds(Long.parseLong(options.get("warmup"))));
+        Result result = run(client, request, concurrency, Duration.ofSeconds(Long.parseLong(options.get("duration"))));
+        result.print();
+    }
+
+    private static String required(Map<String, String> options, String key) {
+        String value = options.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException(key + "=... is required");
+        }
+        return value;
+    }
+
+    private static String accessToken(HttpClient client, HttpRequest login) throws Exception {
+        HttpResponse<String> response = client.send(login, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+        }
+        return new ObjectMapper().readTree(response.body()).get("accessToken").asText();
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, Duration duration)
+            throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Future<Worker>> futures = new ArrayList<>(concurrency);
+        // One virtual thread per client, so the driver itself is not bounded by a thread pool
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                Worker worker = new Worker();
+                futures.add(executor.submit(() -> worker.run(client, request, deadline)));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Result result = new Result(elapsed);
+        for (Future<Worker> future : futures) {
+            result.add(future.get());
+        }
+        return result;
+    }
+
+    private static final class Worker {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private final Map<String, Integer> outcomes = new HashMap<>();
+
+        Worker run(HttpClient client, HttpRequest request, long deadline) {
+            while (System.nanoTime() < deadline) {
+                long sent = System.nanoTime();
+                String outcome;
+                long retryAfterSeconds = 0;
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    outcome = Integer.toString(response.statusCode());
+                    retryAfterSeconds = response.headers().firstValueAsLong("Retry-After").orElse(0);
+                } catch (Exception ex) {
+                    outcome = ex.getClass().getSimpleName();
+                }
+                record(System.nanoTime() - sent);
+                outcomes.merge(outcome, 1, Integer::sum);
+                if (retryAfterSeconds > 0) {
+                    // Back off like a well-behaved client instead of hammering a server that is shedding load
+                    sleepUntil(Math.min(deadline, System.nanoTime() + retryAfterSeconds * 1_000_000_000L));
+                }
+            }
+            return this;
+        }
+
+        private static void sleepUntil(long nanoTime) {
+            long remaining = nanoTime - System.nanoTime();
+            if (remaining > 0) {
+                try {
+                    Thread.sleep(Duration.ofNanos(remaining));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private static final class Result {
+
+        private final long elapsedNanos;
+        private final List<long[]> latencies = new ArrayList<>();
+        private final Map<String, Integer> outcomes = new TreeMap<>();
+        private int requests;
+
+        Result(long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        void add(Worker worker) {
+            latencies.add(Arrays.copyOf(worker.latencies, worker.count));
+            worker.outcomes.forEach((outcome, n) -> outcomes.merge(outcome, n, Integer::sum));
+            requests += worker.count;
+        }
+
+        void print() {
+            long[] all = new long[requests];
+            int offset = 0;
+            for (long[] part : latencies) {
+                System.arraycopy(part, 0, all, offset, part.length);
+                offset += part.length;
+            }
+            Arrays.sort(all);
+            System.out.printf("requests %d, %.1f req/s, responses %s%n", requests,
+                    requests / (elapsedNanos / 1e9), outcomes);
+            System.out.printf("latency ms: p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+                    percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), percentile(all, 1.0));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.qcommerce.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qcommerce.config.JacksonConfig;
+import com.qcommerce.generated.model.Address;
+import com.qcommerce.generated.model.AuthResponse;
+import com.qcommerce.generated.model.Role;
+import com.qcommerce.generated.model.User;
+
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the generated response models, with an ObjectMapper built the way Spring Boot builds
+ * the application's (well-known modules plus the {@code JsonNullableModule} from {@code JacksonConfig}),
+ * using Jackson's generic bean serializers or the specialized ones {@code JacksonConfig} also registers.
+ * Setup fails unless both write identical bytes for every benchmarked value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"generic", "specialized"})
+    public String serializers;
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private AuthResponse authResponse;
+    private List<Address> addresses;
+    private byte[] authResponseJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper generic = Jackson2ObjectMapperBuilder.json().modulesToInstall(new JsonNullableModule()).build();
+        ObjectMapper specialized = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new JsonNullableModule(), new JacksonConfig().generatedModelSerializers())
+                .build();
+        objectMapper = "specialized".equals(serializers) ? specialized : generic;
+
+        user = new User();
+        user.setId(42L);
+        user.setEmail("bench.user@example.com");
+        user.setPhone(JsonNullable.of("+14155552671"));
+        user.setLocale(JsonNullable.of("en-US"));
+        user.setIsActive(true);
+        Role userRole = new Role();
+        userRole.setId(1L);
+        userRole.setName("ROLE_USER");
+        Role adminRole = new Role();
+        adminRole.setId(2L);
+        adminRole.setName("ROLE_ADMIN");
+        user.setRoles(JsonNullable.of(List.of(userRole, adminRole)));
+
+        // Token-sized strings; the content does not matter to Jackson
+        authResponse = new AuthResponse();
+        authResponse.setAccessToken("a".repeat(420));
+        authResponse.setRefreshToken(JsonNullable.of("r".repeat(330)));
+        authResponse.setUser(user);
+        authResponseJson = objectMapper.writeValueAsBytes(authResponse);
+
+        // What GET /users/me/addresses returns for a user with a few addresses
+        Address home = new Address().id(1L).type("SHIPPING").line1("1 Main St").line2("Apt 2").city("Springfield")
+                .state("IL").country("US").zip("62701").phone("+14155552671");
+        Address work = new Address().id(2L).type("BILLING").line1("500 Market St").city("San Francisco")
+                .state("CA").country("US").zip("94105");
+        addresses = List.of(home, work, home);
+
+        for (Object value : List.of(user, authResponse, addresses)) {
+            if (!Arrays.equals(generic.writeValueAsBytes(value), specialized.writeValueAsBytes(value))) {
+                throw new IllegalStateException("Specialized serializers changed the JSON of " + value);
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws IOException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeAuthResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(authResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeAddresses() throws IOException {
+        return objectMapper.writeValueAsBytes(addresses);
+    }
+
+    @Benchmark
+    public AuthResponse deserializeAuthResponse() throws IOException {
+        return objectMapper.readValue(authResponseJson, AuthResponse.class);
+    }
+}
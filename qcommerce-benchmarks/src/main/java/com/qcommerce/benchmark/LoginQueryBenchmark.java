@@ -0,0 +1,81 @@
+package com.qcommerce.benchmark;
+
+import com.qcommerce.QcommerceApplication;
+import com.qcommerce.model.UserEntity;
+import com.qcommerce.model.UserLoginView;
+import com.qcommerce.repository.UserRepository;
+import com.qcommerce.security.TokenSubject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database side of a login: the managed, eagerly-fetched {@link UserEntity} load inside a read-only
+ * transaction that login used to do, against the single-statement {@link UserLoginView} projection.
+ * Password hashing is left out. Needs the database configured in qcommerce-backend's application.yaml
+ * (override with -Dspring.datasource.url=...); run with {@code -prof gc} to compare allocation per login.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginQueryBenchmark {
+
+    private static final String EMAIL = "bench.login@example.com";
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(QcommerceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.main.banner-mode=off", "--logging.level.root=WARN", "--spring.jpa.show-sql=false");
+        userRepository = context.getBean(UserRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        // A user with every known role, so both paths carry the same join
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into users (email, password_hash, is_active, locale) values (?, 'unused', true, 'en-US') "
+                + "on conflict do nothing", EMAIL);
+        jdbcTemplate.update("insert into user_roles (user_id, role_id) select u.id, r.id from users u cross join roles r "
+                + "where u.email = ? and not exists (select 1 from user_roles ur where ur.user_id = u.id and ur.role_id = r.id)",
+                EMAIL);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TokenSubject entityLoad() {
+        return readOnlyTransaction.execute(status -> TokenSubject.of(userRepository.findByEmail(EMAIL).orElseThrow()));
+    }
+
+    @Benchmark
+    public TokenSubject projection() {
+        return TokenSubject.of(userRepository.findLoginViewByEmail(EMAIL).orElseThrow());
+    }
+}
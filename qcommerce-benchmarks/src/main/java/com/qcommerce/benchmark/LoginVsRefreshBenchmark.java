@@ -0,0 +1,78 @@
+package com.qcommerce.benchmark;
+
+import com.qcommerce.generated.model.TokenPair;
+import com.qcommerce.model.UserEntity;
+import com.qcommerce.repository.InMemoryStorage;
+import com.qcommerce.security.InMemoryRefreshTokenStore;
+import com.qcommerce.security.JwtTokenProvider;
+import com.qcommerce.security.TokenSubject;
+import com.qcommerce.service.ReadYourWrites;
+import com.qcommerce.service.RefreshTokenService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of the work a client triggers to obtain fresh tokens: a password login (BCrypt at the default
+ * strength plus token minting) against a refresh-token rotation. Database time is excluded from both (the user
+ * lookup of a refresh hits {@link InMemoryStorage}), so the ratio of the two scores is the CPU saved per avoided login.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginVsRefreshBenchmark {
+
+    private static final String PASSWORD = "Str0ngP@ss!";
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private JwtTokenProvider jwtTokenProvider;
+    private RefreshTokenService refreshTokenService;
+    private UserEntity user;
+    private String currentRefreshToken;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder();
+        jwtTokenProvider = new JwtTokenProvider(TokenVerificationBenchmark.SECRET, 86_400_000L, 604_800_000L, "qcommerce-app");
+        InMemoryStorage userStore = new InMemoryStorage("");
+        refreshTokenService = new RefreshTokenService(jwtTokenProvider, new InMemoryRefreshTokenStore(10, 100_000),
+                userStore, new ReadYourWrites(false, 0, 1));
+        user = TokenVerificationBenchmark.sampleUser();
+        user.setPasswordHash(passwordEncoder.encode(PASSWORD));
+        userStore.insert(user);
+        currentRefreshToken = refreshTokenService.startFamily(TokenSubject.of(user)).refreshToken();
+    }
+
+    @Benchmark
+    public void login(Blackhole blackhole) {
+        if (!passwordEncoder.matches(PASSWORD, user.getPasswordHash())) {
+            throw new IllegalStateException("password mismatch");
+        }
+        TokenSubject subject = TokenSubject.of(user);
+        RefreshTokenService.IssuedRefreshToken refreshToken = refreshTokenService.startFamily(subject);
+        blackhole.consume(refreshToken);
+        blackhole.consume(jwtTokenProvider.generateAccessToken(subject, refreshToken.familyId()));
+    }
+
+    @Benchmark
+    public TokenPair refresh() {
+        TokenPair tokenPair = refreshTokenService.rotate(currentRefreshToken);
+        currentRefreshToken = tokenPair.getRefreshToken();
+        return tokenPair;
+    }
+}
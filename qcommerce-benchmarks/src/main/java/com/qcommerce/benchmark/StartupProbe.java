@@ -0,0 +1,160 @@
+package com.qcommerce.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Launches the backend, waits for it to report ready, then logs in sequentially and reports how long a fresh
+ * instance takes to serve its first login and to reach steady-state login latency. This is what a scale-out on a
+ * login spike pays, and what the {@code fast-startup} build (AOT + CDS + {@code StartupWarmup}) is meant to cut.
+ * <pre>
+ * java -cp target/benchmarks.jar com.qcommerce.benchmark.StartupProbe email=loadtest@example.com password=... \
+ *     [url=http://localhost:8080] [requests=1000] [dir=.] [log=startup-probe.log] -- java -jar app.jar --args...
+ * </pre>
+ * Everything after {@code --} is the command that starts the backend, run in {@code dir}. Reported:
+ * <ul>
+ *   <li>time to ready: launch until {@code /actuator/health/readiness} answers 200;</li>
+ *   <li>time to first login: launch until the first {@code POST /auth/login} returns 200, and that login's latency;</li>
+ *   <li>steady state: the median of the last fifth of the logins, and how long after the first login the rolling
+ *       median of 20 logins first came within 1.5x of it;</li>
+ *   <li>the median login latency over time since the first login, to show how quickly the JIT catches up.</li>
+ * </ul>
+ */
+public final class StartupProbe {
+
+    private static final int WINDOW = 20;
+    private static final double STEADY_TOLERANCE = 1.5;
+    private static final int[] TIMELINE_SECONDS = {1, 2, 5, 10, 20, 40, 80};
+
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int separator = Arrays.asList(args).indexOf("--");
+        if (separator < 0 || separator == args.length - 1) {
+            throw new IllegalArgumentException("Expected options, then -- and the command that starts the backend");
+        }
+        Map<String, String> options = new HashMap<>(Map.of(
+                "url", "http://localhost:8080",
+                "requests", "1000",
+                "dir", ".",
+                "log", "startup-probe.log"));
+        for (String arg : Arrays.copyOfRange(args, 0, separator)) {
+            int eq = arg.indexOf('=');
+            if (eq < 1) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        List<String> command = List.of(Arrays.copyOfRange(args, separator + 1, args.length));
+
+        String baseUrl = options.get("url");
+        int requests = Integer.parseInt(options.get("requests"));
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness")).GET().build();
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(new ObjectMapper().writeValueAsString(
+                        Map.of("email", options.get("email"), "password", options.get("password")))))
+                .build();
+
+        long launched = System.nanoTime();
+        Process backend = new ProcessBuilder(command)
+                .directory(new File(options.get("dir")))
+                .redirectErrorStream(true)
+                .redirectOutput(new File(options.get("log")))
+                .start();
+        try {
+            while (status(client, readiness) != 200) {
+                if (!backend.isAlive()) {
+                    throw new IllegalStateException("Backend exited with " + backend.exitValue() + ", see "
+                            + options.get("log"));
+                }
+                Thread.sleep(10);
+            }
+            long ready = System.nanoTime();
+
+            long[] sentAt = new long[requests];
+            long[] latencies = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                sentAt[i] = System.nanoTime();
+                int status = status(client, login);
+                latencies[i] = System.nanoTime() - sentAt[i];
+                if (status != 200) {
+                    throw new IllegalStateException("Login " + (i + 1) + " answered " + status);
+                }
+            }
+
+            long[] tail = Arrays.copyOfRange(latencies, requests - requests / 5, requests);
+            double steady = median(tail);
+            int steadyFrom = requests - 1;
+            for (int i = WINDOW; i <= requests; i++) {
+                if (median(Arrays.copyOfRange(latencies, i - WINDOW, i)) <= steady * STEADY_TOLERANCE) {
+                    steadyFrom = i - 1;
+                    break;
+                }
+            }
+
+            System.out.printf("time to ready          %7.0f ms%n", millis(ready - launched));
+            System.out.printf("time to first login    %7.0f ms (its latency %.1f ms)%n",
+                    millis(sentAt[0] + latencies[0] - launched), millis(latencies[0]));
+            System.out.printf("logins 2-10 median     %7.1f ms%n", median(Arrays.copyOfRange(latencies, 1, 10)));
+            System.out.printf("logins 11-100 median   %7.1f ms%n", median(Arrays.copyOfRange(latencies, 10, 100)));
+            System.out.printf("steady-state median    %7.1f ms (last %d logins)%n", steady, tail.length);
+            System.out.printf("time to steady state   %7.0f ms after the first login (%d logins)%n",
+                    millis(sentAt[steadyFrom] - sentAt[0]), steadyFrom + 1);
+            printTimeline(sentAt, latencies);
+        } finally {
+            backend.destroy();
+            backend.waitFor();
+        }
+    }
+
+    private static void printTimeline(long[] sentAt, long[] latencies) {
+        StringBuilder line = new StringBuilder("median by time since first login:");
+        int from = 0;
+        long previous = 0;
+        for (int seconds : TIMELINE_SECONDS) {
+            long until = sentAt[0] + seconds * 1_000_000_000L;
+            int to = from;
+            while (to < sentAt.length && sentAt[to] < until) {
+                to++;
+            }
+            if (to > from) {
+                line.append(String.format(" %d-%ds %.1f ms,", previous, seconds,
+                        median(Arrays.copyOfRange(latencies, from, to))));
+            }
+            from = to;
+            previous = seconds;
+        }
+        System.out.println(line.substring(0, line.length() - 1));
+    }
+
+    private static int status(HttpClient client, HttpRequest request) throws Exception {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (ConnectException ex) {
+            return -1;
+        }
+    }
+
+    private static double median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return millis(sorted[sorted.length / 2]);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
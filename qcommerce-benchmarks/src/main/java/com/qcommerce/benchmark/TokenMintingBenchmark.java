@@ -0,0 +1,87 @@
+package com.qcommerce.benchmark;
+
+import com.qcommerce.security.JwtTokenProvider;
+import com.qcommerce.security.TokenSubject;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of minting an access token: the jjwt builder path {@link JwtTokenProvider} used to take (claim map,
+ * Dates, Jackson) against the provider's current specialised encoder, with HS256 and with an RS256 key ring.
+ * Run with {@code -prof gc} for allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenMintingBenchmark {
+
+    private static final long EXPIRATION_MS = 86_400_000L;
+    private static final String ISSUER = "qcommerce-app";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtTokenProvider rs256TokenProvider;
+    private SecretKey key;
+    private TokenSubject subject;
+    private String sessionId;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(TokenVerificationBenchmark.SECRET, EXPIRATION_MS, 604_800_000L, ISSUER);
+        rs256TokenProvider = TokenVerificationBenchmark.provider("RS256");
+        key = Keys.hmacShaKeyFor(TokenVerificationBenchmark.SECRET.getBytes());
+        subject = TokenSubject.of(TokenVerificationBenchmark.sampleUser());
+        sessionId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String jjwtBuilder() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("token_type", "access");
+        claims.put("userId", subject.userId());
+        claims.put("email", subject.email());
+        claims.put("roles", subject.roles());
+        claims.put("sid", sessionId);
+        Date now = new Date();
+        return Jwts.builder()
+                .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(subject.email())
+                .setIssuer(ISSUER)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + EXPIRATION_MS))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String compactEncoder() {
+        return jwtTokenProvider.generateAccessToken(subject, sessionId);
+    }
+
+    @Benchmark
+    public String compactEncoderRs256() {
+        return rs256TokenProvider.generateAccessToken(subject, sessionId);
+    }
+}
@@ -0,0 +1,85 @@
+package com.qcommerce.benchmark;
+
+import com.qcommerce.model.RoleEntity;
+import com.qcommerce.model.UserEntity;
+import com.qcommerce.security.InMemoryJwtKeyStore;
+import com.qcommerce.security.JwtKeyRing;
+import com.qcommerce.security.JwtTokenProvider;
+import com.qcommerce.security.TokenSubject;
+import com.qcommerce.security.VerifiedToken;
+import com.qcommerce.security.VerifiedTokenCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating a request that replays the same access token:
+ * a full jjwt verification (HMAC or RSA signature check + claim parse) against a {@link VerifiedTokenCache} hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+    static final String SECRET = "zVTcy5/pa/FisoRkSHSzvFNDMsC+9zq+RwZACTT5X5k=";
+
+    @Param({"HS256", "RS256"})
+    public String algorithm;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = provider(algorithm);
+        verifiedTokenCache = new VerifiedTokenCache(jwtTokenProvider, 10_000);
+        token = jwtTokenProvider.generateAccessToken(TokenSubject.of(sampleUser()), UUID.randomUUID().toString());
+        verifiedTokenCache.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken uncached() {
+        return jwtTokenProvider.parseAccessToken(token);
+    }
+
+    @Benchmark
+    public VerifiedToken cached() {
+        return verifiedTokenCache.verify(token);
+    }
+
+    /**
+     * A provider signing with the shared secret, or with a fresh RS256 key ring.
+     */
+    static JwtTokenProvider provider(String algorithm) {
+        if ("RS256".equals(algorithm)) {
+            JwtKeyRing keyRing = new JwtKeyRing(new InMemoryJwtKeyStore(), 2048, 86_400_000L, 60_000L,
+                    604_800_000L, 3600);
+            return new JwtTokenProvider(keyRing, 86_400_000L, 604_800_000L, "qcommerce-app");
+        }
+        return new JwtTokenProvider(SECRET, 86_400_000L, 604_800_000L, "qcommerce-app");
+    }
+
+    static UserEntity sampleUser() {
+        UserEntity user = new UserEntity("bench.user@example.com", "+14155552671", "unused", "en-US", true);
+        user.setId(42L);
+        user.setRoles(Set.of(new RoleEntity(1L, "ROLE_USER"), new RoleEntity(2L, "ROLE_ADMIN")));
+        return user;
+    }
+}